@@ -0,0 +1,31 @@
+package com.example.backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Negociação de conteúdo binária para clientes internos: com {@code Accept: application/cbor} ou
+ * {@code application/x-jackson-smile} (e o mesmo {@code Content-Type} no corpo) os controllers leem e
+ * escrevem os mesmos DTOs em CBOR/Smile. JSON continua o padrão para quem não pede outro formato.
+ * <p>
+ * Os mappers saem do builder do Spring Boot (prototype), então datas, módulos e {@code spring.jackson.*}
+ * são iguais aos do JSON; o Spring Boot coloca estes conversores depois do de JSON.
+ */
+@Configuration
+public class BinaryContentConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
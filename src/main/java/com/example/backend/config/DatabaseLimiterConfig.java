@@ -0,0 +1,55 @@
+package com.example.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Envolve o DataSource num {@link LimitedDataSource}. Por padrão o limite acompanha o
+ * tamanho máximo do pool do Hikari, então quem passa do limite espera na fila do limitador
+ * (medida em {@code db.limiter.wait}) em vez de dentro do pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor limitedDataSourcePostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource ds) || bean instanceof LimitedDataSource) return bean;
+
+                int configured = env.getProperty("app.db.limiter.max-concurrency", Integer.class, 0);
+                long timeoutMs = env.getProperty("app.db.limiter.acquire-timeout-ms", Long.class, 30_000L);
+
+                return new LimitedDataSource(ds, configured > 0 ? configured : poolSize(ds), timeoutMs);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder databaseLimiterMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream().forEach(ds -> {
+            try {
+                if (ds.isWrapperFor(LimitedDataSource.class)) ds.unwrap(LimitedDataSource.class).bindTo(registry);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot inspect DataSource for limiter metrics", e);
+            }
+        });
+    }
+
+    private static int poolSize(DataSource ds) {
+        // antes de o pool iniciar o Hikari ainda pode reportar -1 (usa 10 por padrão)
+        if (ds instanceof HikariDataSource h && h.getMaximumPoolSize() > 0) return h.getMaximumPoolSize();
+        return 10;
+    }
+}
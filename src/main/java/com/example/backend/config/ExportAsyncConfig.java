@@ -0,0 +1,43 @@
+package com.example.backend.config;
+
+import com.example.backend.web.AdmissionFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Timeout das exportações em streaming ({@code GET /orders/export}, {@code GET /trips/export}): o corpo é
+ * escrito numa requisição assíncrona que pode durar minutos. O prazo vale só para elas; as demais
+ * requisições assíncronas ficam com o timeout padrão do container.
+ */
+@Configuration
+public class ExportAsyncConfig implements WebMvcConfigurer {
+
+    private final long exportTimeoutMs;
+
+    public ExportAsyncConfig(@Value("${app.export.timeout:PT10M}") Duration exportTimeout) {
+        this.exportTimeoutMs = exportTimeout.toMillis();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // chamado antes do startAsync: o prazo ainda entra no AsyncContext criado para a exportação
+                HttpServletRequest http = request.getNativeRequest(HttpServletRequest.class);
+                if (http != null && AdmissionFilter.isExport(http) && request instanceof AsyncWebRequest async) {
+                    async.setTimeout(exportTimeoutMs);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread atual.
+ * Registrado via {@code hibernate.session_factory.statement_inspector}; quem quer medir um
+ * trecho lê {@link #current()} antes e depois (as transações rodam na thread de quem chama).
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
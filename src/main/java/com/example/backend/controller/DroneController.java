@@ -58,6 +58,11 @@ public class DroneController {
         return drones.updateLocation(id, req.x, req.y);
     }
 
+    @PatchMapping("/{id}/hub")
+    public Drone assignHub(@PathVariable Long id, @RequestBody AssignHubRequest req) {
+        return drones.assignHub(id, req.hubId);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteIfIdle(@PathVariable Long id) {
@@ -83,4 +88,8 @@ public class DroneController {
         public Integer x;
         public Integer y;
     }
+
+    public static class AssignHubRequest {
+        public Long hubId;
+    }
 }
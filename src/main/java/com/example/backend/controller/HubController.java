@@ -0,0 +1,57 @@
+package com.example.backend.controller;
+
+import com.example.backend.domain.Hub;
+import com.example.backend.service.HubService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@CrossOrigin(origins = {"http://localhost:3000"}, allowCredentials = "true")
+@RestController
+@RequestMapping("/hubs")
+public class HubController {
+
+    private final HubService hubs;
+
+    public HubController(HubService hubs) {
+        this.hubs = hubs;
+    }
+
+    @PostMapping
+    public ResponseEntity<Hub> create(@RequestBody Hub body) {
+        Hub saved = hubs.create(body);
+        return ResponseEntity
+                .created(URI.create("/hubs/" + saved.getId()))
+                .body(saved);
+    }
+
+    @GetMapping
+    public List<Hub> list() {
+        return hubs.listAll();
+    }
+
+    @GetMapping("/{id}")
+    public Hub get(@PathVariable Long id) {
+        return hubs.getById(id);
+    }
+
+    @PatchMapping("/{id}")
+    public Hub update(@PathVariable Long id, @RequestBody UpdateHubRequest req) {
+        return hubs.update(id, req.name, req.x, req.y);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable Long id) {
+        hubs.delete(id);
+    }
+
+    public static class UpdateHubRequest {
+        public String name;
+        public Integer x;
+        public Integer y;
+    }
+}
@@ -2,11 +2,17 @@ package com.example.backend.controller;
 
 import com.example.backend.domain.Order;
 import com.example.backend.service.OrderService;
+import com.example.backend.service.TripInsertionService;
+import com.example.backend.web.JsonArrayStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 
 @CrossOrigin(origins = {"http://localhost:3000"}, allowCredentials = "true")
@@ -15,9 +21,13 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orders;
+    private final TripInsertionService insertion;
+    private final ObjectMapper om;
 
-    public OrderController(OrderService orders) {
+    public OrderController(OrderService orders, TripInsertionService insertion, ObjectMapper om) {
         this.orders = orders;
+        this.insertion = insertion;
+        this.om = om;
     }
 
     @PostMapping
@@ -37,6 +47,21 @@ public class OrderController {
         return orders.listAll();
     }
 
+    /*
+     * Exportação por status e janela de updatedAt (inclusiva; padrão: desde sempre até agora),
+     * ex.: pedidos DELIVERED do mês. Escrita enquanto o cursor do banco avança, sem montar a lista.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam("status") Order.Status status,
+                                                        @RequestParam(value = "from", required = false) Instant from,
+                                                        @RequestParam(value = "to", required = false) Instant to) {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now();
+        StreamingResponseBody body = JsonArrayStream.of(om, Order.class, sink -> orders.exportByStatus(status, start, end, sink));
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public Order get(@PathVariable Long id) {
         return orders.getById(id);
@@ -52,6 +77,17 @@ public class OrderController {
         return orders.updateStatus(id, req.status);
     }
 
+    @PatchMapping("/status")
+    public List<Order> updateStatusAll(@RequestBody BulkStatusRequest req) {
+        return orders.updateStatusAll(req.ids, req.status);
+    }
+
+    // encaixa um pedido PENDING na viagem PLANNED onde ele custa menos, sem replanejar
+    @PostMapping("/{id}/insert")
+    public TripInsertionService.Insertion insertIntoTrip(@PathVariable Long id) {
+        return insertion.insertOrder(id);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteIfPending(@PathVariable Long id) {
@@ -68,4 +104,9 @@ public class OrderController {
     public static class UpdateStatusRequest {
         public Order.Status status;
     }
+
+    public static class BulkStatusRequest {
+        public List<Long> ids;
+        public Order.Status status;
+    }
 }
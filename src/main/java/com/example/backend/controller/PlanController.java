@@ -1,10 +1,12 @@
 package com.example.backend.controller;
 
 import com.example.backend.domain.Trip;
+import com.example.backend.service.PlanRunReport;
 import com.example.backend.service.PlanningService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @CrossOrigin(origins = {"http://localhost:3000"}, allowCredentials = "true")
 @RestController
@@ -17,8 +19,53 @@ public class PlanController {
         this.planning = planning;
     }
 
+    /*
+     * strategy escolhe o algoritmo (GET /plan/strategies); budgetMs > 0 refina o plano por LNS até o prazo
+     * (acompanhe em GET /plan/progress). Responde as viagens criadas; profile=true cai em planWithProfile
+     */
     @PostMapping
-    public List<Trip> plan() {
-        return planning.planAll();
+    public List<Trip> plan(@RequestParam(value = "strategy", required = false) String strategy,
+                           @RequestParam(value = "budgetMs", defaultValue = "0") long budgetMs) {
+        if (strategy == null && budgetMs == 0) {
+            return planning.planAll();
+        }
+        return planning.planAllWithReport(strategy, budgetMs).trips();
+    }
+
+    /* Mesmo plano, com o perfil da execução junto das viagens */
+    @PostMapping(params = "profile=true")
+    public PlanResponse planWithProfile(@RequestParam(value = "strategy", required = false) String strategy,
+                                        @RequestParam(value = "budgetMs", defaultValue = "0") long budgetMs) {
+        PlanningService.PlanRun run = planning.planAllWithReport(strategy, budgetMs);
+
+        PlanResponse body = new PlanResponse();
+        body.trips = run.trips();
+        body.profile = run.report();
+        return body;
+    }
+
+    @GetMapping("/progress")
+    public PlanningService.OptimizationProgress progress() {
+        return planning.optimizationProgress();
+    }
+
+    @GetMapping("/strategies")
+    public Set<String> strategies() {
+        return planning.strategies();
+    }
+
+    @GetMapping("/runs")
+    public List<PlanRunReport> runs() {
+        return planning.recentRuns();
+    }
+
+    @GetMapping("/runs/{id}")
+    public PlanRunReport run(@PathVariable long id) {
+        return planning.getRun(id);
+    }
+
+    public static class PlanResponse {
+        public List<Trip> trips;
+        public PlanRunReport profile;
     }
 }
@@ -2,10 +2,16 @@ package com.example.backend.controller;
 
 import com.example.backend.domain.Drone;
 import com.example.backend.domain.Trip;
+import com.example.backend.service.EtaStreams;
 import com.example.backend.service.TripService;
+import com.example.backend.web.JsonArrayStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.time.Instant;
@@ -19,9 +25,13 @@ import java.util.stream.Collectors;
 public class TripController {
 
     private final TripService trips;
+    private final EtaStreams etaStreams;
+    private final ObjectMapper om;
 
-    public TripController(TripService trips) {
+    public TripController(TripService trips, EtaStreams etaStreams, ObjectMapper om) {
         this.trips = trips;
+        this.etaStreams = etaStreams;
+        this.om = om;
     }
 
     @PostMapping
@@ -57,16 +67,37 @@ public class TripController {
                 .collect(Collectors.toList());
     }
 
+    // exportação de todas as viagens de um drone, escrita enquanto o cursor do banco avança
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam("droneId") Long droneId) {
+        StreamingResponseBody body = JsonArrayStream.of(om, TripExportRow.class,
+                sink -> trips.exportByDrone(droneId, t -> sink.accept(TripExportRow.of(t))));
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public Trip get(@PathVariable Long id) {
         return trips.getById(id);
     }
 
+    /* ETAs recalculadas da viagem, empurradas por Server-Sent Events (evento "eta") a cada mudança confirmada */
+    @GetMapping(value = "/{id}/eta/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter etaStream(@PathVariable Long id) {
+        trips.getById(id);
+        return etaStreams.subscribe(id);
+    }
+
     @PatchMapping("/{id}/status")
     public Trip updateStatus(@PathVariable Long id, @RequestBody UpdateStatusRequest req) {
         return trips.updateStatus(id, req.status);
     }
 
+    @PatchMapping("/status")
+    public List<Trip> updateStatusAll(@RequestBody BulkStatusRequest req) {
+        return trips.updateStatusAll(req.ids, req.status);
+    }
+
     @PatchMapping("/{id}/times")
     public Trip updateTimes(@PathVariable Long id, @RequestBody UpdateTimesRequest req) {
         return trips.updateStartTime(id, req.startAt);
@@ -103,4 +134,36 @@ public class TripController {
         public Double totalWeight;
         public Double totalDistanceKm;
     }
+
+    public static class BulkStatusRequest {
+        public List<Long> ids;
+        public Trip.Status status;
+    }
+
+    // linha da exportação: só colunas da viagem, sem carregar drone nem paradas
+    public static class TripExportRow {
+        public Long id;
+        public Long droneId;
+        public Trip.Status status;
+        public Instant startAt;
+        public Instant finishAt;
+        public double totalWeight;
+        public double totalDistanceKm;
+        public int stopsTotal;
+        public int stopsRemaining;
+
+        static TripExportRow of(Trip t) {
+            TripExportRow r = new TripExportRow();
+            r.id = t.getId();
+            r.droneId = t.getDrone() != null ? t.getDrone().getId() : null;
+            r.status = t.getStatus();
+            r.startAt = t.getStartAt();
+            r.finishAt = t.getFinishAt();
+            r.totalWeight = t.getTotalWeight();
+            r.totalDistanceKm = t.getTotalDistanceKm();
+            r.stopsTotal = t.getStopsTotal();
+            r.stopsRemaining = t.getStopsRemaining();
+            return r;
+        }
+    }
 }
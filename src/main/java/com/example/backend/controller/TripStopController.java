@@ -51,6 +51,11 @@ public class TripStopController {
         return stops.markDelivered(tripId, seq);
     }
 
+    @PatchMapping("/delivered")
+    public List<TripStop> markDeliveredAll(@PathVariable Long tripId, @RequestBody BulkDeliveredRequest req) {
+        return stops.markDeliveredAll(tripId, req.seqs);
+    }
+
     @PatchMapping("/{seq}/estimates")
     public TripStop updateEstimates(@PathVariable Long tripId, @PathVariable int seq, @RequestBody UpdateEstimatesRequest req) {
         return stops.updateEstimates(tripId, seq, req.estimatedArrivalAt, req.estimatedDepartureAt);
@@ -77,4 +82,8 @@ public class TripStopController {
         public Instant estimatedArrivalAt;
         public Instant estimatedDepartureAt;
     }
-}
\ No newline at end of file
+
+    public static class BulkDeliveredRequest {
+        public List<Integer> seqs;
+    }
+}
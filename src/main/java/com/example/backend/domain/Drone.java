@@ -1,13 +1,19 @@
 package com.example.backend.domain;
 
+import com.example.backend.persistence.EntityChangeListener;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.Instant;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "drones")
+@DynamicUpdate // telemetria muda só x/y: o UPDATE não regrava as outras colunas
 @Data
 @NoArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -42,6 +48,20 @@ public class Drone {
     @Column(nullable = false)
     private int locationY = 0;
 
+    // id do Hub de origem; sem hub, o drone opera a partir da origem (0,0)
+    @Column(name = "hub_id")
+    private Long hubId;
+
+    // usado pelo warm start para reaplicar apenas o que mudou depois do snapshot
+    @Column
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public enum Status {
         IDLE, CARREGANDO, EM_VOO, ENTREGANDO, RETORNANDO
     }
@@ -0,0 +1,45 @@
+package com.example.backend.domain;
+
+import jakarta.persistence.*;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/* Resposta persistida de uma requisição com Idempotency-Key (store opcional, app.idempotency.store=db) */
+@Entity
+@Table(
+    name = "idempotency_records",
+    indexes = @Index(name = "idx_idempotency_created", columnList = "created_at")
+)
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 200)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(length = 120)
+    private String contentType;
+
+    @Column(length = 500)
+    private String location;
+
+    @Lob
+    private byte[] body;
+
+    /* SHA-256 do corpo quando ele era grande demais para ser guardado (body vazio) */
+    @Column(length = 64)
+    private String bodyDigest;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
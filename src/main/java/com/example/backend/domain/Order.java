@@ -1,13 +1,17 @@
 package com.example.backend.domain;
 
+import com.example.backend.persistence.EntityChangeListener;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "orders")
 @Data
 @NoArgsConstructor
@@ -35,6 +39,18 @@ public class Order {
     @Column(nullable = false, length = 12)
     private Status status = Status.PENDING;
 
+    @Column
+    private Instant updatedAt;
+
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public enum Priority { LOW, MEDIUM, HIGH }
     public enum Status { PENDING, PLANNED, DELIVERED, REJECTED }
 }
@@ -1,17 +1,25 @@
 package com.example.backend.domain;
 
+import com.example.backend.persistence.EntityChangeListener;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.Instant;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "trips")
+@EntityListeners(EntityChangeListener.class)
+@Table(
+    name = "trips",
+    indexes = {
+        @Index(name = "idx_trips_drone_status", columnList = "drone_id, status")
+    }
+)
 @Data
 @NoArgsConstructor
 public class Trip {
@@ -41,12 +49,36 @@ public class Trip {
     @Column(nullable = false, length = 16)
     private Status status = Status.PLANNED;
 
+    @Column
+    private Instant updatedAt;
+
+    @Version
+    private Long version;
+
+    /*
+     * Progresso da viagem, mantido por UPDATEs atômicos no TripStopService.
+     * updatable = false: um save() da entidade nunca sobrescreve os contadores com valores antigos.
+     */
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int stopsTotal;
+
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int stopsRemaining;
+
     @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("seq ASC")
     private List<TripStop> stops = new ArrayList<>();
 
     public enum Status { PLANNED, IN_PROGRESS, FINISHED }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public void addStop(TripStop stop) {
         stops.add(stop);
         stop.setTrip(this);
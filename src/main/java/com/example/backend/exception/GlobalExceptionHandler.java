@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
@@ -13,6 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
@@ -142,6 +144,12 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.CONFLICT, "Transaction Error", rootMessage(ex), req, null);
     }
     
+    // banco saturado (fila do limitador de conexões esgotou o timeout): o cliente pode tentar de novo
+    @ExceptionHandler({ CannotCreateTransactionException.class, DataAccessResourceFailureException.class })
+    public ResponseEntity<ErrorResponse> handleUnavailable(Exception ex, HttpServletRequest req) {
+        return build(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", rootMessage(ex), req, null);
+    }
+
     @ExceptionHandler({ HttpMessageNotWritableException.class, DataAccessException.class })
     public ResponseEntity<ErrorResponse> handleServerIssues(Exception ex, HttpServletRequest req) {
         return build(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Error", rootMessage(ex), req, null);
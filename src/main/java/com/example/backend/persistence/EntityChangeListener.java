@@ -0,0 +1,40 @@
+package com.example.backend.persistence;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Entity listener das entidades replicadas em memória: repassa cada escrita aos {@link EntityChangeSink}
+ * e aplica o resultado só depois do commit. UPDATEs em lote (JPQL) não passam por aqui; quem os executa
+ * ajusta os caches à mão.
+ */
+@Component
+public class EntityChangeListener {
+
+    private final List<EntityChangeSink> sinks;
+
+    public EntityChangeListener(List<EntityChangeSink> sinks) {
+        this.sinks = sinks;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        for (EntityChangeSink sink : sinks) {
+            Runnable action = sink.onSave(entity);
+            if (action != null) AfterCommit.run(action);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        for (EntityChangeSink sink : sinks) {
+            Runnable action = sink.onRemove(entity);
+            if (action != null) AfterCommit.run(action);
+        }
+    }
+}
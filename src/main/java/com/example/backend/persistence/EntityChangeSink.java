@@ -0,0 +1,12 @@
+package com.example.backend.persistence;
+
+/**
+ * Quem replica em memória as escritas feitas via JPA. Os métodos rodam no callback da entidade: capturam o
+ * estado nesse momento e devolvem o que aplicar depois do commit ({@code null} quando a entidade não interessa).
+ */
+public interface EntityChangeSink {
+
+    Runnable onSave(Object entity);
+
+    Runnable onRemove(Object entity);
+}
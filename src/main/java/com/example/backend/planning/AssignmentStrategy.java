@@ -0,0 +1,172 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import static com.example.backend.planning.PhaseTimes.Phase.*;
+
+/**
+ * Planejamento em rodadas com atribuição de frota. Em cada rodada:
+ * <ol>
+ *   <li>monta pacotes disjuntos (knapsack + vizinho mais próximo + corte no alcance, como o {@code greedy}),
+ *       um por drone, do maior para o menor em capacidade — então todo pacote cabe em ao menos um drone;</li>
+ *   <li>resolve pacotes × drones como atribuição de custo mínimo ({@link Hungarian}): carga, alcance e bateria
+ *       são restrições (par inviável = proibido); o custo é o tempo de voo no drone, pesado pela urgência do
+ *       pacote, mais uma pequena penalidade pela capacidade ociosa.</li>
+ * </ol>
+ * Pacotes urgentes vão para os drones mais rápidos e cada drone faz no máximo uma viagem por rodada,
+ * em vez de o primeiro drone da lista levar tudo o que couber.
+ * <p>
+ * Opcional ({@code app.planning.strategy=assignment} ou {@code POST /plan?strategy=assignment}): o padrão continua
+ * {@code greedy}, cujas viagens o {@link TripScheduler} já redistribui para o drone compatível que termina mais cedo.
+ */
+@Component
+public class AssignmentStrategy implements PlanningStrategy {
+
+    // acima disso a matriz fica cara (O(n³)): mantém o pacote no drone para o qual foi montado
+    static final int MAX_MATCHED_DRONES = 256;
+
+    private static final double[] URGENCY = {3.0, 2.0, 1.0};
+    private static final double IDLE_CAPACITY_MIN = 1.0;
+
+    private final EnergyModel energy;
+
+    public AssignmentStrategy(EnergyModel energy) {
+        this.energy = energy;
+    }
+
+    @Override
+    public String name() {
+        return "assignment";
+    }
+
+    private record Pack(int[] pack, int[] delivery, int len, double dist, double weight, int builder) {
+    }
+
+    @Override
+    public Solution plan(PlanningProblem problem, List<Drone> fleet, ToDoubleFunction<Drone> startBattery, PhaseTimes times) {
+        List<PlannedRoute> routes = new ArrayList<>();
+        int rejectedPacks = 0;
+
+        // maior capacidade primeiro; empate: mais rápido, maior alcance
+        List<Drone> drones = new ArrayList<>(fleet);
+        drones.sort(Comparator.comparingDouble(Drone::getCapacityKg).reversed()
+                .thenComparing(Comparator.comparingDouble(Drone::getSpeedKmh).reversed())
+                .thenComparing(Comparator.comparingDouble(Drone::getRangeKm).reversed()));
+
+        int m = drones.size();
+        double[] battery = new double[m];
+        EnergyModel.Table[] tables = new EnergyModel.Table[m];
+        for (int d = 0; d < m; d++) {
+            battery[d] = startBattery.applyAsDouble(drones.get(d));
+            tables[d] = energy.tableFor(drones.get(d));
+        }
+
+        int[] knapsackOrder = GreedyKnapsackStrategy.knapsackOrder(problem);
+        boolean[] planned = new boolean[problem.size()];
+        int remaining = problem.size();
+
+        while (remaining > 0) {
+            List<Pack> packs = new ArrayList<>();
+
+            for (int d = 0; d < m && remaining > 0; d++) {
+                Drone drone = drones.get(d);
+                double usablePct = energy.usablePct(battery[d]);
+
+                int[] pack = GreedyKnapsackStrategy.pickByKnapsack(problem, knapsackOrder, planned, drone, tables[d], usablePct);
+                times.lap(PACK);
+                if (pack.length == 0) continue;
+
+                int[] delivery = GreedyKnapsackStrategy.sequenceByNearestNeighbor(problem, pack);
+                int len = delivery.length;
+                times.lap(SEQUENCE);
+
+                double dist = problem.routeDistance(delivery, len);
+                while (len > 0
+                        && (dist > drone.getRangeKm() + 1e-9 || tables[d].routePct(problem, delivery, len) > usablePct + 1e-9)) {
+                    len--;
+                    dist = problem.routeDistance(delivery, len);
+                }
+                times.lap(RANGE_CHECK);
+
+                if (len == 0) {
+                    rejectedPacks++;
+                    continue;
+                }
+
+                packs.add(new Pack(pack, delivery, len, dist, problem.routeWeight(delivery, len), d));
+                for (int k = 0; k < len; k++) planned[delivery[k]] = true;
+                remaining -= len;
+            }
+
+            if (packs.isEmpty()) break;
+
+            int[] owner = assign(problem, packs, drones, tables, battery);
+            for (int p = 0; p < packs.size(); p++) {
+                Pack pk = packs.get(p);
+                int d = owner[p];
+                routes.add(new PlannedRoute(drones.get(d), pk.pack(), pk.delivery(), pk.len(), pk.dist()));
+                // volta, recarrega e entra na próxima rodada cheio
+                battery[d] = 100.0;
+            }
+        }
+
+        return new Solution(routes, rejectedPacks);
+    }
+
+    /* Drone de cada pacote; sem solução viável (não deveria acontecer) o pacote fica com quem o montou */
+    private int[] assign(PlanningProblem p, List<Pack> packs, List<Drone> drones, EnergyModel.Table[] tables, double[] battery) {
+        int n = packs.size();
+        int m = drones.size();
+        int[] owner = new int[n];
+        for (int i = 0; i < n; i++) owner[i] = packs.get(i).builder();
+        if (m == 1 || m > MAX_MATCHED_DRONES) return owner;
+
+        double[][] cost = new double[n][m];
+        Map<EnergyModel.Table, Double> pctBySpec = new IdentityHashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Pack pk = packs.get(i);
+            double urgency = URGENCY[urgencyRank(p, pk)];
+            pctBySpec.clear();
+
+            for (int d = 0; d < m; d++) {
+                Drone drone = drones.get(d);
+                EnergyModel.Table table = tables[d];
+
+                if (pk.weight() > drone.getCapacityKg() + 1e-9 || pk.dist() > drone.getRangeKm() + 1e-9) {
+                    cost[i][d] = Hungarian.FORBIDDEN;
+                    continue;
+                }
+                double pct = pctBySpec.computeIfAbsent(table, t -> t.routePct(p, pk.delivery(), pk.len()));
+                if (pct > energy.usablePct(battery[d]) + 1e-9) {
+                    cost[i][d] = Hungarian.FORBIDDEN;
+                    continue;
+                }
+
+                double flightMin = pk.dist() / Math.max(1.0, drone.getSpeedKmh()) * 60.0;
+                double idle = (drone.getCapacityKg() - pk.weight()) / drone.getCapacityKg();
+                cost[i][d] = flightMin * urgency + idle * IDLE_CAPACITY_MIN;
+            }
+        }
+
+        int[] matched = Hungarian.solve(cost);
+        for (int i = 0; i < n; i++) {
+            if (cost[i][matched[i]] >= Hungarian.FORBIDDEN) return owner;
+        }
+        return matched;
+    }
+
+    private static int urgencyRank(PlanningProblem p, Pack pk) {
+        int rank = 2;
+        for (int k = 0; k < pk.len(); k++) rank = Math.min(rank, p.priorityRank(pk.delivery()[k]));
+        return rank;
+    }
+}
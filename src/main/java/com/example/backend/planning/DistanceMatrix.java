@@ -0,0 +1,60 @@
+package com.example.backend.planning;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Matriz de distâncias de um planejamento, em arrays primitivos e preenchida sob demanda:
+ * cada linha só é alocada quando consultada e cada célula só é calculada uma vez por thread que a vê vazia.
+ * É compartilhada pelos workers do LNS e pelos clusters resolvidos em paralelo: a linha só é publicada
+ * (CAS) depois de inteira em NaN, e as células são lidas/escritas de forma atômica, então outra thread
+ * vê NaN (e recalcula) ou o valor certo, nunca um 0 de array recém-alocado.
+ */
+public final class DistanceMatrix {
+
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(double[].class);
+
+    private final DistanceModel model;
+    private final int[] xs;
+    private final int[] ys;
+    private final AtomicReferenceArray<double[]> rows;
+
+    public DistanceMatrix(DistanceModel model, int[] xs, int[] ys) {
+        if (xs.length != ys.length) throw new IllegalArgumentException("xs and ys must have the same length");
+
+        this.model = model;
+        this.xs = xs;
+        this.ys = ys;
+        this.rows = new AtomicReferenceArray<>(xs.length);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double get(int i, int j) {
+        if (i == j) return 0.0;
+
+        double[] row = row(i);
+        double d = (double) CELL.getOpaque(row, j);
+        if (Double.isNaN(d)) {
+            double[] mirror = rows.get(j);
+            double m = mirror != null ? (double) CELL.getOpaque(mirror, i) : Double.NaN;
+            d = !Double.isNaN(m) ? m : model.distance(xs[i], ys[i], xs[j], ys[j]);
+            CELL.setOpaque(row, j, d);
+        }
+        return d;
+    }
+
+    private double[] row(int i) {
+        double[] row = rows.get(i);
+        if (row != null) return row;
+
+        double[] fresh = new double[xs.length];
+        Arrays.fill(fresh, Double.NaN);
+        // publicação segura: quem perde a corrida usa a linha do vencedor
+        return rows.compareAndSet(i, null, fresh) ? fresh : rows.get(i);
+    }
+}
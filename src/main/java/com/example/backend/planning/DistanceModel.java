@@ -0,0 +1,12 @@
+package com.example.backend.planning;
+
+/**
+ * Distância (km) entre dois pontos da grade da cidade.
+ * Implementações devem ser thread-safe; {@link Double#POSITIVE_INFINITY} indica destino inalcançável.
+ */
+public interface DistanceModel {
+
+    double distance(int x1, int y1, int x2, int y2);
+
+    String name();
+}
@@ -0,0 +1,90 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Modelo de consumo de bateria por km em função da carga.
+ * Vazio, o drone gasta {@code 100 / rangeKm} % por km; com carga cheia o consumo cresce
+ * {@code payloadFactor} vezes. As taxas são pré-calculadas por faixa de carga numa tabela
+ * por especificação (capacidade, alcance), então cada consulta dentro da busca de rota é O(1).
+ */
+@Component
+public class EnergyModel {
+
+    private final double payloadFactor;
+    private final double reservePct;
+    private final int buckets;
+
+    private final ConcurrentMap<Spec, Table> tables = new ConcurrentHashMap<>();
+
+    public EnergyModel(@Value("${app.energy.payload-factor:0.5}") double payloadFactor,
+                       @Value("${app.energy.reserve-pct:10}") double reservePct,
+                       @Value("${app.energy.table-buckets:64}") int buckets) {
+        if (buckets < 1) throw new IllegalArgumentException("app.energy.table-buckets must be >= 1");
+
+        this.payloadFactor = payloadFactor;
+        this.reservePct = reservePct;
+        this.buckets = buckets;
+    }
+
+    public Table tableFor(Drone d) {
+        return tables.computeIfAbsent(new Spec(d.getCapacityKg(), d.getRangeKm()), this::build);
+    }
+
+    /** Bateria que pode ser gasta numa viagem, descontada a reserva de segurança. */
+    public double usablePct(double batteryPct) {
+        return Math.max(0.0, batteryPct - reservePct);
+    }
+
+    private Table build(Spec s) {
+        double base = 100.0 / s.rangeKm();
+        double[] rates = new double[buckets + 1];
+
+        for (int b = 0; b <= buckets; b++) {
+            rates[b] = base * (1.0 + payloadFactor * b / buckets);
+        }
+
+        return new Table(rates, buckets / s.capacityKg());
+    }
+
+    private record Spec(double capacityKg, double rangeKm) {
+    }
+
+    public static final class Table {
+        private final double[] rates;
+        private final double bucketsPerKg;
+
+        private Table(double[] rates, double bucketsPerKg) {
+            this.rates = rates;
+            this.bucketsPerKg = bucketsPerKg;
+        }
+
+        /** % de bateria por km carregando {@code payloadKg} (arredonda a faixa para cima). */
+        public double pctPerKm(double payloadKg) {
+            if (payloadKg <= 0) return rates[0];
+
+            int b = (int) Math.ceil(payloadKg * bucketsPerKg);
+            return rates[Math.min(b, rates.length - 1)];
+        }
+
+        /** Energia (% de bateria) da rota hub -> paradas -> hub; a carga cai a cada entrega. */
+        public double routePct(PlanningProblem p, int[] route, int len) {
+            double load = p.routeWeight(route, len);
+            double pct = 0.0;
+            int prev = PlanningProblem.HUB;
+
+            for (int k = 0; k < len; k++) {
+                pct += pctPerKm(load) * p.distance(prev, route[k]);
+                load -= p.weight(route[k]);
+                prev = route[k];
+            }
+
+            return pct + pctPerKm(0.0) * p.distance(prev, PlanningProblem.HUB);
+        }
+    }
+}
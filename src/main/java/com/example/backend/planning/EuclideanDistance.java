@@ -0,0 +1,15 @@
+package com.example.backend.planning;
+
+/* Voo em linha reta */
+public class EuclideanDistance implements DistanceModel {
+
+    @Override
+    public double distance(int x1, int y1, int x2, int y2) {
+        return Math.hypot(x1 - x2, y1 - y2);
+    }
+
+    @Override
+    public String name() {
+        return "euclidean";
+    }
+}
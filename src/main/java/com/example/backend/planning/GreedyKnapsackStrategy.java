@@ -0,0 +1,166 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import static com.example.backend.planning.PhaseTimes.Phase.*;
+import static com.example.backend.planning.PlanningProblem.HUB;
+
+/**
+ * Estratégia original: cada drone, em ordem, enche a carga pelo knapsack guloso (prioridade, peso,
+ * distância ao hub), sequencia por vizinho mais próximo dentro de cada faixa de prioridade e
+ * descarta as últimas paradas até caber no alcance e na bateria. Repete até o drone não levar mais nada.
+ */
+@Component
+public class GreedyKnapsackStrategy implements PlanningStrategy {
+
+    private final EnergyModel energy;
+
+    public GreedyKnapsackStrategy(EnergyModel energy) {
+        this.energy = energy;
+    }
+
+    @Override
+    public String name() {
+        return "greedy";
+    }
+
+    @Override
+    public Solution plan(PlanningProblem problem, List<Drone> fleet, ToDoubleFunction<Drone> startBattery, PhaseTimes times) {
+        List<PlannedRoute> routes = new ArrayList<>();
+        int rejectedPacks = 0;
+
+        int[] knapsackOrder = knapsackOrder(problem);
+        boolean[] planned = new boolean[problem.size()];
+        int remaining = problem.size();
+
+        for (Drone drone : fleet) {
+            if (remaining == 0) break;
+
+            EnergyModel.Table energyTable = energy.tableFor(drone);
+            // a primeira viagem sai com a bateria atual; as seguintes, após recarga no hub
+            double batteryPct = startBattery.applyAsDouble(drone);
+
+            while (true) {
+                double usablePct = energy.usablePct(batteryPct);
+
+                int[] pack = pickByKnapsack(problem, knapsackOrder, planned, drone, energyTable, usablePct);
+                times.lap(PACK);
+                if (pack.length == 0) {
+                    break;
+                }
+
+                int[] delivery = sequenceByNearestNeighbor(problem, pack);
+                int len = delivery.length;
+                times.lap(SEQUENCE);
+
+                double dist = problem.routeDistance(delivery, len);
+
+                // descarta as últimas paradas (menor prioridade) até caber no alcance e na bateria
+                while (len > 0
+                        && (dist > drone.getRangeKm() + 1e-9 || energyTable.routePct(problem, delivery, len) > usablePct + 1e-9)) {
+                    len--;
+                    dist = problem.routeDistance(delivery, len);
+                }
+                times.lap(RANGE_CHECK);
+
+                if (len == 0) {
+                    rejectedPacks++;
+                    break;
+                }
+
+                routes.add(new PlannedRoute(drone, pack, delivery, len, dist));
+
+                for (int k = 0; k < len; k++) planned[delivery[k]] = true;
+                remaining -= len;
+                batteryPct = 100.0;
+
+                if (remaining == 0) break;
+            }
+        }
+
+        return new Solution(routes, rejectedPacks);
+    }
+
+    /* Ordem fixa de escolha do knapsack: prioridade, peso decrescente, distância ao hub */
+    static int[] knapsackOrder(PlanningProblem p) {
+        Integer[] idx = new Integer[p.size()];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+
+        Arrays.sort(idx, Comparator
+                .comparingInt((Integer i) -> p.priorityRank(i))
+                .thenComparingDouble(i -> -p.weight(i))
+                .thenComparingDouble(i -> p.distance(HUB, i)));
+
+        int[] out = new int[idx.length];
+        for (int i = 0; i < idx.length; i++) out[i] = idx[i];
+        return out;
+    }
+
+    /* O drone consegue entregar o pedido sozinho (ida e volta), respeitando carga, alcance e bateria? */
+    static boolean reachableAlone(PlanningProblem p, int i, Drone drone, EnergyModel.Table table, double usablePct) {
+        if (p.weight(i) > drone.getCapacityKg() + 1e-9) return false;
+
+        double out = p.distance(HUB, i);
+        double back = p.distance(i, HUB);
+        if (out + back > drone.getRangeKm() + 1e-9) return false;
+
+        double pct = table.pctPerKm(p.weight(i)) * out + table.pctPerKm(0.0) * back;
+        return pct <= usablePct + 1e-9;
+    }
+
+    static int[] pickByKnapsack(PlanningProblem p, int[] order, boolean[] planned, Drone drone, EnergyModel.Table table, double usablePct) {
+        int[] chosen = new int[8];
+        int count = 0;
+        double sum = 0.0;
+        double capacityKg = drone.getCapacityKg();
+
+        for (int i : order) {
+            if (planned[i] || sum + p.weight(i) > capacityKg + 1e-9) continue;
+            if (!reachableAlone(p, i, drone, table, usablePct)) continue;
+
+            if (count == chosen.length) chosen = Arrays.copyOf(chosen, count * 2);
+            chosen[count++] = i;
+            sum += p.weight(i);
+        }
+        return Arrays.copyOf(chosen, count);
+    }
+
+    /* Vizinho mais próximo dentro de cada faixa de prioridade (HIGH, depois MEDIUM, depois LOW) */
+    static int[] sequenceByNearestNeighbor(PlanningProblem p, int[] pack) {
+        int[] route = new int[pack.length];
+        boolean[] used = new boolean[pack.length];
+        int filled = 0;
+        int current = HUB;
+
+        for (int rank = 0; rank <= 2; rank++) {
+            while (true) {
+                int best = -1;
+                double bestDist = Double.POSITIVE_INFINITY;
+
+                for (int k = 0; k < pack.length; k++) {
+                    if (used[k] || p.priorityRank(pack[k]) != rank) continue;
+
+                    double d = p.distance(current, pack[k]);
+                    if (best < 0 || d < bestDist) {
+                        best = k;
+                        bestDist = d;
+                    }
+                }
+
+                if (best < 0) break;
+
+                used[best] = true;
+                route[filled++] = pack[best];
+                current = pack[best];
+            }
+        }
+        return route;
+    }
+}
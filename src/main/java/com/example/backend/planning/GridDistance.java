@@ -0,0 +1,232 @@
+package com.example.backend.planning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Distância em quarteirões (4-vizinhança) desviando de zonas de exclusão.
+ * Se nenhuma zona toca o retângulo entre os dois pontos, o caminho Manhattan é livre e
+ * nada é calculado; senão roda um A* na grade, só uma vez por par (resultado em cache).
+ * <p>
+ * A grade cobre só o corredor do par: o retângulo entre os pontos mais as zonas que o tocam (e, por
+ * transitividade, as que tocam essas), com folga. Os buffers do A* são reaproveitados por thread.
+ * Se mesmo assim o corredor passar de {@code maxCells}, o par é tratado como inalcançável: nunca se
+ * devolve uma distância que atravessa uma zona.
+ */
+public class GridDistance implements DistanceModel {
+
+    private static final Logger log = LoggerFactory.getLogger(GridDistance.class);
+
+    private static final int MARGIN = 2;
+    private static final long MAX_CELLS = 16_000_000L;
+    // buffers maiores que isso não ficam retidos na thread
+    private static final int RETAINED_CELLS = 1 << 20;
+    private static final int CACHE_LIMIT = 200_000;
+
+    private final List<NoFlyZone> zones;
+    private final long maxCells;
+    private final ConcurrentMap<Key, Double> cache = new ConcurrentHashMap<>();
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    public GridDistance(List<NoFlyZone> zones) {
+        this(zones, MAX_CELLS);
+    }
+
+    GridDistance(List<NoFlyZone> zones, long maxCells) {
+        this.zones = List.copyOf(zones);
+        this.maxCells = maxCells;
+    }
+
+    @Override
+    public double distance(int x1, int y1, int x2, int y2) {
+        if (x1 == x2 && y1 == y2) return 0.0;
+        if (blocked(zones, x1, y1) || blocked(zones, x2, y2)) return Double.POSITIVE_INFINITY;
+
+        int x0 = Math.min(x1, x2), y0 = Math.min(y1, y2);
+        int xm = Math.max(x1, x2), ym = Math.max(y1, y2);
+
+        boolean obstructed = false;
+        for (NoFlyZone z : zones) {
+            if (z.intersectsBox(x0, y0, xm, ym)) { obstructed = true; break; }
+        }
+        if (!obstructed) return (xm - x0) + (ym - y0);
+
+        // distância é simétrica: normaliza o par para dividir a entrada do cache
+        Key key = (x1 < x2 || (x1 == x2 && y1 <= y2)) ? new Key(x1, y1, x2, y2) : new Key(x2, y2, x1, y1);
+        Double cached = cache.get(key);
+        if (cached != null) return cached;
+
+        double d = search(x1, y1, x2, y2);
+        if (cache.size() >= CACHE_LIMIT) cache.clear();
+        cache.put(key, d);
+        return d;
+    }
+
+    @Override
+    public String name() {
+        return "grid";
+    }
+
+    private static boolean blocked(List<NoFlyZone> zones, int x, int y) {
+        for (NoFlyZone z : zones) {
+            if (z.contains(x, y)) return true;
+        }
+        return false;
+    }
+
+    private double search(int sx, int sy, int tx, int ty) {
+        // corredor: retângulo do par, crescido pelas zonas que o tocam até estabilizar
+        int minX = Math.min(sx, tx) - MARGIN, minY = Math.min(sy, ty) - MARGIN;
+        int maxX = Math.max(sx, tx) + MARGIN, maxY = Math.max(sy, ty) + MARGIN;
+        List<NoFlyZone> relevant = new ArrayList<>();
+        boolean grew = true;
+        while (grew) {
+            grew = false;
+            for (NoFlyZone z : zones) {
+                if (relevant.contains(z) || !z.intersectsBox(minX, minY, maxX, maxY)) continue;
+                relevant.add(z);
+                minX = Math.min(minX, z.minX() - MARGIN); minY = Math.min(minY, z.minY() - MARGIN);
+                maxX = Math.max(maxX, z.maxX() + MARGIN); maxY = Math.max(maxY, z.maxY() + MARGIN);
+                grew = true;
+            }
+        }
+
+        long w = (long) maxX - minX + 1;
+        long h = (long) maxY - minY + 1;
+        if (w * h > maxCells) {
+            // sem grade não há como provar um desvio: inalcançável em vez de atravessar a zona
+            log.warn("No-fly detour grid for ({},{})-({},{}) needs {} cells (max {}): treating the pair as unreachable",
+                    sx, sy, tx, ty, w * h, maxCells);
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return astar(relevant, (int) w, minX, minY, maxX, maxY, sx, sy, tx, ty);
+    }
+
+    private double astar(List<NoFlyZone> relevant, int w, int minX, int minY, int maxX, int maxY,
+                         int sx, int sy, int tx, int ty) {
+        int cells = w * (maxY - minY + 1);
+        Buffers buf = buffers.get();
+        int[] g = buf.g(cells);
+        byte[] state = buf.state(cells); // 0 = não avaliada, 1 = livre, 2 = bloqueada
+        Arrays.fill(g, 0, cells, Integer.MAX_VALUE);
+        Arrays.fill(state, 0, cells, (byte) 0);
+
+        int start = (sy - minY) * w + (sx - minX);
+        int goal = (ty - minY) * w + (tx - minX);
+
+        LongHeap open = new LongHeap();
+        g[start] = 0;
+        open.push(pack(heuristic(sx, sy, tx, ty), start));
+
+        int[] dx = {1, -1, 0, 0};
+        int[] dy = {0, 0, 1, -1};
+
+        try {
+            while (!open.isEmpty()) {
+                long top = open.pop();
+                int cell = (int) top;
+                int f = (int) (top >>> 32);
+
+                int cx = cell % w + minX;
+                int cy = cell / w + minY;
+                if (f > g[cell] + heuristic(cx, cy, tx, ty)) continue; // entrada obsoleta
+                if (cell == goal) return g[cell];
+
+                for (int k = 0; k < 4; k++) {
+                    int nx = cx + dx[k], ny = cy + dy[k];
+                    if (nx < minX || nx > maxX || ny < minY || ny > maxY) continue;
+
+                    int next = (ny - minY) * w + (nx - minX);
+                    if (state[next] == 0) state[next] = blocked(relevant, nx, ny) ? (byte) 2 : (byte) 1;
+                    if (state[next] == 2) continue;
+
+                    int ng = g[cell] + 1;
+                    if (ng < g[next]) {
+                        g[next] = ng;
+                        open.push(pack(ng + heuristic(nx, ny, tx, ty), next));
+                    }
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        } finally {
+            buf.trim();
+        }
+    }
+
+    private static int heuristic(int x, int y, int tx, int ty) {
+        return Math.abs(x - tx) + Math.abs(y - ty);
+    }
+
+    private static long pack(int f, int cell) {
+        return ((long) f << 32) | (cell & 0xffffffffL);
+    }
+
+    private record Key(int x1, int y1, int x2, int y2) {
+    }
+
+    /* Buffers do A* de uma thread: crescem sob demanda; os muito grandes são soltos depois do uso */
+    private static final class Buffers {
+        private int[] g = new int[0];
+        private byte[] state = new byte[0];
+
+        int[] g(int cells) {
+            if (g.length < cells) g = new int[cells];
+            return g;
+        }
+
+        byte[] state(int cells) {
+            if (state.length < cells) state = new byte[cells];
+            return state;
+        }
+
+        void trim() {
+            if (g.length > RETAINED_CELLS) g = new int[0];
+            if (state.length > RETAINED_CELLS) state = new byte[0];
+        }
+    }
+
+    /* Min-heap de longs (prioridade nos 32 bits altos) sem boxing */
+    private static final class LongHeap {
+        private long[] a = new long[64];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long v) {
+            if (size == a.length) a = Arrays.copyOf(a, size * 2);
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (a[parent] <= v) break;
+                a[i] = a[parent];
+                i = parent;
+            }
+            a[i] = v;
+        }
+
+        long pop() {
+            long top = a[0];
+            long last = a[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && a[child + 1] < a[child]) child++;
+                if (a[child] >= last) break;
+                a[i] = a[child];
+                i = child;
+            }
+            a[i] = last;
+            return top;
+        }
+    }
+}
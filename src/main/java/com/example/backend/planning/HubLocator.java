@@ -0,0 +1,104 @@
+package com.example.backend.planning;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice espacial de hubs numa grade uniforme. A busca expande anéis de células a partir do ponto
+ * e para quando nenhum hub ainda não visitado pode estar mais perto que o melhor encontrado.
+ * <p>
+ * O corte usa a distância em linha reta como limite inferior, válido para os modelos existentes
+ * (manhattan, euclidiana e grade com desvios nunca são menores que a reta).
+ */
+public final class HubLocator {
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int cellSize;
+    private final Map<Long, int[]> cells = new HashMap<>();
+    private final int minCx, maxCx, minCy, maxCy;
+
+    public HubLocator(int[] xs, int[] ys) {
+        if (xs.length != ys.length) throw new IllegalArgumentException("xs and ys must have the same length");
+
+        this.xs = xs;
+        this.ys = ys;
+
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        // ~1 hub por célula em média
+        long area = xs.length == 0 ? 1 : (long) (maxX - minX + 1) * (maxY - minY + 1);
+        this.cellSize = (int) Math.max(1, Math.ceil(Math.sqrt((double) area / Math.max(1, xs.length))));
+
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        for (int i = 0; i < xs.length; i++) {
+            grid.computeIfAbsent(key(cell(xs[i]), cell(ys[i])), k -> new ArrayList<>()).add(i);
+        }
+        grid.forEach((k, list) -> cells.put(k, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        this.minCx = xs.length == 0 ? 0 : cell(minX);
+        this.maxCx = xs.length == 0 ? 0 : cell(maxX);
+        this.minCy = xs.length == 0 ? 0 : cell(minY);
+        this.maxCy = xs.length == 0 ? 0 : cell(maxY);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * Índice do hub mais próximo de (x, y) pelo {@code model} entre os aceitos por {@code feasible},
+     * ou -1 se nenhum for aceito (ou alcançável).
+     */
+    public int nearest(int x, int y, DistanceModel model, IntPredicate feasible) {
+        if (xs.length == 0) return -1;
+
+        int qcx = cell(x);
+        int qcy = cell(y);
+        int maxRing = Math.max(Math.max(Math.abs(qcx - minCx), Math.abs(qcx - maxCx)),
+                               Math.max(Math.abs(qcy - minCy), Math.abs(qcy - maxCy)));
+
+        int best = -1;
+        double bestDist = Double.POSITIVE_INFINITY;
+
+        for (int r = 0; r <= maxRing; r++) {
+            for (int cx = qcx - r; cx <= qcx + r; cx++) {
+                // só o perímetro do anel: colunas das bordas inteiras, nas demais a primeira e a última linha
+                int step = (cx == qcx - r || cx == qcx + r) ? 1 : Math.max(1, 2 * r);
+                for (int cy = qcy - r; cy <= qcy + r; cy += step) {
+                    int[] hubs = cells.get(key(cx, cy));
+                    if (hubs == null) continue;
+
+                    for (int h : hubs) {
+                        double d = model.distance(xs[h], ys[h], x, y);
+                        if (d < bestDist && feasible.test(h)) {
+                            best = h;
+                            bestDist = d;
+                        }
+                    }
+                }
+            }
+
+            // hubs fora dos anéis 0..r estão a mais de r células de distância em algum eixo
+            if (best >= 0 && bestDist <= (double) r * cellSize) break;
+        }
+        return best;
+    }
+
+    private int cell(int v) {
+        return Math.floorDiv(v, cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) ^ (cy & 0xffffffffL);
+    }
+}
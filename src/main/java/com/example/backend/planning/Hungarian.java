@@ -0,0 +1,84 @@
+package com.example.backend.planning;
+
+import java.util.Arrays;
+
+/**
+ * Atribuição de custo mínimo (método húngaro com potenciais, O(n²·m)) sobre uma matriz primitiva
+ * {@code rows × cols}, com {@code rows <= cols}: cada linha recebe uma coluna distinta.
+ * Pares proibidos usam {@link #FORBIDDEN}; se não houver atribuição sem eles, alguma linha fica com um.
+ */
+public final class Hungarian {
+
+    public static final double FORBIDDEN = 1e12;
+
+    private Hungarian() {
+    }
+
+    /** Coluna atribuída a cada linha. */
+    public static int[] solve(double[][] cost) {
+        int n = cost.length;
+        if (n == 0) return new int[0];
+        int m = cost[0].length;
+        if (n > m) throw new IllegalArgumentException("rows must be <= cols");
+
+        // índices 1-based; coluna 0 é a sentinela do caminho aumentante
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfCol = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            rowOfCol[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[j0] = true;
+                int i0 = rowOfCol[j0];
+                int j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                double[] row = cost[i0 - 1];
+
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+
+                    double cur = row[j - 1] - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfCol[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (rowOfCol[j0] != 0);
+
+            // desfaz o caminho aumentante
+            do {
+                int j1 = way[j0];
+                rowOfCol[j0] = rowOfCol[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] colOfRow = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOfCol[j] != 0) colOfRow[rowOfCol[j] - 1] = j - 1;
+        }
+        return colOfRow;
+    }
+}
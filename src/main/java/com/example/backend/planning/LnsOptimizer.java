@@ -0,0 +1,411 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+import static com.example.backend.planning.PlanningProblem.HUB;
+
+/**
+ * Busca em vizinhança grande (LNS) "anytime": parte de uma solução pronta e, até o prazo, repete
+ * destruir (remoção aleatória, por proximidade ou de uma viagem inteira) e reparar (inserção mais barata
+ * com ruído), aceitando pioras com probabilidade decrescente (recozimento simulado).
+ * <p>
+ * Vários workers com sementes diferentes rodam em paralelo e publicam no mesmo melhor-até-agora;
+ * {@link Progress} pode ser lido a qualquer momento por outra thread. O objetivo é, nesta ordem,
+ * atender mais pedidos (pesados pela prioridade) e voar menos km. As regras são as do planejador:
+ * carga, alcance, bateria (a primeira viagem de cada drone sai com a bateria atual, as seguintes com 100%)
+ * e faixas de prioridade em ordem dentro da viagem.
+ * <p>
+ * Os workers extras rodam num pool próprio ({@code app.planning.lns.workers} threads), não no pool comum,
+ * que o planejador já usa para resolver os sub-problemas em paralelo.
+ */
+@Component
+public class LnsOptimizer {
+
+    // km "cobrados" por pedido não atendido, por faixa (HIGH, MEDIUM, LOW)
+    private static final double[] UNPLANNED_PENALTY = {3000.0, 2000.0, 1000.0};
+    private static final int NEIGHBORS = 20;
+
+    private final EnergyModel energy;
+    private final ExecutorService workers;
+
+    public LnsOptimizer(EnergyModel energy, @Value("${app.planning.lns.workers:0}") int workers) {
+        this.energy = energy;
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("lns-", 1).daemon(true).factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public PlanningStrategy.Solution improve(PlanningProblem p, List<Drone> fleet, ToDoubleFunction<Drone> startBattery,
+                                             PlanningStrategy.Solution initial, long deadlineNanos, int workers,
+                                             Progress progress) {
+        if (p.size() == 0 || fleet.isEmpty() || System.nanoTime() >= deadlineNanos) return initial;
+
+        Context ctx = new Context(p, fleet, startBattery);
+        // a preparação já consome o prazo em sub-problemas grandes: sem tempo para buscar, fica a solução inicial
+        if (!ctx.findNeighbors(deadlineNanos)) return initial;
+        Plan start = ctx.fromSolution(initial);
+        Shared shared = new Shared(start, progress);
+
+        List<CompletableFuture<Void>> others = new ArrayList<>();
+        for (int w = 1; w < Math.max(1, workers); w++) {
+            long seed = 0x9E3779B97F4A7C15L * w;
+            others.add(CompletableFuture.runAsync(() -> ctx.search(start, shared, deadlineNanos, seed), this.workers));
+        }
+        ctx.search(start, shared, deadlineNanos, 17L);
+        others.forEach(CompletableFuture::join);
+
+        Plan best = shared.best();
+        return best == start ? initial : ctx.toSolution(best, initial.rejectedPacks());
+    }
+
+    /** Melhor-até-agora de uma otimização em andamento; seguro para leitura concorrente. */
+    public static final class Progress {
+        private volatile double initialDistanceKm;
+        private volatile double bestDistanceKm;
+        private volatile int initialUnplanned;
+        private volatile int bestUnplanned;
+        private final AtomicLong iterations = new AtomicLong();
+        private final AtomicInteger improvements = new AtomicInteger();
+
+        public double initialDistanceKm() { return initialDistanceKm; }
+        public double bestDistanceKm() { return bestDistanceKm; }
+        public int initialUnplanned() { return initialUnplanned; }
+        public int bestUnplanned() { return bestUnplanned; }
+        public long iterations() { return iterations.get(); }
+        public int improvements() { return improvements.get(); }
+    }
+
+    /* Melhor solução compartilhada entre os workers */
+    private static final class Shared {
+        private final Progress progress;
+        private Plan best;
+
+        Shared(Plan start, Progress progress) {
+            this.best = start;
+            this.progress = progress;
+            progress.initialDistanceKm = progress.bestDistanceKm = start.distance;
+            progress.initialUnplanned = progress.bestUnplanned = start.unplanned;
+        }
+
+        synchronized Plan best() {
+            return best;
+        }
+
+        synchronized void offer(Plan candidate) {
+            if (candidate.cost >= best.cost - 1e-9) return;
+
+            best = candidate;
+            progress.bestDistanceKm = candidate.distance;
+            progress.bestUnplanned = candidate.unplanned;
+            progress.improvements.incrementAndGet();
+        }
+    }
+
+    /* Viagens por drone (índice na frota), na ordem em que serão voadas */
+    private static final class Plan {
+        final List<List<int[]>> trips;
+        final boolean[] served;
+        double cost;
+        double distance;
+        int unplanned;
+
+        Plan(int drones, int orders) {
+            trips = new ArrayList<>(drones);
+            for (int d = 0; d < drones; d++) trips.add(new ArrayList<>());
+            served = new boolean[orders];
+        }
+
+        Plan copy() {
+            Plan c = new Plan(trips.size(), served.length);
+            for (int d = 0; d < trips.size(); d++) c.trips.get(d).addAll(trips.get(d));
+            System.arraycopy(served, 0, c.served, 0, served.length);
+            c.cost = cost;
+            c.distance = distance;
+            c.unplanned = unplanned;
+            return c;
+        }
+    }
+
+    private final class Context {
+        final PlanningProblem p;
+        final List<Drone> fleet;
+        final EnergyModel.Table[] tables;
+        final double[] startUsable;
+        final double fullUsable;
+        final int[][] neighbors;
+
+        Context(PlanningProblem p, List<Drone> fleet, ToDoubleFunction<Drone> startBattery) {
+            this.p = p;
+            this.fleet = fleet;
+            this.tables = new EnergyModel.Table[fleet.size()];
+            this.startUsable = new double[fleet.size()];
+            for (int d = 0; d < tables.length; d++) {
+                tables[d] = energy.tableFor(fleet.get(d));
+                startUsable[d] = energy.usablePct(startBattery.applyAsDouble(fleet.get(d)));
+            }
+            this.fullUsable = energy.usablePct(100.0);
+            this.neighbors = new int[p.size()][];
+        }
+
+        /* Vizinhos por distância, para a remoção por proximidade; false se o prazo vencer no meio */
+        boolean findNeighbors(long deadlineNanos) {
+            int n = p.size();
+            int k = Math.min(n - 1, NEIGHBORS);
+            double[] dist = new double[Math.max(1, k)];
+            int[] idx = new int[Math.max(1, k)];
+
+            for (int i = 0; i < n; i++) {
+                if ((i & 31) == 0 && System.nanoTime() >= deadlineNanos) return false;
+                neighbors[i] = NearestNeighbors.nearest(p, null, i, k, dist, idx);
+            }
+            return true;
+        }
+
+        Plan fromSolution(PlanningStrategy.Solution s) {
+            Plan plan = new Plan(fleet.size(), p.size());
+            for (PlanningStrategy.PlannedRoute r : s.routes()) {
+                int d = fleet.indexOf(r.drone());
+                if (d < 0) continue;
+
+                int[] stops = Arrays.copyOf(r.delivery(), r.len());
+                plan.trips.get(d).add(stops);
+                for (int i : stops) plan.served[i] = true;
+            }
+            evaluate(plan);
+            return plan;
+        }
+
+        PlanningStrategy.Solution toSolution(Plan plan, int rejectedPacks) {
+            List<PlanningStrategy.PlannedRoute> routes = new ArrayList<>();
+            for (int d = 0; d < fleet.size(); d++) {
+                for (int[] stops : plan.trips.get(d)) {
+                    routes.add(new PlanningStrategy.PlannedRoute(fleet.get(d), stops, stops, stops.length,
+                            p.routeDistance(stops, stops.length)));
+                }
+            }
+            return new PlanningStrategy.Solution(routes, rejectedPacks);
+        }
+
+        void search(Plan start, Shared shared, long deadlineNanos, long seed) {
+            SplittableRandom rnd = new SplittableRandom(seed);
+            long begin = System.nanoTime();
+            double span = Math.max(1, deadlineNanos - begin);
+            double t0 = Math.max(1e-3, 0.02 * start.distance);
+
+            Plan current = start;
+            long now;
+            while ((now = System.nanoTime()) < deadlineNanos) {
+                Plan candidate = current.copy();
+                destroy(candidate, rnd);
+
+                // recoloca os removidos e tenta de novo os que já estavam pendentes
+                List<Integer> pool = new ArrayList<>();
+                for (int i = 0; i < candidate.served.length; i++) if (!candidate.served[i]) pool.add(i);
+                repair(candidate, pool, rnd);
+                evaluate(candidate);
+
+                double temperature = t0 * (1.0 - (now - begin) / span);
+                double delta = candidate.cost - current.cost;
+                if (delta < -1e-9 || (temperature > 0 && rnd.nextDouble() < Math.exp(-delta / temperature))) {
+                    current = candidate;
+                    shared.offer(candidate);
+                }
+                shared.progress.iterations.incrementAndGet();
+            }
+        }
+
+        /* Remove de 1 a ~10% dos pedidos atendidos por um dos três operadores */
+        void destroy(Plan plan, SplittableRandom rnd) {
+            int servedCount = p.size() - plan.unplanned;
+            List<Integer> removed = new ArrayList<>();
+            if (servedCount == 0) return;
+
+            int q = 1 + rnd.nextInt(Math.max(1, Math.min(servedCount, 4 + servedCount / 10)));
+            boolean[] drop = new boolean[p.size()];
+
+            switch (rnd.nextInt(3)) {
+                case 0 -> { // aleatória
+                    for (int t = 0; t < q * 4 && removed.size() < q; t++) {
+                        int i = rnd.nextInt(p.size());
+                        if (plan.served[i] && !drop[i]) {
+                            drop[i] = true;
+                            removed.add(i);
+                        }
+                    }
+                }
+                case 1 -> { // por proximidade: uma semente e seus vizinhos atendidos
+                    int seed = randomServed(plan, rnd);
+                    drop[seed] = true;
+                    removed.add(seed);
+                    for (int j : neighbors[seed]) {
+                        if (removed.size() >= q) break;
+                        if (plan.served[j] && !drop[j]) {
+                            drop[j] = true;
+                            removed.add(j);
+                        }
+                    }
+                }
+                default -> { // uma viagem inteira
+                    int seed = randomServed(plan, rnd);
+                    for (List<int[]> trips : plan.trips) {
+                        for (int[] stops : trips) {
+                            if (!contains(stops, seed)) continue;
+                            for (int i : stops) {
+                                drop[i] = true;
+                                removed.add(i);
+                            }
+                        }
+                    }
+                }
+            }
+
+            for (int d = 0; d < plan.trips.size(); d++) {
+                List<int[]> trips = plan.trips.get(d);
+                for (int t = 0; t < trips.size(); t++) {
+                    int[] stops = trips.get(t);
+                    int kept = 0;
+                    for (int i : stops) if (!drop[i]) kept++;
+                    if (kept == stops.length) continue;
+
+                    int[] next = new int[kept];
+                    int m = 0;
+                    for (int i : stops) if (!drop[i]) next[m++] = i;
+                    trips.set(t, next);
+                }
+                trips.removeIf(s -> s.length == 0);
+
+                // a viagem que virou a primeira do drone precisa caber na bateria atual
+                while (!trips.isEmpty() && !feasible(d, trips.get(0), trips.get(0).length, startUsable[d])) {
+                    for (int i : trips.remove(0)) {
+                        drop[i] = true;
+                        removed.add(i);
+                    }
+                }
+            }
+
+            for (int i : removed) plan.served[i] = false;
+        }
+
+        /* Inserção mais barata (com ruído de até 10%), urgentes primeiro; o que não couber fica pendente */
+        void repair(Plan plan, List<Integer> pool, SplittableRandom rnd) {
+            for (int a = pool.size() - 1; a > 0; a--) {
+                int b = rnd.nextInt(a + 1);
+                Integer tmp = pool.get(a);
+                pool.set(a, pool.get(b));
+                pool.set(b, tmp);
+            }
+            pool.sort((x, y) -> Integer.compare(p.priorityRank(x), p.priorityRank(y)));
+
+            int[] buf = new int[p.size() + 1];
+            for (int i : pool) {
+                int bestDrone = -1, bestTrip = -1, bestPos = -1;
+                double bestDelta = Double.POSITIVE_INFINITY;
+                int rank = p.priorityRank(i);
+
+                for (int d = 0; d < fleet.size(); d++) {
+                    Drone drone = fleet.get(d);
+                    if (p.weight(i) > drone.getCapacityKg() + 1e-9) continue;
+                    List<int[]> trips = plan.trips.get(d);
+
+                    for (int t = 0; t <= trips.size(); t++) {
+                        int[] stops = t < trips.size() ? trips.get(t) : new int[0];
+                        double usable = t == 0 ? startUsable[d] : fullUsable;
+                        if (p.routeWeight(stops, stops.length) + p.weight(i) > drone.getCapacityKg() + 1e-9) continue;
+                        double baseDist = p.routeDistance(stops, stops.length);
+
+                        for (int pos = 0; pos <= stops.length; pos++) {
+                            // faixas em ordem: rank(anterior) <= rank <= rank(seguinte)
+                            if (pos < stops.length && p.priorityRank(stops[pos]) < rank) continue;
+                            if (pos > 0 && p.priorityRank(stops[pos - 1]) > rank) break;
+
+                            int before = pos == 0 ? HUB : stops[pos - 1];
+                            int after = pos == stops.length ? HUB : stops[pos];
+                            double delta = p.distance(before, i) + p.distance(i, after) - p.distance(before, after);
+                            double noisy = delta * (1.0 + 0.1 * rnd.nextDouble());
+                            if (noisy >= bestDelta || baseDist + delta > drone.getRangeKm() + 1e-9) continue;
+
+                            int len = insert(stops, pos, i, buf);
+                            if (!feasible(d, buf, len, usable)) continue;
+
+                            bestDelta = noisy;
+                            bestDrone = d;
+                            bestTrip = t;
+                            bestPos = pos;
+                        }
+                    }
+                }
+
+                if (bestDrone < 0) continue;
+
+                List<int[]> trips = plan.trips.get(bestDrone);
+                int[] stops = bestTrip < trips.size() ? trips.get(bestTrip) : new int[0];
+                int len = insert(stops, bestPos, i, buf);
+                if (bestTrip < trips.size()) trips.set(bestTrip, Arrays.copyOf(buf, len));
+                else trips.add(Arrays.copyOf(buf, len));
+                plan.served[i] = true;
+            }
+        }
+
+        void evaluate(Plan plan) {
+            double distance = 0.0;
+            for (List<int[]> trips : plan.trips) {
+                for (int[] stops : trips) distance += p.routeDistance(stops, stops.length);
+            }
+
+            double penalty = 0.0;
+            int unplanned = 0;
+            for (int i = 0; i < plan.served.length; i++) {
+                if (plan.served[i]) continue;
+                unplanned++;
+                penalty += UNPLANNED_PENALTY[p.priorityRank(i)];
+            }
+
+            plan.distance = distance;
+            plan.unplanned = unplanned;
+            plan.cost = distance + penalty;
+        }
+
+        boolean feasible(int d, int[] stops, int len, double usablePct) {
+            Drone drone = fleet.get(d);
+            if (p.routeWeight(stops, len) > drone.getCapacityKg() + 1e-9) return false;
+            if (p.routeDistance(stops, len) > drone.getRangeKm() + 1e-9) return false;
+            return tables[d].routePct(p, stops, len) <= usablePct + 1e-9;
+        }
+
+        int randomServed(Plan plan, SplittableRandom rnd) {
+            int i = rnd.nextInt(p.size());
+            while (!plan.served[i]) i = (i + 1) % p.size();
+            return i;
+        }
+    }
+
+    private static int insert(int[] stops, int pos, int value, int[] buf) {
+        System.arraycopy(stops, 0, buf, 0, pos);
+        buf[pos] = value;
+        System.arraycopy(stops, pos, buf, pos + 1, stops.length - pos);
+        return stops.length + 1;
+    }
+
+    private static boolean contains(int[] stops, int value) {
+        for (int i : stops) if (i == value) return true;
+        return false;
+    }
+}
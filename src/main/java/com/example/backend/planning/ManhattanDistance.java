@@ -0,0 +1,15 @@
+package com.example.backend.planning;
+
+/* Deslocamento em quarteirões: padrão histórico do planejador */
+public class ManhattanDistance implements DistanceModel {
+
+    @Override
+    public double distance(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    @Override
+    public String name() {
+        return "manhattan";
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.backend.planning;
+
+/**
+ * Os k pedidos mais próximos de um pedido: heap de máximo limitado a k sobre arrays primitivos,
+ * O(n log k) por consulta e sem boxing. Os buffers {@code dist}/{@code idx} (tamanho >= k) são do chamador,
+ * para serem reaproveitados entre consultas.
+ */
+final class NearestNeighbors {
+
+    private NearestNeighbors() {
+    }
+
+    /**
+     * @param eligible pedidos que podem ser vizinhos ({@code null} = todos)
+     * @return até k índices, do mais próximo para o mais distante
+     */
+    static int[] nearest(PlanningProblem p, boolean[] eligible, int i, int k, double[] dist, int[] idx) {
+        int size = 0;
+        for (int j = 0; j < p.size(); j++) {
+            if (j == i || (eligible != null && !eligible[j])) continue;
+            double d = p.distance(i, j);
+
+            if (size < k) {
+                int c = size++;
+                while (c > 0) {
+                    int parent = (c - 1) >>> 1;
+                    if (dist[parent] >= d) break;
+                    dist[c] = dist[parent];
+                    idx[c] = idx[parent];
+                    c = parent;
+                }
+                dist[c] = d;
+                idx[c] = j;
+            } else if (k > 0 && d < dist[0]) {
+                siftDown(dist, idx, size, d, j);
+            }
+        }
+
+        // esvazia o heap de máximo de trás para frente: saída em ordem crescente de distância
+        int[] out = new int[size];
+        for (int last = size - 1; last >= 0; last--) {
+            out[last] = idx[0];
+            if (last > 0) siftDown(dist, idx, last, dist[last], idx[last]);
+        }
+        return out;
+    }
+
+    /* Coloca (d, j) na raiz de um heap com size elementos e desce até a posição certa */
+    private static void siftDown(double[] dist, int[] idx, int size, double d, int j) {
+        int c = 0;
+        while (true) {
+            int child = 2 * c + 1;
+            if (child >= size) break;
+            if (child + 1 < size && dist[child + 1] > dist[child]) child++;
+            if (dist[child] <= d) break;
+            dist[c] = dist[child];
+            idx[c] = idx[child];
+            c = child;
+        }
+        dist[c] = d;
+        idx[c] = j;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.backend.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polígono de exclusão aérea em coordenadas da grade. A borda conta como área proibida.
+ */
+public final class NoFlyZone {
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int minX, minY, maxX, maxY;
+
+    public NoFlyZone(int[] xs, int[] ys) {
+        if (xs.length != ys.length || xs.length < 3) {
+            throw new IllegalArgumentException("no-fly zone needs at least 3 vertices");
+        }
+
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            x0 = Math.min(x0, xs[i]);
+            y0 = Math.min(y0, ys[i]);
+            x1 = Math.max(x1, xs[i]);
+            y1 = Math.max(y1, ys[i]);
+        }
+        this.minX = x0; this.minY = y0; this.maxX = x1; this.maxY = y1;
+    }
+
+    /**
+     * Formato: polígonos separados por ';', vértices por ',' e coordenadas por espaço.
+     * Ex.: {@code "0 5, 3 5, 3 8, 0 8; 10 10, 12 10, 11 14"}
+     */
+    public static List<NoFlyZone> parseAll(String spec) {
+        List<NoFlyZone> zones = new ArrayList<>();
+        if (spec == null || spec.isBlank()) return zones;
+
+        for (String polygon : spec.split(";")) {
+            if (polygon.isBlank()) continue;
+
+            String[] vertices = polygon.split(",");
+            int[] xs = new int[vertices.length];
+            int[] ys = new int[vertices.length];
+
+            for (int i = 0; i < vertices.length; i++) {
+                String[] xy = vertices[i].trim().split("\\s+");
+                if (xy.length != 2) {
+                    throw new IllegalArgumentException("invalid no-fly vertex: '" + vertices[i].trim() + "'");
+                }
+                xs[i] = Integer.parseInt(xy[0]);
+                ys[i] = Integer.parseInt(xy[1]);
+            }
+            zones.add(new NoFlyZone(xs, ys));
+        }
+        return zones;
+    }
+
+    public boolean intersectsBox(int x0, int y0, int x1, int y1) {
+        return x0 <= maxX && x1 >= minX && y0 <= maxY && y1 >= minY;
+    }
+
+    public boolean contains(int x, int y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) return false;
+
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (onSegment(xs[j], ys[j], xs[i], ys[i], x, y)) return true;
+
+            if ((ys[i] > y) != (ys[j] > y)) {
+                double crossX = xs[j] + (double) (y - ys[j]) * (xs[i] - xs[j]) / (ys[i] - ys[j]);
+                if (x < crossX) inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static boolean onSegment(int ax, int ay, int bx, int by, int px, int py) {
+        long cross = (long) (bx - ax) * (py - ay) - (long) (by - ay) * (px - ax);
+        if (cross != 0) return false;
+
+        return px >= Math.min(ax, bx) && px <= Math.max(ax, bx)
+            && py >= Math.min(ay, by) && py <= Math.max(ay, by);
+    }
+
+    int minX() { return minX; }
+    int minY() { return minY; }
+    int maxX() { return maxX; }
+    int maxY() { return maxY; }
+}
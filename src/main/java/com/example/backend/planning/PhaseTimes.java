@@ -0,0 +1,44 @@
+package com.example.backend.planning;
+
+/**
+ * Cronômetro de voltas de uma execução do planejador: cada {@link #lap(Phase)} atribui
+ * à fase o tempo desde a volta anterior. Fases que se repetem por drone são somadas;
+ * hubs resolvidos em paralelo têm cronômetros próprios, somados com {@link #add(PhaseTimes)}.
+ */
+public final class PhaseTimes {
+
+    public enum Phase {
+        LOAD, ASSIGN, CLUSTER, PACK, SEQUENCE, RANGE_CHECK, OPTIMIZE, SCHEDULE, PERSIST;
+
+        public String tag() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private final long[] nanos = new long[Phase.values().length];
+    private final long startedAt = System.nanoTime();
+    private long mark = startedAt;
+
+    public void lap(Phase phase) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - mark;
+        mark = now;
+    }
+
+    public void add(PhaseTimes other) {
+        for (int i = 0; i < nanos.length; i++) nanos[i] += other.nanos[i];
+    }
+
+    /* Avança a marca sem atribuir o intervalo a nenhuma fase (já somado via add) */
+    public void resync() {
+        mark = System.nanoTime();
+    }
+
+    public long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long totalNanos() {
+        return mark - startedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend.planning;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PlanningConfig {
+
+    @Bean
+    public DistanceModel distanceModel(@Value("${app.planning.distance-model:manhattan}") String name,
+                                       @Value("${app.planning.no-fly-zones:}") String noFlyZones) {
+        return switch (name.trim().toLowerCase()) {
+            case "manhattan" -> new ManhattanDistance();
+            case "euclidean" -> new EuclideanDistance();
+            case "grid" -> new GridDistance(NoFlyZone.parseAll(noFlyZones));
+            default -> throw new IllegalArgumentException("Unknown app.planning.distance-model: " + name);
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Order;
+
+import java.util.List;
+
+/**
+ * Visão primitiva de um planejamento: pedidos indexados de 0 a n-1 e o hub como {@link #HUB}.
+ * As distâncias vêm de uma {@link DistanceMatrix} própria deste planejamento.
+ */
+public final class PlanningProblem {
+
+    public static final int HUB = -1;
+
+    private final int hubX;
+    private final int hubY;
+    private final int[] xs;
+    private final int[] ys;
+    private final double[] weights;
+    private final int[] priorityRanks;
+    private final DistanceMatrix matrix;
+
+    private PlanningProblem(int hubX, int hubY, int[] xs, int[] ys, double[] weights, int[] priorityRanks, DistanceModel model) {
+        this.hubX = hubX;
+        this.hubY = hubY;
+        this.xs = xs;
+        this.ys = ys;
+        this.weights = weights;
+        this.priorityRanks = priorityRanks;
+
+        // ponto 0 da matriz é o hub; pedido i é o ponto i + 1
+        int[] px = new int[xs.length + 1];
+        int[] py = new int[ys.length + 1];
+        px[0] = hubX;
+        py[0] = hubY;
+        System.arraycopy(xs, 0, px, 1, xs.length);
+        System.arraycopy(ys, 0, py, 1, ys.length);
+        this.matrix = new DistanceMatrix(model, px, py);
+    }
+
+    public static PlanningProblem of(List<Order> orders, int hubX, int hubY, DistanceModel model) {
+        int n = orders.size();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        double[] weights = new double[n];
+        int[] ranks = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            Order o = orders.get(i);
+            xs[i] = o.getCustomerX();
+            ys[i] = o.getCustomerY();
+            weights[i] = o.getWeightKg();
+            ranks[i] = rankOf(o.getPriority());
+        }
+        return new PlanningProblem(hubX, hubY, xs, ys, weights, ranks, model);
+    }
+
+    public static int rankOf(Order.Priority p) {
+        return switch (p) {
+            case HIGH -> 0;
+            case MEDIUM -> 1;
+            case LOW -> 2;
+        };
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public int hubX() { return hubX; }
+    public int hubY() { return hubY; }
+    public int x(int i) { return xs[i]; }
+    public int y(int i) { return ys[i]; }
+    public double weight(int i) { return weights[i]; }
+    public int priorityRank(int i) { return priorityRanks[i]; }
+
+    /** Distância entre dois pontos; use {@link #HUB} para o hub. */
+    public double distance(int from, int to) {
+        return matrix.get(from + 1, to + 1);
+    }
+
+    /** Distância hub -> route[0] -> ... -> route[len-1] -> hub. */
+    public double routeDistance(int[] route, int len) {
+        if (len == 0) return 0.0;
+
+        double d = 0.0;
+        int prev = HUB;
+        for (int k = 0; k < len; k++) {
+            d += distance(prev, route[k]);
+            prev = route[k];
+        }
+        return d + distance(prev, HUB);
+    }
+
+    public double routeWeight(int[] route, int len) {
+        double w = 0.0;
+        for (int k = 0; k < len; k++) w += weights[route[k]];
+        return w;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Algoritmo que transforma um sub-problema (pedidos de um hub ou cluster) em viagens para a frota.
+ * Implementações são beans sem estado, escolhidas pelo {@link #name()} ({@code POST /plan?strategy=});
+ * {@link #plan} pode rodar em paralelo para sub-problemas diferentes e não deve tocar no banco.
+ */
+public interface PlanningStrategy {
+
+    String name();
+
+    /**
+     * @param fleet        drones do hub, na ordem de preferência
+     * @param startBattery bateria (%) com que cada drone sai na primeira viagem; as seguintes saem com 100%
+     * @param times        cronômetro do sub-problema (fases PACK, SEQUENCE, RANGE_CHECK)
+     */
+    Solution plan(PlanningProblem problem, List<Drone> fleet, ToDoubleFunction<Drone> startBattery, PhaseTimes times);
+
+    /** Viagens na ordem em que devem ser gravadas; pedidos fora delas continuam pendentes. */
+    record Solution(List<PlannedRoute> routes, int rejectedPacks) {
+    }
+
+    /**
+     * Viagem escolhida para um drone: as {@code len} primeiras posições de {@code delivery}, na ordem de entrega.
+     * {@code pack} tem as mesmas paradas na ordem em que foram escolhidas, antes do sequenciamento.
+     */
+    record PlannedRoute(Drone drone, int[] pack, int[] delivery, int len, double dist) {
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import static com.example.backend.planning.PhaseTimes.Phase.*;
+import static com.example.backend.planning.PlanningProblem.HUB;
+
+/**
+ * Clarke-Wright (savings, versão paralela). Cada pedido começa numa rota própria hub -> pedido -> hub;
+ * as junções "fim de uma rota -> início de outra" saem de um heap pela economia
+ * {@code d(i,hub) + d(hub,j) - d(i,j)} e são aceitas se a rota resultante couber em algum drone da frota
+ * (carga, alcance e bateria cheia). Só os {@link #NEIGHBORS} vizinhos mais próximos de cada pedido
+ * entram no heap, cada par uma vez: o heap fica com O(n·k) entradas em vez de O(n²). A seleção dos vizinhos
+ * ainda mede todos os pares (O(n² log k) de tempo) e preenche a matriz de distâncias do problema.
+ * <p>
+ * Uma junção só é aceita se mantiver as faixas de prioridade em ordem (HIGH antes de MEDIUM antes de LOW),
+ * como no sequenciamento guloso. No fim, as rotas (mais urgentes e mais pesadas primeiro) são distribuídas
+ * entre os drones que as comportam, preferindo quem fez menos viagens.
+ */
+@Component
+public class SavingsStrategy implements PlanningStrategy {
+
+    static final int NEIGHBORS = 40;
+
+    private final EnergyModel energy;
+
+    public SavingsStrategy(EnergyModel energy) {
+        this.energy = energy;
+    }
+
+    @Override
+    public String name() {
+        return "savings";
+    }
+
+    @Override
+    public Solution plan(PlanningProblem p, List<Drone> fleet, ToDoubleFunction<Drone> startBattery, PhaseTimes times) {
+        int n = p.size();
+        if (n == 0 || fleet.isEmpty()) return new Solution(List.of(), 0);
+
+        EnergyModel.Table[] tables = new EnergyModel.Table[fleet.size()];
+        for (int d = 0; d < tables.length; d++) tables[d] = energy.tableFor(fleet.get(d));
+        double fullUsable = energy.usablePct(100.0);
+
+        // rotas como listas ligadas: head/tail/load indexados pelo id da rota (= pedido que a iniciou)
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        int[] routeOf = new int[n];
+        int[] head = new int[n];
+        int[] tail = new int[n];
+        double[] load = new double[n];
+        boolean[] servable = new boolean[n];
+
+        for (int i = 0; i < n; i++) {
+            next[i] = prev[i] = -1;
+            routeOf[i] = head[i] = tail[i] = i;
+            load[i] = p.weight(i);
+            servable[i] = fitsSomeDrone(p, new int[]{i}, 1, fleet, tables, fullUsable);
+        }
+
+        SavingsHeap heap = savings(p, servable);
+        times.lap(PACK);
+
+        int[] buf = new int[n];
+        while (!heap.isEmpty()) {
+            int a = heap.topFrom();
+            int b = heap.topTo();
+            heap.pop();
+
+            // a economia é a mesma nos dois sentidos: o par entra uma vez e tenta a -> b, depois b -> a
+            for (int side = 0; side < 2; side++) {
+                int i = side == 0 ? a : b;
+                int j = side == 0 ? b : a;
+
+                int ri = routeOf[i];
+                int rj = routeOf[j];
+                if (ri == rj || tail[ri] != i || head[rj] != j) continue;
+                if (p.priorityRank(i) > p.priorityRank(j)) continue;
+
+                int len = 0;
+                for (int k = head[ri]; k >= 0; k = next[k]) buf[len++] = k;
+                for (int k = head[rj]; k >= 0; k = next[k]) buf[len++] = k;
+                if (!fitsSomeDrone(p, buf, len, fleet, tables, fullUsable)) continue;
+
+                next[i] = j;
+                prev[j] = i;
+                for (int k = j; k >= 0; k = next[k]) routeOf[k] = ri;
+                tail[ri] = tail[rj];
+                load[ri] += load[rj];
+                break;
+            }
+        }
+        times.lap(SEQUENCE);
+
+        List<int[]> routes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!servable[i] || prev[i] >= 0) continue;
+
+            int len = 0;
+            for (int k = i; k >= 0; k = next[k]) buf[len++] = k;
+            routes.add(Arrays.copyOf(buf, len));
+        }
+
+        // mais urgentes primeiro; na mesma faixa, as mais pesadas (mais difíceis de encaixar)
+        routes.sort((a, b) -> {
+            int c = Integer.compare(p.priorityRank(a[0]), p.priorityRank(b[0]));
+            return c != 0 ? c : Double.compare(p.routeWeight(b, b.length), p.routeWeight(a, a.length));
+        });
+
+        Solution solution = assign(p, routes, fleet, tables, startBattery);
+        times.lap(RANGE_CHECK);
+        return solution;
+    }
+
+    /* Pares {i, j} com economia positiva entre cada pedido e seus vizinhos mais próximos, uma vez por par */
+    private static SavingsHeap savings(PlanningProblem p, boolean[] servable) {
+        int n = p.size();
+        int k = Math.min(NEIGHBORS, n - 1);
+
+        int[][] near = new int[n][];
+        double[] heapDist = new double[Math.max(1, k)];
+        int[] heapIdx = new int[Math.max(1, k)];
+        for (int i = 0; i < n; i++) near[i] = servable[i] ? NearestNeighbors.nearest(p, servable, i, k, heapDist, heapIdx) : new int[0];
+
+        SavingsHeap heap = new SavingsHeap(Math.max(1, n * k));
+        for (int i = 0; i < n; i++) {
+            for (int j : near[i]) {
+                // vizinhos mútuos: o par já entrou pelo lado do menor índice
+                if (j < i && contains(near[j], i)) continue;
+
+                double s = p.distance(i, HUB) + p.distance(HUB, j) - p.distance(i, j);
+                if (s > 1e-9) heap.push(s, Math.min(i, j), Math.max(i, j));
+            }
+        }
+        return heap;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) if (v == value) return true;
+        return false;
+    }
+
+    private static boolean fitsSomeDrone(PlanningProblem p, int[] route, int len, List<Drone> fleet,
+                                         EnergyModel.Table[] tables, double usablePct) {
+        double weight = p.routeWeight(route, len);
+        double dist = p.routeDistance(route, len);
+
+        for (int d = 0; d < tables.length; d++) {
+            Drone drone = fleet.get(d);
+            if (weight > drone.getCapacityKg() + 1e-9 || dist > drone.getRangeKm() + 1e-9) continue;
+            if (tables[d].routePct(p, route, len) <= usablePct + 1e-9) return true;
+        }
+        return false;
+    }
+
+    /*
+     * Cada rota vai para o drone que a comporta com a bateria que terá na saída (a atual na primeira
+     * viagem, 100% nas seguintes) e que fez menos viagens até aqui. Numa rota de uma só faixa de
+     * prioridade, usa o sentido que gasta menos bateria.
+     */
+    private Solution assign(PlanningProblem p, List<int[]> routes, List<Drone> fleet, EnergyModel.Table[] tables,
+                            ToDoubleFunction<Drone> startBattery) {
+        double[] battery = new double[fleet.size()];
+        int[] trips = new int[fleet.size()];
+        for (int d = 0; d < battery.length; d++) battery[d] = startBattery.applyAsDouble(fleet.get(d));
+
+        List<PlannedRoute> out = new ArrayList<>(routes.size());
+        int rejected = 0;
+
+        for (int[] route : routes) {
+            int len = route.length;
+            int[] reversed = new int[len];
+            for (int k = 0; k < len; k++) reversed[k] = route[len - 1 - k];
+            boolean singleBand = p.priorityRank(route[0]) == p.priorityRank(route[len - 1]);
+
+            double weight = p.routeWeight(route, len);
+            double dist = p.routeDistance(route, len);
+            double distReversed = p.routeDistance(reversed, len);
+
+            int best = -1;
+            int[] bestDelivery = null;
+            double bestDist = 0.0;
+
+            for (int d = 0; d < fleet.size(); d++) {
+                Drone drone = fleet.get(d);
+                if (weight > drone.getCapacityKg() + 1e-9) continue;
+                if (best >= 0 && trips[d] >= trips[best]) continue;
+
+                double usable = energy.usablePct(battery[d]);
+                double pct = dist <= drone.getRangeKm() + 1e-9 ? tables[d].routePct(p, route, len) : Double.POSITIVE_INFINITY;
+                double pctReversed = singleBand && distReversed <= drone.getRangeKm() + 1e-9
+                        ? tables[d].routePct(p, reversed, len) : Double.POSITIVE_INFINITY;
+
+                if (Math.min(pct, pctReversed) > usable + 1e-9) continue;
+
+                best = d;
+                boolean useReversed = pctReversed < pct;
+                bestDelivery = useReversed ? reversed : route;
+                bestDist = useReversed ? distReversed : dist;
+            }
+
+            if (best < 0) {
+                rejected++;
+                continue;
+            }
+
+            out.add(new PlannedRoute(fleet.get(best), route, bestDelivery, len, bestDist));
+            battery[best] = 100.0;
+            trips[best]++;
+        }
+
+        return new Solution(out, rejected);
+    }
+
+    /* Heap de máximo sobre arrays primitivos: economia, pedido de saída, pedido de chegada */
+    static final class SavingsHeap {
+        private double[] saving;
+        private int[] from;
+        private int[] to;
+        private int size;
+
+        SavingsHeap(int capacity) {
+            saving = new double[capacity];
+            from = new int[capacity];
+            to = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        double topSaving() {
+            return saving[0];
+        }
+
+        int topFrom() {
+            return from[0];
+        }
+
+        int topTo() {
+            return to[0];
+        }
+
+        void push(double s, int i, int j) {
+            if (size == saving.length) {
+                int cap = size * 2;
+                saving = Arrays.copyOf(saving, cap);
+                from = Arrays.copyOf(from, cap);
+                to = Arrays.copyOf(to, cap);
+            }
+
+            int k = size++;
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                if (saving[parent] >= s) break;
+                move(parent, k);
+                k = parent;
+            }
+            saving[k] = s;
+            from[k] = i;
+            to[k] = j;
+        }
+
+        void pop() {
+            int last = --size;
+            if (last == 0) return;
+
+            double s = saving[last];
+            int i = from[last];
+            int j = to[last];
+
+            int k = 0;
+            while (true) {
+                int child = 2 * k + 1;
+                if (child >= last) break;
+                if (child + 1 < last && saving[child + 1] > saving[child]) child++;
+                if (saving[child] <= s) break;
+                move(child, k);
+                k = child;
+            }
+            saving[k] = s;
+            from[k] = i;
+            to[k] = j;
+        }
+
+        private void move(int src, int dst) {
+            saving[dst] = saving[src];
+            from[dst] = from[src];
+            to[dst] = to[src];
+        }
+    }
+}
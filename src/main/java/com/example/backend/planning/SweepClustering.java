@@ -0,0 +1,72 @@
+package com.example.backend.planning;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Divide os pedidos de um hub em {@code k} setores contíguos pelo ângulo em torno do hub (sweep).
+ * O corte equilibra ao mesmo tempo peso e quantidade: cada pedido pesa metade pela sua fração do peso
+ * total e metade pela fração da contagem, então nenhum setor passa de ~2n/k pedidos.
+ * A varredura começa depois do maior vão angular, para não partir um grupo natural ao meio.
+ */
+public final class SweepClustering {
+
+    private SweepClustering() {
+    }
+
+    /** Índices de cada setor, em ordem angular; todo índice de 0 a n-1 aparece em exatamente um setor. */
+    public static int[][] split(int[] xs, int[] ys, double[] weights, int hubX, int hubY, int k) {
+        int n = xs.length;
+        if (k < 1) throw new IllegalArgumentException("k must be >= 1");
+        k = Math.min(k, Math.max(1, n));
+
+        double[] angle = new double[n];
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            angle[i] = Math.atan2(ys[i] - hubY, xs[i] - hubX);
+            idx[i] = i;
+        }
+        Arrays.sort(idx, Comparator.comparingDouble(i -> angle[i]));
+
+        // começa logo depois do maior vão (inclui a volta de +pi para -pi)
+        int start = 0;
+        double widest = -1;
+        for (int p = 0; p < n; p++) {
+            double next = p + 1 < n ? angle[idx[p + 1]] : angle[idx[0]] + 2 * Math.PI;
+            double gap = next - angle[idx[p]];
+            if (gap > widest) {
+                widest = gap;
+                start = (p + 1) % n;
+            }
+        }
+
+        double totalWeight = 0.0;
+        for (double w : weights) totalWeight += Math.max(0.0, w);
+
+        int[][] out = new int[k][];
+        int[] buf = new int[n];
+        int filled = 0;
+        int cluster = 0;
+        double load = 0.0;
+
+        for (int p = 0; p < n; p++) {
+            int i = idx[(start + p) % n];
+            buf[filled++] = i;
+
+            double wShare = totalWeight > 0 ? Math.max(0.0, weights[i]) / totalWeight : 1.0 / n;
+            load += 0.5 * wShare + 0.5 / n;
+
+            int left = n - p - 1;
+            int clustersLeft = k - cluster - 1;
+            boolean reachedTarget = load >= (double) (cluster + 1) / k - 1e-12;
+
+            // fecha o setor no alvo, ou quando os pedidos restantes mal dão um por setor
+            if (clustersLeft > 0 && (reachedTarget || left == clustersLeft)) {
+                out[cluster++] = Arrays.copyOf(buf, filled);
+                filled = 0;
+            }
+        }
+        out[cluster] = Arrays.copyOf(buf, filled);
+        return out;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linha do tempo das viagens de um hub: cada viagem vai para o drone compatível (carga, alcance e bateria
+ * cheia cobrem a rota) que a termina mais cedo (earliest finish time), encadeada depois das viagens que ele já tem. Entre viagens há o tempo de
+ * solo (troca de carga) e, quando a bateria restante não cobre a próxima rota, a recarga até 100%.
+ * <p>
+ * Viagens com pedido mais urgente são alocadas primeiro; dentro da mesma prioridade, as mais longas
+ * primeiro (LPT), o que equilibra o makespan entre os drones.
+ */
+@Component
+public class TripScheduler {
+
+    private final EnergyModel energy;
+    private final long turnaroundMs;
+    private final double rechargePctPerMin;
+
+    public TripScheduler(EnergyModel energy,
+                         @Value("${app.planning.turnaround:PT2M}") Duration turnaround,
+                         @Value("${app.energy.recharge-pct-per-min:2.0}") double rechargePctPerMin) {
+        if (rechargePctPerMin <= 0) throw new IllegalArgumentException("app.energy.recharge-pct-per-min must be > 0");
+
+        this.energy = energy;
+        this.turnaroundMs = turnaround.toMillis();
+        this.rechargePctPerMin = rechargePctPerMin;
+    }
+
+    /** Viagem a encaixar; os índices da rota são do {@code problem} de onde ela saiu. */
+    public record Job(PlanningProblem problem, PlanningStrategy.PlannedRoute route) {
+    }
+
+    /** Quando um drone ocupado volta ao hub e com quanta bateria. */
+    public record Availability(Instant at, double batteryPct) {
+    }
+
+    /** Horário de uma viagem; {@code job} é a posição na lista de entrada. */
+    public record Slot(int job, Drone drone, Instant startAt, Instant finishAt) {
+    }
+
+    /**
+     * @param fleet drones do hub; os ausentes de {@code busy} estão livres agora, com a bateria atual
+     * @return um horário por viagem, ordenados por drone e início
+     */
+    public List<Slot> schedule(List<Job> jobs, List<Drone> fleet, Map<Long, Availability> busy, Instant now) {
+        int m = fleet.size();
+        long[] freeAt = new long[m];
+        double[] battery = new double[m];
+        long nowMs = now.toEpochMilli();
+
+        for (int d = 0; d < m; d++) {
+            Drone drone = fleet.get(d);
+            Availability a = busy.get(drone.getId());
+            freeAt[d] = a == null ? nowMs : Math.max(nowMs, a.at().toEpochMilli());
+            battery[d] = a == null ? drone.getBatteryPct() : a.batteryPct();
+        }
+
+        Integer[] order = new Integer[jobs.size()];
+        int[] rank = new int[jobs.size()];
+        long[] ownMs = new long[jobs.size()];
+        for (int j = 0; j < order.length; j++) {
+            order[j] = j;
+            rank[j] = urgency(jobs.get(j));
+            ownMs[j] = flightMs(jobs.get(j).route().dist(), jobs.get(j).route().drone());
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(j -> rank[j]).thenComparingLong(j -> -ownMs[j]));
+
+        List<Slot> slots = new ArrayList<>(jobs.size());
+        Map<EnergyModel.Table, Double> pctBySpec = new IdentityHashMap<>();
+
+        for (int j : order) {
+            Job job = jobs.get(j);
+            PlanningStrategy.PlannedRoute r = job.route();
+            double weight = job.problem().routeWeight(r.delivery(), r.len());
+            pctBySpec.clear();
+
+            int best = -1;
+            long bestStart = 0, bestFinish = Long.MAX_VALUE;
+            double bestPct = 0.0;
+            boolean bestCharges = false;
+
+            for (int d = 0; d < m; d++) {
+                Drone drone = fleet.get(d);
+                // mesmas tolerâncias do planejador: a soma dos pesos em double não pode derrubar uma rota que cabe
+                if (weight > drone.getCapacityKg() + 1e-9 || r.dist() > drone.getRangeKm() + 1e-9) continue;
+
+                EnergyModel.Table table = energy.tableFor(drone);
+                double pct = pctBySpec.computeIfAbsent(table, t -> t.routePct(job.problem(), r.delivery(), r.len()));
+                if (pct > energy.usablePct(100.0) + 1e-9) continue;
+
+                boolean charges = energy.usablePct(battery[d]) < pct;
+                long start = freeAt[d] + (charges ? chargeMs(battery[d]) : 0);
+                long finish = start + flightMs(r.dist(), drone);
+
+                // empate: fica com o drone que a estratégia escolheu
+                if (finish < bestFinish || (finish == bestFinish && drone == r.drone())) {
+                    best = d;
+                    bestStart = start;
+                    bestFinish = finish;
+                    bestPct = pct;
+                    bestCharges = charges;
+                }
+            }
+
+            if (best < 0) {
+                // nenhum drone do hub comporta a rota (não deveria acontecer): mantém o da estratégia, sem espera
+                slots.add(new Slot(j, r.drone(), now, Instant.ofEpochMilli(nowMs + ownMs[j])));
+                continue;
+            }
+
+            slots.add(new Slot(j, fleet.get(best), Instant.ofEpochMilli(bestStart), Instant.ofEpochMilli(bestFinish)));
+            freeAt[best] = bestFinish + turnaroundMs;
+            battery[best] = Math.max(0.0, (bestCharges ? 100.0 : battery[best]) - bestPct);
+        }
+
+        slots.sort(Comparator.comparing((Slot s) -> s.drone().getId()).thenComparing(Slot::startAt));
+        return slots;
+    }
+
+    /**
+     * Disponibilidade de um drone cuja última viagem aberta termina em {@code end}: volta depois do tempo de solo,
+     * com a bateria atual menos o consumo da rota sem carga (estimativa; a recarga antes da próxima viagem cobre a diferença).
+     */
+    public Availability afterTrip(Drone drone, Instant end, double distKm, Instant now) {
+        Instant at = end.plusMillis(turnaroundMs);
+        double left = Math.min(100.0, drone.getBatteryPct()) - distKm * energy.tableFor(drone).pctPerKm(0.0);
+        return new Availability(at.isBefore(now) ? now : at, Math.max(0.0, left));
+    }
+
+    private long chargeMs(double batteryPct) {
+        return (long) (Math.max(0.0, 100.0 - batteryPct) / rechargePctPerMin * 60_000.0);
+    }
+
+    private static long flightMs(double distKm, Drone drone) {
+        return (long) (distKm / Math.max(1.0, drone.getSpeedKmh()) * 3_600_000.0);
+    }
+
+    private static int urgency(Job job) {
+        int rank = Integer.MAX_VALUE;
+        for (int k = 0; k < job.route().len(); k++) {
+            rank = Math.min(rank, job.problem().priorityRank(job.route().delivery()[k]));
+        }
+        return rank;
+    }
+}
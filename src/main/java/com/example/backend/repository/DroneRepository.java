@@ -2,6 +2,20 @@ package com.example.backend.repository;
 
 import com.example.backend.domain.Drone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface DroneRepository extends JpaRepository<Drone, Long> {
-}
\ No newline at end of file
+
+    List<Drone> findByUpdatedAtGreaterThanEqual(Instant since);
+
+    boolean existsByHubId(Long hubId);
+
+    /* Quais desses ids ainda existem (reconciliação de exclusões no warm start) */
+    @Query("select d.id from Drone d where d.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
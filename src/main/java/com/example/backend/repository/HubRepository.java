@@ -0,0 +1,7 @@
+package com.example.backend.repository;
+
+import com.example.backend.domain.Hub;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface HubRepository extends JpaRepository<Hub, Long> {
+}
@@ -1,11 +1,53 @@
 package com.example.backend.repository;
 
 import com.example.backend.domain.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByStatus(Order.Status status);
+
+    boolean existsByStatus(Order.Status status);
+
+    List<Order> findByUpdatedAtGreaterThanEqual(Instant since);
+
+    /* Exportação: cursor com fetch size, sem snapshot de dirty checking; consumir dentro de uma transação */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o where o.status = :status and o.updatedAt >= :from and o.updatedAt <= :to order by o.id")
+    Stream<Order> streamByStatusAndUpdatedAtBetween(@Param("status") Order.Status status,
+                                                    @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("select o.id from Order o where o.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select o.id from Order o where o.id in :ids and o.status in :statuses")
+    List<Long> findIdsByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+                                        @Param("statuses") Collection<Order.Status> statuses);
+
+    /* Troca de status em lote; versão e updatedAt são mantidos à mão porque o UPDATE não passa pela entidade */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.version = coalesce(o.version, 0) + 1, o.updatedAt = :now where o.id in :ids")
+    int updateStatusIn(@Param("ids") Collection<Long> ids, @Param("status") Order.Status status, @Param("now") Instant now);
+
+    /* Entrega os pedidos das paradas informadas que ainda não estavam entregues; devolve quantos mudaram */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = com.example.backend.domain.Order.Status.DELIVERED, "
+            + "o.version = coalesce(o.version, 0) + 1, o.updatedAt = :now "
+            + "where o.status <> com.example.backend.domain.Order.Status.DELIVERED "
+            + "and o.id in (select s.order.id from TripStop s where s.trip.id = :tripId and s.seq in :seqs)")
+    int markDeliveredByStops(@Param("tripId") Long tripId, @Param("seqs") Collection<Integer> seqs, @Param("now") Instant now);
 }
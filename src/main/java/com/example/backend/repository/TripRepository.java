@@ -1,16 +1,74 @@
 package com.example.backend.repository;
 
 import com.example.backend.domain.Trip;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
     List<Trip> findByStatus(Trip.Status status);
+    List<Trip> findByStatusIn(Collection<Trip.Status> statuses);
+
+    List<Trip> findByDroneIdInAndStatusIn(Collection<Long> droneIds, Collection<Trip.Status> statuses);
+
+    /* Viagens PLANNED cujo drone ainda leva mais weightKg além da carga atual */
+    @EntityGraph(attributePaths = "drone")
+    @Query("select t from Trip t where t.status = com.example.backend.domain.Trip.Status.PLANNED "
+            + "and t.totalWeight + :weightKg <= t.drone.capacityKg")
+    List<Trip> findPlannedWithRoomFor(@Param("weightKg") double weightKg);
 
     /* Buscas do mais recente para o mais antigo */
     List<Trip> findByDroneIdOrderByStartAtDesc(Long droneId);
+
+    /* Mesma busca para exportação: cursor com fetch size e entidades só leitura */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Trip> streamByDroneIdOrderByStartAtDesc(Long droneId);
     Optional<Trip> findFirstByDroneIdAndStatusOrderByStartAtDesc(Long droneId, Trip.Status status);
+
+    List<Trip> findByUpdatedAtGreaterThanEqual(Instant since);
+
+    @Query("select t.id from Trip t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Trip t set t.status = :status, t.version = coalesce(t.version, 0) + 1, t.updatedAt = :now where t.id in :ids")
+    int updateStatusIn(@Param("ids") Collection<Long> ids, @Param("status") Trip.Status status, @Param("now") Instant now);
+
+    /* Contadores de paradas: incrementos atômicos no banco, sem ler a viagem */
+    @Modifying(flushAutomatically = true)
+    @Query("update Trip t set t.stopsTotal = t.stopsTotal + :total, t.stopsRemaining = t.stopsRemaining + :remaining where t.id = :id")
+    int adjustStopCounters(@Param("id") Long id, @Param("total") int total, @Param("remaining") int remaining);
+
+    /* Finaliza a viagem só se não restar parada; devolve 1 quando esta chamada a finalizou */
+    @Modifying(flushAutomatically = true)
+    @Query("update Trip t set t.status = com.example.backend.domain.Trip.Status.FINISHED, t.finishAt = :now, "
+            + "t.version = coalesce(t.version, 0) + 1, t.updatedAt = :now "
+            + "where t.id = :id and t.stopsRemaining <= 0 and t.status <> com.example.backend.domain.Trip.Status.FINISHED")
+    int finishIfComplete(@Param("id") Long id, @Param("now") Instant now);
+
+    /*
+     * Preenche os contadores de viagens criadas antes deles existirem: stopsTotal = 0 com paradas gravadas só
+     * acontece nelas (toda viagem nova já nasce contada). Depois da primeira execução nenhuma linha casa.
+     */
+    @Modifying
+    @Query("update Trip t set "
+            + "t.stopsTotal = (select count(s) from TripStop s where s.trip = t), "
+            + "t.stopsRemaining = (select count(s) from TripStop s where s.trip = t and s.delivered = false) "
+            + "where t.stopsTotal = 0 and exists (select 1 from TripStop s where s.trip = t)")
+    int backfillStopCounters();
 }
@@ -1,8 +1,14 @@
 package com.example.backend.repository;
 
 import com.example.backend.domain.TripStop;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,5 +26,22 @@ public interface TripStopRepository extends JpaRepository<TripStop, Long> {
      * - Optional.empty() se não existir tripId=X com seq=Y */
     Optional<TripStop> findByTripIdAndSeq(Long tripId, int seq);
 
+    @EntityGraph(attributePaths = "order")
+    List<TripStop> findByTripIdAndSeqInOrderBySeqAsc(Long tripId, Collection<Integer> seqs);
+
+    /* Paradas de várias viagens numa consulta, agrupáveis por viagem */
+    @EntityGraph(attributePaths = "order")
+    List<TripStop> findByTripIdInOrderByTripIdAscSeqAsc(Collection<Long> tripIds);
+
     long countByTripId(Long tripId); // Contador de paradas de uma viagem
+
+    /* Atualiza só as colunas de estimativa, sem carregar a parada (usado pelo EtaService) */
+    @Modifying
+    @Query("update TripStop s set s.estimatedArrivalAt = :arrival, s.estimatedDepartureAt = :departure where s.id = :id")
+    int updateEstimates(@Param("id") Long id, @Param("arrival") Instant arrival, @Param("departure") Instant departure);
+
+    /* Entrega em lote: um único UPDATE para todas as paradas informadas */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update TripStop s set s.delivered = true where s.trip.id = :tripId and s.seq in :seqs and s.delivered = false")
+    int markDelivered(@Param("tripId") Long tripId, @Param("seqs") Collection<Integer> seqs);
 }
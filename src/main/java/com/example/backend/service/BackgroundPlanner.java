@@ -0,0 +1,242 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Order;
+import com.example.backend.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Planejador em segundo plano (opcional, {@code app.planning.background.enabled}). Cada pedido criado entra
+ * numa fila; um lote é planejado quando a fila chega a {@code max-batch} pedidos ou o mais antigo espera
+ * {@code max-wait}. A cada {@code interval} roda também sem chegada nova, se houver backlog PENDING
+ * (sobras de lotes anteriores, pedidos anteriores ao startup).
+ * <p>
+ * O lote é só o gatilho: cada execução chama {@link PlanningService#planRollingHorizon}, que replaneja todo o
+ * backlog PENDING (pedidos do lote e sobras de antes), e só grava as viagens que saem dentro do horizonte.
+ * Planos manuais passam pelo mesmo single-flight e pelo controle de versão, então nunca se sobrepõem a este.
+ * <p>
+ * {@code planning.background.lag} só mede pedidos que entraram numa viagem: os que ficaram de fora do
+ * horizonte (ou sem drone) continuam acompanhados até um lote seguinte planejá-los, e saem da conta se
+ * forem rejeitados ou apagados.
+ */
+@Component
+public class BackgroundPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(BackgroundPlanner.class);
+
+    private final PlanningService planning;
+    private final OrderRepository orderRepo;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final long intervalNanos;
+    private final Duration horizon;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // pedidos que chegaram desde o último lote, com o instante de chegada (nanoTime)
+    private final Deque<Arrival> arrivals = new ArrayDeque<>();
+    // pedidos já vistos por um lote que ainda não entraram numa viagem; só a thread do planejador mexe
+    private final Map<Long, Long> unplanned = new LinkedHashMap<>();
+    private boolean running;
+    private Thread worker;
+
+    private final Timer lag;
+    private final Counter batches;
+    private final Counter failures;
+
+    public BackgroundPlanner(PlanningService planning, OrderRepository orderRepo, MeterRegistry registry,
+                             @Value("${app.planning.background.enabled:false}") boolean enabled,
+                             @Value("${app.planning.background.max-batch:50}") int maxBatch,
+                             @Value("${app.planning.background.max-wait:PT2S}") Duration maxWait,
+                             @Value("${app.planning.background.interval:PT1M}") Duration interval,
+                             @Value("${app.planning.background.horizon:PT30M}") Duration horizon) {
+        if (maxBatch < 1) throw new IllegalArgumentException("app.planning.background.max-batch must be >= 1");
+
+        this.planning = planning;
+        this.orderRepo = orderRepo;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.horizon = horizon;
+
+        this.lag = Timer.builder("planning.background.lag")
+                .description("Time from order arrival to the end of the batch that planned it")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.batches = Counter.builder("planning.background.batches").register(registry);
+        this.failures = Counter.builder("planning.background.failures").register(registry);
+        registry.gauge("planning.background.queued", this, BackgroundPlanner::queued);
+        registry.gauge("planning.background.oldest.age.seconds", this, BackgroundPlanner::oldestAgeSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        lock.lock();
+        try {
+            if (running) return;
+            running = true;
+            worker = Thread.ofVirtual().name("background-planner").start(this::loop);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread t;
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+            t = worker;
+        } finally {
+            lock.unlock();
+        }
+
+        if (t != null) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record Arrival(Long orderId, long at) {
+    }
+
+    /** Chamado depois do commit de um pedido novo; sem o planejador ligado, não faz nada. */
+    public void orderArrived(Long orderId) {
+        if (!enabled) return;
+
+        lock.lock();
+        try {
+            arrivals.addLast(new Arrival(orderId, System.nanoTime()));
+            if (arrivals.size() >= maxBatch || arrivals.size() == 1) changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loop() {
+        long lastRun = System.nanoTime();
+
+        while (true) {
+            Arrival[] batch;
+            lock.lock();
+            try {
+                while (running) {
+                    long wait = waitNanos(System.nanoTime(), lastRun);
+                    if (wait <= 0) break;
+                    changed.awaitNanos(wait);
+                }
+                if (!running) return;
+
+                batch = drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            runBatch(batch);
+            lastRun = System.nanoTime();
+        }
+    }
+
+    /* Quanto esperar antes do próximo lote: 0 quando a fila encheu ou o mais antigo venceu o max-wait */
+    private long waitNanos(long now, long lastRun) {
+        long untilTick = lastRun + intervalNanos - now;
+        if (arrivals.isEmpty()) return untilTick;
+        if (arrivals.size() >= maxBatch) return 0;
+        return Math.min(untilTick, arrivals.peekFirst().at() + maxWaitNanos - now);
+    }
+
+    private Arrival[] drain() {
+        Arrival[] out = arrivals.toArray(new Arrival[0]);
+        arrivals.clear();
+        return out;
+    }
+
+    private void runBatch(Arrival[] batch) {
+        for (Arrival a : batch) unplanned.put(a.orderId(), a.at());
+
+        try {
+            // tick sem chegada nova: só roda se ainda houver backlog
+            if (batch.length == 0 && !orderRepo.existsByStatus(Order.Status.PENDING)) return;
+
+            PlanningService.PlanRun run = planning.planRollingHorizon(horizon);
+            batches.increment();
+            recordLag(System.nanoTime());
+
+            log.debug("Background batch: {} new orders, {} planned, {} trips",
+                    batch.length, run.report().ordersPlanned(), run.report().tripsCreated());
+        } catch (RuntimeException e) {
+            // pedidos continuam PENDING no banco: o próximo lote (ou tick) tenta de novo
+            failures.increment();
+            log.warn("Background planning batch failed: {}", e.getMessage());
+        }
+    }
+
+    /* Lag só de quem entrou numa viagem; quem segue PENDING espera o próximo lote, o resto sai da conta */
+    private void recordLag(long end) {
+        if (unplanned.isEmpty()) return;
+
+        Set<Long> ids = unplanned.keySet();
+        Set<Long> inTrip = new HashSet<>(orderRepo.findIdsByIdInAndStatusIn(ids,
+                List.of(Order.Status.PLANNED, Order.Status.DELIVERED)));
+        Set<Long> pending = new HashSet<>(orderRepo.findIdsByIdInAndStatusIn(ids, List.of(Order.Status.PENDING)));
+
+        unplanned.entrySet().removeIf(e -> {
+            if (inTrip.contains(e.getKey())) {
+                lag.record(end - e.getValue(), TimeUnit.NANOSECONDS);
+                return true;
+            }
+            return !pending.contains(e.getKey());
+        });
+    }
+
+    private double queued() {
+        lock.lock();
+        try {
+            return arrivals.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double oldestAgeSeconds() {
+        lock.lock();
+        try {
+            Arrival first = arrivals.peekFirst();
+            return first == null ? 0.0 : (System.nanoTime() - first.at()) / 1e9;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
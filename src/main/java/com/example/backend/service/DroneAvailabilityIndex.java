@@ -0,0 +1,198 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Trip;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Índice em memória de disponibilidade da frota, usado pelo planejador no lugar de carregar todos os drones.
+ * <ul>
+ *   <li>um {@link BitSet} por {@link Drone.Status}, indexado pela posição do drone no índice;</li>
+ *   <li>para quem não está IDLE, o instante previsto de disponibilidade, numa árvore ordenada por esse instante:
+ *       CARREGANDO termina a recarga, os demais terminam a última viagem aberta ({@code finishAt}).</li>
+ * </ul>
+ * Alimentado pelo {@link HotStateCache} depois de cada commit (status, bateria, exclusões e viagens),
+ * então acompanha toda mutação do {@link DroneService}. Consultas custam O(disponíveis), não O(frota).
+ */
+@Component
+public class DroneAvailabilityIndex {
+
+    private final double rechargePctPerMin;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final EnumMap<Drone.Status, BitSet> byStatus = new EnumMap<>(Drone.Status.class);
+    private final NavigableSet<Entry> byAvailableAt = new TreeSet<>(
+            Comparator.comparingLong((Entry e) -> e.availableAtMs).thenComparingLong(e -> e.id));
+    private final List<Long> slotIds = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    // viagens abertas: id da viagem -> drone e fim previsto; por drone, id da viagem -> fim previsto
+    private final Map<Long, OpenTrip> trips = new HashMap<>();
+    private final Map<Long, Map<Long, Long>> tripsByDrone = new HashMap<>();
+
+    private boolean ready = false;
+
+    public DroneAvailabilityIndex(@Value("${app.energy.recharge-pct-per-min:2.0}") double rechargePctPerMin) {
+        if (rechargePctPerMin <= 0) throw new IllegalArgumentException("app.energy.recharge-pct-per-min must be > 0");
+
+        this.rechargePctPerMin = rechargePctPerMin;
+        for (Drone.Status s : Drone.Status.values()) byStatus.put(s, new BitSet());
+    }
+
+    private static final class Entry {
+        final long id;
+        final int slot;
+        Drone.Status status;
+        int batteryPct;
+        Instant updatedAt;
+        long availableAtMs;
+
+        Entry(long id, int slot) {
+            this.id = id;
+            this.slot = slot;
+        }
+    }
+
+    private record OpenTrip(Long droneId, long finishAtMs) {
+    }
+
+    /* ======================= CONSULTAS ======================= */
+
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Drones IDLE mais os que ficam disponíveis até {@code now + horizon}, por id.
+     * Quem está ocupado sem previsão (voando sem viagem aberta, por exemplo) fica de fora.
+     */
+    public synchronized List<Long> availableIds(Instant now, Duration horizon) {
+        BitSet idle = byStatus.get(Drone.Status.IDLE);
+        List<Long> out = new ArrayList<>(idle.cardinality());
+        for (int slot = idle.nextSetBit(0); slot >= 0; slot = idle.nextSetBit(slot + 1)) out.add(slotIds.get(slot));
+
+        long limit = now.plus(horizon).toEpochMilli();
+        for (Entry e : byAvailableAt) {
+            if (e.availableAtMs > limit) break;
+            out.add(e.id);
+        }
+
+        Collections.sort(out);
+        return out;
+    }
+
+    /* ======================= ATUALIZAÇÕES ======================= */
+
+    synchronized void put(Drone d) {
+        if (d.getId() == null) return;
+        Entry e = entries.get(d.getId());
+
+        if (e == null) {
+            int slot = freeSlots.isEmpty() ? slotIds.size() : freeSlots.pop();
+            if (slot == slotIds.size()) slotIds.add(d.getId());
+            else slotIds.set(slot, d.getId());
+
+            e = new Entry(d.getId(), slot);
+            entries.put(e.id, e);
+        } else {
+            byStatus.get(e.status).clear(e.slot);
+            byAvailableAt.remove(e);
+        }
+
+        Drone.Status status = d.getStatus() == null ? Drone.Status.IDLE : d.getStatus();
+        e.status = status;
+        e.batteryPct = d.getBatteryPct();
+        e.updatedAt = d.getUpdatedAt();
+
+        byStatus.get(status).set(e.slot);
+        reindex(e);
+    }
+
+    synchronized void remove(Long droneId) {
+        Entry e = entries.remove(droneId);
+        if (e == null) return;
+
+        byStatus.get(e.status).clear(e.slot);
+        byAvailableAt.remove(e);
+        slotIds.set(e.slot, null);
+        freeSlots.push(e.slot);
+    }
+
+    synchronized void applyTrip(HotStateCache.ActiveTrip t) {
+        removeTrip(t.id());
+        if (t.status() == Trip.Status.FINISHED || t.droneId() == null) return;
+
+        long finishAtMs = t.finishAt() == null ? Long.MAX_VALUE : t.finishAt().toEpochMilli();
+        trips.put(t.id(), new OpenTrip(t.droneId(), finishAtMs));
+        tripsByDrone.computeIfAbsent(t.droneId(), k -> new HashMap<>()).put(t.id(), finishAtMs);
+        reindexDrone(t.droneId());
+    }
+
+    synchronized void removeTrip(Long tripId) {
+        OpenTrip previous = trips.remove(tripId);
+        if (previous == null) return;
+
+        Map<Long, Long> open = tripsByDrone.get(previous.droneId());
+        if (open != null) {
+            open.remove(tripId);
+            if (open.isEmpty()) tripsByDrone.remove(previous.droneId());
+        }
+        reindexDrone(previous.droneId());
+    }
+
+    /**
+     * Carga inicial (warm start ou primeiro uso sem estado quente). Não sobrescreve drones já
+     * atualizados pelo listener com um estado mais novo que o lido.
+     */
+    synchronized void seed(Collection<Drone> drones, Collection<HotStateCache.ActiveTrip> openTrips) {
+        for (Drone d : drones) {
+            Entry e = entries.get(d.getId());
+            boolean newer = e != null && e.updatedAt != null && d.getUpdatedAt() != null && e.updatedAt.isAfter(d.getUpdatedAt());
+            if (!newer) put(d);
+        }
+        for (HotStateCache.ActiveTrip t : openTrips) {
+            if (!trips.containsKey(t.id())) applyTrip(t);
+        }
+        ready = true;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        byStatus.values().forEach(BitSet::clear);
+        byAvailableAt.clear();
+        slotIds.clear();
+        freeSlots.clear();
+        trips.clear();
+        tripsByDrone.clear();
+        ready = false;
+    }
+
+    private void reindexDrone(Long droneId) {
+        Entry e = entries.get(droneId);
+        if (e == null) return;
+
+        byAvailableAt.remove(e);
+        reindex(e);
+    }
+
+    /* Recalcula a previsão de quem não está IDLE e devolve à árvore */
+    private void reindex(Entry e) {
+        if (e.status == Drone.Status.IDLE) return;
+
+        if (e.status == Drone.Status.CARREGANDO) {
+            // a partir da última leitura de bateria
+            long since = e.updatedAt != null ? e.updatedAt.toEpochMilli() : System.currentTimeMillis();
+            e.availableAtMs = since + (long) (Math.max(0, 100 - e.batteryPct) / rechargePctPerMin * 60_000.0);
+        } else {
+            Map<Long, Long> open = tripsByDrone.get(e.id);
+            e.availableAtMs = open == null ? Long.MAX_VALUE : Collections.max(open.values());
+        }
+
+        if (e.availableAtMs != Long.MAX_VALUE) byAvailableAt.add(e);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.backend.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks listrados por id de drone: mutações do mesmo drone são serializadas,
+ * drones em listras diferentes seguem em paralelo. O número de listras é fixo,
+ * então a memória não cresce com a frota.
+ */
+final class DroneLocks {
+
+    private final ReentrantLock[] stripes;
+
+    DroneLocks(int stripes) {
+        if (stripes < 1) throw new IllegalArgumentException("stripes must be >= 1");
+
+        // potência de 2 para indexar com máscara
+        int n = 1;
+        while (n < stripes) n <<= 1;
+
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < this.stripes.length; i++) this.stripes[i] = new ReentrantLock();
+    }
+
+    <T> T withLock(Long droneId, Supplier<T> work) {
+        ReentrantLock lock = stripeFor(droneId);
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return stripes.length;
+    }
+
+    private ReentrantLock stripeFor(Long droneId) {
+        int h = Long.hashCode(droneId);
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+}
@@ -2,19 +2,58 @@ package com.example.backend.service;
 
 import com.example.backend.domain.Drone;
 import com.example.backend.repository.DroneRepository;
+import com.example.backend.repository.HubRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class DroneService {
 
     private final DroneRepository droneRepo;
-
-    public DroneService(DroneRepository droneRepo) {
+    private final HubRepository hubRepo;
+    private final HotStateCache hotState;
+    private final EtaService eta;
+    private final TransactionTemplate tx;
+
+    /*
+     * Telemetria, status e bateria do mesmo drone chegam ao mesmo tempo: cada mutação
+     * roda sob a listra do drone, com a transação inteira (inclusive o commit) dentro do lock.
+     */
+    private final DroneLocks locks;
+
+    // taxa de ingestão de telemetria (rate() no Prometheus)
+    private final Counter locationReports;
+    private final Counter batteryReports;
+    private final Counter statusReports;
+
+    public DroneService(DroneRepository droneRepo, HubRepository hubRepo, HotStateCache hotState, EtaService eta,
+                        PlatformTransactionManager txManager,
+                        @Value("${app.drones.lock-stripes:64}") int lockStripes,
+                        MeterRegistry registry) {
         this.droneRepo = droneRepo;
+        this.hubRepo = hubRepo;
+        this.hotState = hotState;
+        this.eta = eta;
+        this.tx = new TransactionTemplate(txManager);
+        this.locks = new DroneLocks(lockStripes);
+
+        this.locationReports = telemetryCounter(registry, "location");
+        this.batteryReports = telemetryCounter(registry, "battery");
+        this.statusReports = telemetryCounter(registry, "status");
+    }
+
+    private static Counter telemetryCounter(MeterRegistry registry, String kind) {
+        return Counter.builder("drone.telemetry.ingested").tag("kind", kind).register(registry);
     }
 
     @Transactional
@@ -36,11 +75,17 @@ public class DroneService {
             d.setBatteryPct(100);
         }
 
+        ensureHubExists(d.getHubId());
+
         return droneRepo.save(d);
     }
 
     @Transactional(readOnly = true)
     public List<Drone> listAll() {
+        if (hotState.isWarm()) {
+            return hotState.drones();
+        }
+
         return droneRepo.findAll();
     }
 
@@ -50,40 +95,43 @@ public class DroneService {
                 .orElseThrow(() -> new EntityNotFoundException("Drone not found: " + id));
     }
 
-    @Transactional
     public Drone updateBasicFields(Long id, String name, Double capacityKg, Double rangeKm, Double speedKmh) {
-        Drone d = getById(id);
+        return mutate(id, d -> {
+            if (name != null) d.setName(name);
+            if (capacityKg != null) d.setCapacityKg(capacityKg);
+            if (rangeKm != null) d.setRangeKm(rangeKm);
+            if (speedKmh != null) d.setSpeedKmh(speedKmh);
 
-        if (name != null) d.setName(name);
-        if (capacityKg != null) d.setCapacityKg(capacityKg);
-        if (rangeKm != null) d.setRangeKm(rangeKm);
-        if (speedKmh != null) d.setSpeedKmh(speedKmh);
+            validate(d);
+            Drone saved = droneRepo.save(d);
 
-        validate(d);
-        return droneRepo.save(d);
+            if (speedKmh != null) eta.invalidateDrone(id);
+
+            return saved;
+        });
     }
 
-    @Transactional
     public void deleteIfIdle(Long id) {
-        Drone d = getById(id);
-
-        if (d.getStatus() != Drone.Status.IDLE) {
-            throw new IllegalStateException("Cannot delete drone with status " + d.getStatus());
-        }
-
-        droneRepo.delete(d);
+        mutate(id, d -> {
+            if (d.getStatus() != Drone.Status.IDLE) {
+                throw new IllegalStateException("Cannot delete drone with status " + d.getStatus());
+            }
+
+            droneRepo.delete(d);
+            return d;
+        });
     }
 
-    @Transactional
     public Drone updateStatus(Long id, Drone.Status status) {
-        Drone d = getById(id);
+        Drone saved = mutate(id, d -> {
+            d.setStatus(status);
+            return droneRepo.save(d);
+        });
 
-        d.setStatus(status);
-
-        return droneRepo.save(d);
+        statusReports.increment();
+        return saved;
     }
 
-    @Transactional
     public Drone updateBattery(Long id, Integer batteryPct) {
         if (batteryPct == null) throw new IllegalArgumentException("batteryPct is required");
 
@@ -91,21 +139,51 @@ public class DroneService {
             throw new IllegalArgumentException("batteryPct must be between 0 and 100");
         }
 
-        Drone d = getById(id);
-        d.setBatteryPct(batteryPct);
+        Drone saved = mutate(id, d -> {
+            d.setBatteryPct(batteryPct);
+            return droneRepo.save(d);
+        });
 
-        return droneRepo.save(d);
+        batteryReports.increment();
+        return saved;
     }
 
-    @Transactional
     public Drone updateLocation(Long id, Integer x, Integer y) {
         if (x == null || y == null) throw new IllegalArgumentException("x and y are required");
 
-        Drone d = getById(id);
-        d.setLocationX(x);
-        d.setLocationY(y);
-        
-        return droneRepo.save(d);
+        Drone updated = mutate(id, d -> {
+            d.setLocationX(x);
+            d.setLocationY(y);
+            Drone saved = droneRepo.save(d);
+
+            eta.onTelemetry(id, x, y, Instant.now());
+
+            return saved;
+        });
+
+        locationReports.increment();
+        return updated;
+    }
+
+    /* hubId nulo devolve o drone à origem (0,0) */
+    public Drone assignHub(Long id, Long hubId) {
+        ensureHubExists(hubId);
+
+        return mutate(id, d -> {
+            d.setHubId(hubId);
+            return droneRepo.save(d);
+        });
+    }
+
+    /* Lê o drone, aplica a mutação e faz commit, tudo sob a listra do id */
+    private Drone mutate(Long id, Function<Drone, Drone> change) {
+        return locks.withLock(id, () -> tx.execute(status -> change.apply(getById(id))));
+    }
+
+    private void ensureHubExists(Long hubId) {
+        if (hubId != null && !hubRepo.existsById(hubId)) {
+            throw new EntityNotFoundException("Hub not found: " + hubId);
+        }
     }
 
     private void validate(Drone d) {
@@ -0,0 +1,225 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Trip;
+import com.example.backend.domain.TripStop;
+import com.example.backend.persistence.AfterCommit;
+import com.example.backend.planning.DistanceModel;
+import com.example.backend.repository.TripRepository;
+import com.example.backend.repository.TripStopRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recalcula incrementalmente as ETAs das paradas restantes de uma viagem.
+ * A rota de cada viagem ativa é carregada uma única vez (apenas as paradas daquela viagem)
+ * e mantida em arrays; cada telemetria ou entrega recalcula só as paradas seguintes,
+ * grava apenas as que mudaram e, depois do commit, publica um {@link EtaUpdatedEvent}
+ * (entregue aos clientes por {@link EtaStreams}).
+ */
+@Service
+public class EtaService {
+
+    // variações menores que isso não geram escrita nem evento
+    private static final long MIN_CHANGE_MILLIS = 1_000;
+
+    private final TripRepository tripRepo;
+    private final TripStopRepository stopRepo;
+    private final ApplicationEventPublisher events;
+    private final DistanceModel distanceModel;
+
+    private final ConcurrentMap<Long, TripRoute> routes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> tripByDrone = new ConcurrentHashMap<>();
+
+    public EtaService(TripRepository tripRepo, TripStopRepository stopRepo, ApplicationEventPublisher events, DistanceModel distanceModel) {
+        this.tripRepo = tripRepo;
+        this.stopRepo = stopRepo;
+        this.events = events;
+        this.distanceModel = distanceModel;
+    }
+
+    /** Drone reportou posição: recalcula a viagem em andamento dele a partir de (x, y). */
+    public List<StopEta> onTelemetry(Long droneId, int x, int y, Instant at) {
+        TripRoute route = routeForDrone(droneId);
+        if (route == null) return List.of();
+
+        synchronized (route) {
+            return recompute(route, route.next, x, y, at);
+        }
+    }
+
+    /** Parada entregue em {@code at}: as seguintes passam a partir da posição dela. */
+    public List<StopEta> onDelivered(Long tripId, int seq, Instant at) {
+        TripRoute route = route(tripId);
+        if (route == null) return List.of();
+
+        synchronized (route) {
+            int i = route.indexOf(seq);
+            if (i < 0) return List.of();
+
+            route.delivered[i] = true;
+            while (route.next < route.size() && route.delivered[route.next]) route.next++;
+
+            if (route.next >= route.size()) {
+                invalidate(tripId);
+                return List.of();
+            }
+
+            return recompute(route, route.next, route.xs[i], route.ys[i], at);
+        }
+    }
+
+    /** Descarta a rota em memória (paradas alteradas, viagem excluída/finalizada, estimativa manual). */
+    public void invalidate(Long tripId) {
+        TripRoute removed = routes.remove(tripId);
+        if (removed != null) tripByDrone.remove(removed.droneId, tripId);
+    }
+
+    public void invalidateDrone(Long droneId) {
+        Long tripId = tripByDrone.remove(droneId);
+        if (tripId != null) routes.remove(tripId);
+    }
+
+    private List<StopEta> recompute(TripRoute route, int from, int x, int y, Instant at) {
+        List<StopEta> changed = new ArrayList<>();
+        long cursor = at.toEpochMilli();
+        int cx = x, cy = y;
+
+        for (int i = from; i < route.size(); i++) {
+            if (route.delivered[i]) continue;
+
+            double legKm = distanceModel.distance(cx, cy, route.xs[i], route.ys[i]);
+            if (Double.isInfinite(legKm)) break; // parada dentro de zona proibida: sem ETA possível
+            long eta = cursor + (long) ((legKm / route.speedKmh) * 3_600_000.0);
+
+            if (Math.abs(eta - route.etaMillis[i]) >= MIN_CHANGE_MILLIS) {
+                route.etaMillis[i] = eta;
+                Instant when = Instant.ofEpochMilli(eta);
+                stopRepo.updateEstimates(route.stopIds[i], when, when);
+                changed.add(new StopEta(route.seqs[i], when, when));
+            }
+
+            cursor = eta;
+            cx = route.xs[i];
+            cy = route.ys[i];
+        }
+
+        if (!changed.isEmpty()) {
+            invalidateOnRollback(route.tripId);
+            // ETA anunciada só se a transação que a gravou confirmar
+            EtaUpdatedEvent event = new EtaUpdatedEvent(route.tripId, List.copyOf(changed));
+            AfterCommit.run(() -> events.publishEvent(event));
+        }
+
+        return changed;
+    }
+
+    private TripRoute routeForDrone(Long droneId) {
+        Long tripId = tripByDrone.get(droneId);
+        if (tripId != null) {
+            TripRoute cached = routes.get(tripId);
+            if (cached != null) return cached;
+        }
+
+        return tripRepo.findFirstByDroneIdAndStatusOrderByStartAtDesc(droneId, Trip.Status.IN_PROGRESS)
+                .map(t -> route(t.getId()))
+                .orElse(null);
+    }
+
+    private TripRoute route(Long tripId) {
+        TripRoute cached = routes.get(tripId);
+        if (cached != null) return cached;
+
+        Trip trip = tripRepo.findById(tripId).orElse(null);
+        if (trip == null || trip.getStatus() == Trip.Status.FINISHED) return null;
+
+        List<TripStop> stops = stopRepo.findByTripIdOrderBySeqAsc(tripId);
+        if (stops.isEmpty()) return null;
+
+        TripRoute loaded = TripRoute.of(trip, stops);
+        TripRoute existing = routes.putIfAbsent(tripId, loaded);
+        if (existing != null) return existing;
+
+        tripByDrone.put(loaded.droneId, tripId);
+        return loaded;
+    }
+
+    private void invalidateOnRollback(Long tripId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) invalidate(tripId);
+            }
+        });
+    }
+
+    public record StopEta(int seq, Instant estimatedArrivalAt, Instant estimatedDepartureAt) {
+    }
+
+    public record EtaUpdatedEvent(Long tripId, List<StopEta> stops) {
+    }
+
+    /* Rota de uma viagem em arrays paralelos, indexados pela posição na sequência */
+    static final class TripRoute {
+        final Long tripId;
+        final Long droneId;
+        final double speedKmh;
+        final long[] stopIds;
+        final int[] seqs;
+        final int[] xs;
+        final int[] ys;
+        final boolean[] delivered;
+        final long[] etaMillis;
+        int next; // primeira parada ainda não entregue
+
+        private TripRoute(Long tripId, Long droneId, double speedKmh, int n) {
+            this.tripId = tripId;
+            this.droneId = droneId;
+            this.speedKmh = speedKmh;
+            this.stopIds = new long[n];
+            this.seqs = new int[n];
+            this.xs = new int[n];
+            this.ys = new int[n];
+            this.delivered = new boolean[n];
+            this.etaMillis = new long[n];
+        }
+
+        static TripRoute of(Trip trip, List<TripStop> stops) {
+            double speed = Math.max(1.0, trip.getDrone().getSpeedKmh());
+            TripRoute r = new TripRoute(trip.getId(), trip.getDrone().getId(), speed, stops.size());
+            r.next = stops.size();
+
+            for (int i = stops.size() - 1; i >= 0; i--) {
+                TripStop s = stops.get(i);
+                r.stopIds[i] = s.getId();
+                r.seqs[i] = s.getSeq();
+                r.xs[i] = s.getX();
+                r.ys[i] = s.getY();
+                r.delivered[i] = s.isDelivered();
+                r.etaMillis[i] = s.getEstimatedArrivalAt() != null ? s.getEstimatedArrivalAt().toEpochMilli() : Long.MIN_VALUE / 2;
+                if (!s.isDelivered()) r.next = i;
+            }
+            return r;
+        }
+
+        int size() {
+            return stopIds.length;
+        }
+
+        int indexOf(int seq) {
+            for (int i = 0; i < seqs.length; i++) {
+                if (seqs[i] == seq) return i;
+            }
+            return -1;
+        }
+    }
+}
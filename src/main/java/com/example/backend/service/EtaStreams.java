@@ -0,0 +1,72 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Empurra as ETAs recalculadas para quem acompanha a viagem ({@code GET /trips/{id}/eta/stream}, Server-Sent
+ * Events). Consome o {@link EtaService.EtaUpdatedEvent}, publicado só depois do commit: nenhum cliente
+ * recebe uma ETA que um rollback desfez.
+ */
+@Service
+public class EtaStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(EtaStreams.class);
+
+    private final long timeoutMs;
+    private final ConcurrentMap<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public EtaStreams(@Value("${app.eta.stream-timeout:PT30M}") Duration timeout) {
+        this.timeoutMs = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(Long tripId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        subscribers.computeIfAbsent(tripId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+
+        Runnable remove = () -> unsubscribe(tripId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    @EventListener
+    public void onEtaUpdated(EtaService.EtaUpdatedEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.tripId());
+        if (emitters == null) return;
+
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("eta").data(event.stops()));
+            } catch (IOException | IllegalStateException e) {
+                // cliente desconectado: sai da lista sem afetar os demais
+                log.debug("Dropping ETA subscriber of trip {}: {}", event.tripId(), e.getMessage());
+                unsubscribe(event.tripId(), emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    int subscriberCount(Long tripId) {
+        Set<SseEmitter> emitters = subscribers.get(tripId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    private void unsubscribe(Long tripId, SseEmitter emitter) {
+        subscribers.computeIfPresent(tripId, (id, set) -> {
+            set.remove(emitter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.persistence.EntityChangeSink;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estado "quente" mantido em memória: frota, índice do backlog PENDING e viagens ativas.
+ * É alimentado pelas escritas JPA após cada commit (via {@link com.example.backend.persistence.EntityChangeListener})
+ * e pelos serviços que fazem UPDATEs em lote; é restaurado no startup
+ * pelo {@link StateSnapshotService}. Enquanto não estiver aquecido, quem consulta deve
+ * cair para o banco. Repassa frota e viagens ao {@link DroneAvailabilityIndex}.
+ */
+@Component
+public class HotStateCache implements EntityChangeSink {
+
+    private final ConcurrentMap<Long, Drone> drones = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, PendingOrder> pendingOrders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, ActiveTrip> activeTrips = new ConcurrentHashMap<>();
+
+    private final DroneAvailabilityIndex availability;
+
+    private volatile boolean warm = false;
+
+    public HotStateCache(DroneAvailabilityIndex availability) {
+        this.availability = availability;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    void markWarm() {
+        availability.seed(drones.values(), activeTrips.values());
+        this.warm = true;
+    }
+
+    void clear() {
+        warm = false;
+        drones.clear();
+        pendingOrders.clear();
+        activeTrips.clear();
+        availability.clear();
+    }
+
+    /* ======================= ESCRITAS JPA ======================= */
+
+    @Override
+    public Runnable onSave(Object entity) {
+        if (entity instanceof Drone d) {
+            Drone copy = copyOf(d);
+            return () -> putDrone(copy);
+        } else if (entity instanceof Order o) {
+            PendingOrder po = PendingOrder.of(o);
+            Order.Status status = o.getStatus();
+            return () -> applyOrder(po, status);
+        } else if (entity instanceof Trip t) {
+            ActiveTrip at = ActiveTrip.of(t);
+            return () -> applyTrip(at);
+        }
+        return null;
+    }
+
+    @Override
+    public Runnable onRemove(Object entity) {
+        if (entity instanceof Drone d) {
+            Long id = d.getId();
+            return () -> removeDrone(id);
+        } else if (entity instanceof Order o) {
+            Long id = o.getId();
+            return () -> removeOrder(id);
+        } else if (entity instanceof Trip t) {
+            Long id = t.getId();
+            return () -> removeTrip(id);
+        }
+        return null;
+    }
+
+    /* ======================= FROTA ======================= */
+
+    public List<Drone> drones() {
+        List<Drone> list = new ArrayList<>(drones.size());
+        for (Drone d : drones.values()) list.add(copyOf(d));
+        list.sort(Comparator.comparing(Drone::getId));
+        return list;
+    }
+
+    public Set<Long> droneIds() {
+        return Set.copyOf(drones.keySet());
+    }
+
+    void putDrone(Drone d) {
+        if (d.getId() == null) return;
+        drones.put(d.getId(), copyOf(d));
+        availability.put(d);
+    }
+
+    void removeDrone(Long id) {
+        drones.remove(id);
+        availability.remove(id);
+    }
+
+    /* ======================= BACKLOG ======================= */
+
+    public Set<Long> pendingOrderIds() {
+        return Set.copyOf(pendingOrders.keySet());
+    }
+
+    public List<PendingOrder> pendingOrders() {
+        return List.copyOf(pendingOrders.values());
+    }
+
+    void applyOrder(PendingOrder o, Order.Status status) {
+        if (status == Order.Status.PENDING) {
+            pendingOrders.put(o.id(), o);
+        } else {
+            pendingOrders.remove(o.id());
+        }
+    }
+
+    void removeOrder(Long id) {
+        pendingOrders.remove(id);
+    }
+
+    /* ======================= VIAGENS ATIVAS ======================= */
+
+    public List<ActiveTrip> activeTrips() {
+        return List.copyOf(activeTrips.values());
+    }
+
+    void applyTrip(ActiveTrip t) {
+        if (t.status() == Trip.Status.FINISHED) {
+            activeTrips.remove(t.id());
+        } else {
+            activeTrips.put(t.id(), t);
+        }
+        availability.applyTrip(t);
+    }
+
+    void removeTrip(Long id) {
+        activeTrips.remove(id);
+        availability.removeTrip(id);
+    }
+
+    /* ======================= SNAPSHOT ======================= */
+
+    StateSnapshot toSnapshot(Instant takenAt) {
+        StateSnapshot s = new StateSnapshot();
+        s.takenAt = takenAt;
+        s.drones = drones();
+        s.pendingOrders = pendingOrders();
+        s.activeTrips = activeTrips();
+        return s;
+    }
+
+    void load(StateSnapshot s) {
+        if (s.drones != null) s.drones.forEach(this::putDrone);
+        if (s.pendingOrders != null) s.pendingOrders.forEach(o -> pendingOrders.put(o.id(), o));
+        if (s.activeTrips != null) s.activeTrips.forEach(this::applyTrip);
+    }
+
+    static Drone copyOf(Drone src) {
+        Drone d = new Drone();
+        d.setId(src.getId());
+        d.setName(src.getName());
+        d.setCapacityKg(src.getCapacityKg());
+        d.setRangeKm(src.getRangeKm());
+        d.setSpeedKmh(src.getSpeedKmh());
+        d.setBatteryPct(src.getBatteryPct());
+        d.setStatus(src.getStatus());
+        d.setLocationX(src.getLocationX());
+        d.setLocationY(src.getLocationY());
+        d.setHubId(src.getHubId());
+        d.setUpdatedAt(src.getUpdatedAt());
+        return d;
+    }
+
+    public record PendingOrder(Long id, int customerX, int customerY, double weightKg, Order.Priority priority) {
+
+        static PendingOrder of(Order o) {
+            return new PendingOrder(o.getId(), o.getCustomerX(), o.getCustomerY(), o.getWeightKg(), o.getPriority());
+        }
+    }
+
+    public record ActiveTrip(Long id, Long droneId, Trip.Status status, Instant finishAt) {
+
+        static ActiveTrip of(Trip t) {
+            Long droneId = t.getDrone() != null ? t.getDrone().getId() : null;
+            return new ActiveTrip(t.getId(), droneId, t.getStatus(), t.getFinishAt());
+        }
+    }
+
+    /* Formato gravado em disco pelo StateSnapshotService */
+    public static class StateSnapshot {
+        public Instant takenAt;
+        public List<Drone> drones;
+        public List<PendingOrder> pendingOrders;
+        public List<ActiveTrip> activeTrips;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Hub;
+import com.example.backend.repository.DroneRepository;
+import com.example.backend.repository.HubRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class HubService {
+
+    private final HubRepository hubRepo;
+    private final DroneRepository droneRepo;
+
+    public HubService(HubRepository hubRepo, DroneRepository droneRepo) {
+        this.hubRepo = hubRepo;
+        this.droneRepo = droneRepo;
+    }
+
+    @Transactional
+    public Hub create(Hub h) {
+        h.setId(null);
+        validate(h);
+        return hubRepo.save(h);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Hub> listAll() {
+        return hubRepo.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public Hub getById(Long id) {
+        return hubRepo.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Hub not found: " + id));
+    }
+
+    @Transactional
+    public Hub update(Long id, String name, Integer x, Integer y) {
+        Hub h = getById(id);
+        if (name != null) h.setName(name);
+        if (x != null) h.setX(x);
+        if (y != null) h.setY(y);
+
+        validate(h);
+        return hubRepo.save(h);
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        Hub h = getById(id);
+        if (droneRepo.existsByHubId(id)) {
+            throw new IllegalStateException("Cannot delete hub with assigned drones: " + id);
+        }
+
+        hubRepo.delete(h);
+    }
+
+    private void validate(Hub h) {
+        if (h.getName() == null || h.getName().isBlank()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+    }
+}
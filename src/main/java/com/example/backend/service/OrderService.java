@@ -1,25 +1,42 @@
 package com.example.backend.service;
 
 import com.example.backend.domain.Order;
+import com.example.backend.persistence.AfterCommit;
 import com.example.backend.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
 
     private final OrderRepository orderRepo;
+    private final HotStateCache hotState;
+    private final BackgroundPlanner backgroundPlanner;
+    private final EntityManager entityManager;
 
-    public OrderService(OrderRepository orderRepo) {
+    public OrderService(OrderRepository orderRepo, HotStateCache hotState, BackgroundPlanner backgroundPlanner,
+                        EntityManager entityManager) {
         this.orderRepo = orderRepo;
+        this.hotState = hotState;
+        this.backgroundPlanner = backgroundPlanner;
+        this.entityManager = entityManager;
     }
 
     @Transactional
     public Order create(Order order) {
         order.setId(null);
+        order.setVersion(null);
 
         if (order.getWeightKg() <= 0) {
             order.setWeightKg(1.0);
@@ -32,7 +49,12 @@ public class OrderService {
         order.setStatus(Order.Status.PENDING);
 
         validate(order);
-        return orderRepo.save(order);
+        Order saved = orderRepo.save(order);
+
+        // acorda o planejador em segundo plano só depois que o pedido está visível
+        Long id = saved.getId();
+        AfterCommit.run(() -> backgroundPlanner.orderArrived(id));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -50,6 +72,11 @@ public class OrderService {
     public Order updateBasicFields(Long id, Integer customerX, Integer customerY, Double weightKg, Order.Priority priority) {
         Order o = getById(id);
 
+        // posição e peso já foram copiados para as paradas da viagem: só edita antes do planejamento
+        if (o.getStatus() != Order.Status.PENDING) {
+            throw new IllegalStateException("Cannot edit order with status " + o.getStatus());
+        }
+
         if (customerX != null) o.setCustomerX(customerX);
         if (customerY != null) o.setCustomerY(customerY);
         if (weightKg != null)  o.setWeightKg(weightKg);
@@ -73,9 +100,36 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public List<Order> listByStatus(Order.Status status) {
+        if (status == Order.Status.PENDING && hotState.isWarm()) {
+            // busca por PK a partir do índice em memória, sem varrer a tabela
+            return orderRepo.findAllById(hotState.pendingOrderIds()).stream()
+                    .filter(o -> o.getStatus() == Order.Status.PENDING)
+                    .toList();
+        }
+
         return orderRepo.findByStatus(status);
     }
 
+    /*
+     * Exportação sem montar lista: percorre o cursor do banco entregando um pedido por vez e o desanexa
+     * logo depois, então o heap não cresce com o tamanho do resultado. Devolve quantos foram entregues.
+     */
+    @Transactional(readOnly = true)
+    public long exportByStatus(Order.Status status, Instant from, Instant to, Consumer<Order> sink) {
+        if (status == null) throw new IllegalArgumentException("status is required");
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must be <= to");
+
+        long count = 0;
+        try (Stream<Order> orders = orderRepo.streamByStatusAndUpdatedAtBetween(status, from, to)) {
+            for (Iterator<Order> it = orders.iterator(); it.hasNext(); count++) {
+                Order o = it.next();
+                sink.accept(o);
+                entityManager.detach(o);
+            }
+        }
+        return count;
+    }
+
     @Transactional
     public Order updateStatus(Long id, Order.Status newStatus) {
         Order o = getById(id);
@@ -85,6 +139,28 @@ public class OrderService {
         return orderRepo.save(o);
     }
 
+    /* Vários pedidos para o mesmo status num único UPDATE; o cache quente é atualizado após o commit */
+    @Transactional
+    public List<Order> updateStatusAll(Collection<Long> ids, Order.Status newStatus) {
+        if (ids == null || ids.isEmpty()) throw new IllegalArgumentException("ids must not be empty");
+        if (newStatus == null) throw new IllegalArgumentException("status is required");
+
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        Set<Long> missing = new LinkedHashSet<>(unique);
+        missing.removeAll(orderRepo.findExistingIds(unique));
+        if (!missing.isEmpty()) {
+            throw new EntityNotFoundException("Order not found: " + missing);
+        }
+
+        orderRepo.updateStatusIn(unique, newStatus, Instant.now());
+
+        List<Order> updated = orderRepo.findAllById(unique);
+        List<HotStateCache.PendingOrder> applied = updated.stream().map(HotStateCache.PendingOrder::of).toList();
+        AfterCommit.run(() -> applied.forEach(po -> hotState.applyOrder(po, newStatus)));
+
+        return updated;
+    }
+
     private void validate(Order o) {
         if (o.getWeightKg() <= 0) {
             throw new IllegalArgumentException("weightKg must be > 0");
@@ -0,0 +1,41 @@
+package com.example.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/* Buffer circular com os relatórios das últimas N execuções do planejador */
+final class PlanRunHistory {
+
+    private final int capacity;
+    private final Deque<PlanRunReport> runs;
+
+    PlanRunHistory(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+
+        this.capacity = capacity;
+        this.runs = new ArrayDeque<>(capacity);
+    }
+
+    synchronized void add(PlanRunReport report) {
+        if (runs.size() == capacity) runs.removeFirst();
+        runs.addLast(report);
+    }
+
+    synchronized Optional<PlanRunReport> find(long id) {
+        for (PlanRunReport r : runs) {
+            if (r.id() == id) return Optional.of(r);
+        }
+        return Optional.empty();
+    }
+
+    /* Mais recente primeiro */
+    synchronized List<PlanRunReport> recent() {
+        List<PlanRunReport> out = new ArrayList<>(runs);
+        Collections.reverse(out);
+        return out;
+    }
+}
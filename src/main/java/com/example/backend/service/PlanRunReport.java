@@ -0,0 +1,49 @@
+package com.example.backend.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Perfil de uma execução do planejador: tempo por fase, volume, aproveitamento da frota
+ * e quantos comandos SQL foram executados. Guardado para as últimas execuções.
+ *
+ * @param strategy                  estratégia usada ({@code greedy}, {@code savings}, ...)
+ * @param phaseMs                   tempo por fase (load, assign, cluster, pack, sequence, range-check, optimize, schedule, persist), em ms;
+ *                                  fases de hubs resolvidos em paralelo são somadas
+ * @param tripsPerDrone             viagens criadas por id de drone
+ * @param capacityUtilization       média de peso / capacidade nas viagens criadas (0..1)
+ * @param rangeUtilization          média de distância / alcance nas viagens criadas (0..1)
+ * @param distanceBeforeSequencingKm soma das rotas na ordem do knapsack, antes do vizinho mais próximo
+ * @param distanceAfterSequencingKm  soma das rotas sequenciadas que foram gravadas
+ * @param makespanMinutes           do início do plano até a volta da última viagem criada, com solo e recarga
+ * @param ordersPerHour             pedidos planejados / makespan
+ * @param statements                comandos SQL preparados durante a execução
+ * @param attempts                  tentativas até o commit (conflitos de versão refazem o plano)
+ */
+public record PlanRunReport(
+        long id,
+        String strategy,
+        Instant startedAt,
+        double totalMs,
+        Map<String, Double> phaseMs,
+        int ordersConsidered,
+        int ordersPlanned,
+        int tripsCreated,
+        int rejectedPacks,
+        Map<Long, Integer> tripsPerDrone,
+        double capacityUtilization,
+        double rangeUtilization,
+        double distanceBeforeSequencingKm,
+        double distanceAfterSequencingKm,
+        double makespanMinutes,
+        double ordersPerHour,
+        long statements,
+        int attempts) {
+
+    /* Número e comandos SQL só são conhecidos depois do commit da tentativa que gravou */
+    PlanRunReport committed(long runId, long count) {
+        return new PlanRunReport(runId, strategy, startedAt, totalMs, phaseMs, ordersConsidered, ordersPlanned, tripsCreated,
+                rejectedPacks, tripsPerDrone, capacityUtilization, rangeUtilization,
+                distanceBeforeSequencingKm, distanceAfterSequencingKm, makespanMinutes, ordersPerHour, count, attempts);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.service;
+
+import com.example.backend.planning.PhaseTimes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Métricas do planejador: duração total e por fase (com histograma), pedidos, viagens e pacotes descartados. */
+@Component
+public class PlanningMetrics {
+
+    private final Timer run;
+    private final Map<PhaseTimes.Phase, Timer> phases = new EnumMap<>(PhaseTimes.Phase.class);
+    private final Counter ordersPlanned;
+    private final Counter tripsCreated;
+    private final Counter packsRejected;
+
+    public PlanningMetrics(MeterRegistry registry) {
+        this.run = Timer.builder("planning.run")
+                .description("Duration of a full planning run")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        for (PhaseTimes.Phase p : PhaseTimes.Phase.values()) {
+            phases.put(p, Timer.builder("planning.phase")
+                    .description("Time spent in each planning phase per run")
+                    .tag("phase", p.tag())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        this.ordersPlanned = Counter.builder("planning.orders.planned").register(registry);
+        this.tripsCreated = Counter.builder("planning.trips.created").register(registry);
+        this.packsRejected = Counter.builder("planning.packs.rejected")
+                .description("Packs dropped because no prefix fit range and battery")
+                .register(registry);
+    }
+
+    void record(PhaseTimes times, int orders, int trips, int rejectedPacks) {
+        run.record(times.totalNanos(), TimeUnit.NANOSECONDS);
+        phases.forEach((p, timer) -> timer.record(times.nanos(p), TimeUnit.NANOSECONDS));
+
+        ordersPlanned.increment(orders);
+        tripsCreated.increment(trips);
+        packsRejected.increment(rejectedPacks);
+    }
+}
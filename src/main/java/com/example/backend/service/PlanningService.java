@@ -1,196 +1,713 @@
 package com.example.backend.service;
 
+import com.example.backend.config.StatementCounter;
 import com.example.backend.domain.Drone;
+import com.example.backend.domain.Hub;
 import com.example.backend.domain.Order;
 import com.example.backend.domain.Trip;
 import com.example.backend.domain.TripStop;
+import com.example.backend.planning.DistanceModel;
+import com.example.backend.planning.HubLocator;
+import com.example.backend.planning.LnsOptimizer;
+import com.example.backend.planning.PhaseTimes;
+import com.example.backend.planning.PlanningProblem;
+import com.example.backend.planning.PlanningStrategy;
+import com.example.backend.planning.SweepClustering;
+import com.example.backend.planning.TripScheduler;
 import com.example.backend.repository.DroneRepository;
+import com.example.backend.repository.HubRepository;
 import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.TripRepository;
 import com.example.backend.repository.TripStopRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
+import static com.example.backend.planning.PlanningProblem.HUB;
+import static com.example.backend.planning.PhaseTimes.Phase.*;
+
 @Service
 public class PlanningService {
 
     private final DroneRepository droneRepo;
+    private final HubRepository hubRepo;
     private final OrderRepository orderRepo;
     private final TripRepository tripRepo;
     private final TripStopRepository stopRepo;
-
-    private static final int HUB_ORIGEM_X = 0;
-    private static final int HUB_ORIGEM_Y = 0;
-
-    public PlanningService(DroneRepository droneRepo, OrderRepository orderRepo, TripRepository tripRepo, TripStopRepository stopRepo) {
+    private final HotStateCache hotState;
+    private final DistanceModel distanceModel;
+    private final TransactionTemplate tx;
+    private final PlanningMetrics metrics;
+
+    // planejamentos simultâneos viram uma única execução com resultado compartilhado
+    private final SingleFlight<String, PlanRun> flights = new SingleFlight<>();
+    private final PlanRunHistory history;
+    private final AtomicLong runIds = new AtomicLong();
+
+    // pedidos por cluster num hub; 0 desliga a decomposição
+    private final int clusterSize;
+
+    private final Map<String, PlanningStrategy> strategies;
+    private final PlanningStrategy defaultStrategy;
+
+    private final LnsOptimizer lns;
+    private final TripScheduler scheduler;
+
+    // frota candidata: IDLE ou disponível até agora + horizonte
+    private final DroneAvailabilityIndex availability;
+    private final Duration availabilityHorizon;
+    private final long maxBudgetMs;
+    private final int lnsWorkers;
+    private volatile Optimization optimization;
+
+    // origem dos drones sem hub (também usada pela inserção em viagens planejadas)
+    static final int HUB_ORIGEM_X = 0;
+    static final int HUB_ORIGEM_Y = 0;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final List<Trip.Status> OPEN_TRIPS = List.of(Trip.Status.PLANNED, Trip.Status.IN_PROGRESS);
+
+    public PlanningService(DroneRepository droneRepo, HubRepository hubRepo, OrderRepository orderRepo, TripRepository tripRepo, TripStopRepository stopRepo,
+                           HotStateCache hotState, DistanceModel distanceModel, PlatformTransactionManager txManager,
+                           PlanningMetrics metrics, @Value("${app.planning.runs-kept:20}") int runsKept,
+                           @Value("${app.planning.cluster-size:150}") int clusterSize,
+                           List<PlanningStrategy> strategies, @Value("${app.planning.strategy:greedy}") String defaultStrategy,
+                           LnsOptimizer lns, @Value("${app.planning.lns.max-budget-ms:60000}") long maxBudgetMs,
+                           @Value("${app.planning.lns.workers:0}") int lnsWorkers, TripScheduler scheduler,
+                           DroneAvailabilityIndex availability,
+                           @Value("${app.planning.availability-horizon:PT15M}") Duration availabilityHorizon) {
         this.droneRepo = droneRepo;
+        this.hubRepo = hubRepo;
         this.orderRepo = orderRepo;
         this.tripRepo = tripRepo;
         this.stopRepo = stopRepo;
+        this.hotState = hotState;
+        this.distanceModel = distanceModel;
+        this.tx = new TransactionTemplate(txManager);
+        this.metrics = metrics;
+        this.history = new PlanRunHistory(runsKept);
+        this.clusterSize = clusterSize;
+
+        Map<String, PlanningStrategy> byName = new TreeMap<>();
+        for (PlanningStrategy st : strategies) byName.put(st.name(), st);
+        this.strategies = Collections.unmodifiableMap(byName);
+        this.defaultStrategy = strategy(defaultStrategy.isBlank() ? "greedy" : defaultStrategy);
+
+        this.lns = lns;
+        this.maxBudgetMs = maxBudgetMs;
+        this.lnsWorkers = lnsWorkers > 0 ? lnsWorkers : Runtime.getRuntime().availableProcessors();
+        this.scheduler = scheduler;
+        this.availability = availability;
+        this.availabilityHorizon = availabilityHorizon;
     }
 
-    @Transactional
     public List<Trip> planAll() {
-        List<Order> pending = new ArrayList<>(orderRepo.findByStatus(Order.Status.PENDING));
-        
-        pending.sort(Comparator
-                .comparing(Order::getPriority, Comparator.comparingInt(this::priorityRank))
-                .thenComparing(o -> distance(HUB_ORIGEM_X, HUB_ORIGEM_Y, o.getCustomerX(), o.getCustomerY())));
+        return planAllWithReport(null, 0).trips();
+    }
 
-        if (pending.isEmpty()) return List.of();
+    /*
+     * Igual a planAll, com a estratégia escolhida (null = padrão) e o perfil da execução, que fica no histórico.
+     * Com budgetMs > 0, a solução da estratégia é refinada por LNS até o prazo (limitado a lns.max-budget-ms).
+     */
+    public PlanRun planAllWithReport(String strategyName, long budgetMs) {
+        if (budgetMs < 0) throw new IllegalArgumentException("budgetMs must be >= 0");
 
-        List<Trip> result = new ArrayList<>();
-        List<Drone> drones = droneRepo.findAll();
+        PlanningStrategy strategy = strategy(strategyName);
+        long budget = Math.min(budgetMs, maxBudgetMs);
+        return flights.run(strategy.name() + ":" + budget, () -> planWithRetry(strategy, budget, null));
+    }
 
-        for (Drone drone : drones) {
-            while (true) {
-                List<Order> pack = pickByKnapsack(pending, drone.getCapacityKg());
-                if (pack.isEmpty()) {
-                    break;
-                }
+    /*
+     * Horizonte deslizante (planejador em segundo plano): planeja todo o backlog, mas só grava as viagens que
+     * saem até agora + horizon; os pedidos das demais continuam PENDING e entram no próximo lote.
+     * Compartilha o single-flight com POST /plan, então nunca roda ao mesmo tempo que um plano manual.
+     */
+    public PlanRun planRollingHorizon(Duration horizon) {
+        if (horizon == null || horizon.isNegative()) throw new IllegalArgumentException("horizon must be >= 0");
 
-                List<Order> delivery = sequenceByNearestNeighbor(pack);
+        PlanningStrategy strategy = defaultStrategy;
+        return flights.run(strategy.name() + ":0:" + horizon, () -> planWithRetry(strategy, 0, horizon));
+    }
 
-                double dist = totalPathDistance(delivery);
-                
-                while (dist > drone.getRangeKm() && !delivery.isEmpty()) {
-                    dist = totalPathDistance(delivery);
-                }
-                
-                if (delivery.isEmpty()) {
-                    break;
-                }
+    /* Melhor-até-agora da otimização em andamento (ou da última que rodou) */
+    public OptimizationProgress optimizationProgress() {
+        Optimization o = optimization;
+        if (o == null) throw new EntityNotFoundException("No optimization has run yet");
+        return o.snapshot();
+    }
 
-                Trip trip = new Trip();
-                trip.setDrone(drone);
-                trip.setTotalWeight(delivery.stream().mapToDouble(Order::getWeightKg).sum());
-                trip.setTotalDistanceKm(dist);
-                trip.setStartAt(Instant.now());
-                trip.setStatus(Trip.Status.PLANNED);
-                trip = tripRepo.save(trip);
-
-                double speedKmh = Math.max(1.0, drone.getSpeedKmh());
-                Instant cursor = trip.getStartAt();
-                int cx = HUB_ORIGEM_X, cy = HUB_ORIGEM_Y;
-                int seq = 1;
-
-                for (Order o : delivery) {
-                    double legKm = distance(cx, cy, o.getCustomerX(), o.getCustomerY());
-                    Duration travel = Duration.ofSeconds((long) ((legKm / speedKmh) * 3600.0));
-
-                    TripStop stop = new TripStop();
-                    stop.setTrip(trip);
-                    stop.setOrder(o);
-                    stop.setSeq(seq++);
-                    stop.setX(o.getCustomerX());
-                    stop.setY(o.getCustomerY());
-                    stop.setEstimatedArrivalAt(cursor.plus(travel));
-                    stop.setEstimatedDepartureAt(cursor.plus(travel));
-                    stop.setDelivered(false);
-                    stopRepo.save(stop);
-
-                    cursor = stop.getEstimatedDepartureAt();
-                    cx = o.getCustomerX(); cy = o.getCustomerY();
-
-                    o.setStatus(Order.Status.PLANNED);
-                }
+    public Set<String> strategies() {
+        return strategies.keySet();
+    }
+
+    private PlanningStrategy strategy(String name) {
+        if (name == null || name.isBlank()) return defaultStrategy;
+
+        PlanningStrategy s = strategies.get(name.trim().toLowerCase());
+        if (s == null) {
+            throw new IllegalArgumentException("Unknown planning strategy: " + name + " (available: " + strategies.keySet() + ")");
+        }
+        return s;
+    }
+
+    public PlanRunReport getRun(long id) {
+        return history.find(id)
+                .orElseThrow(() -> new EntityNotFoundException("Plan run not found: " + id));
+    }
+
+    public List<PlanRunReport> recentRuns() {
+        return history.recent();
+    }
+
+    /*
+     * Order e Trip são versionados: se outra instância (ou uma edição de pedido) alterar
+     * um pedido lido aqui, a gravação falha e o plano inteiro é refeito a partir do banco.
+     * O prazo do LNS é um só para todas as tentativas: um retry usa só o que sobrou dele.
+     */
+    private PlanRun planWithRetry(PlanningStrategy strategy, long budgetMs, Duration commitHorizon) {
+        long deadlineNanos = System.nanoTime() + budgetMs * 1_000_000L;
+        for (int attempt = 1; ; attempt++) {
+            long statementsBefore = StatementCounter.current();
+            try {
+                Attempt run = planPending(strategy, budgetMs, deadlineNanos, commitHorizon, attempt);
+
+                // só a tentativa que chegou ao commit conta nas métricas; as refeitas por conflito não
+                metrics.record(run.times(), run.report().ordersPlanned(), run.report().tripsCreated(), run.report().rejectedPacks());
+
+                // número da execução só depois do commit (tentativas refeitas não consomem ids);
+                // conta também o que só foi enviado no flush do commit
+                PlanRunReport report = run.report().committed(runIds.incrementAndGet(), StatementCounter.current() - statementsBefore);
+                history.add(report);
+                return new PlanRun(report, run.trips());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    /*
+     * Leitura, estratégia e LNS rodam fora de transação, sobre entidades destacadas; só a agenda e a
+     * gravação ficam numa transação curta, então a conexão não fica presa durante o prazo do LNS.
+     */
+    private Attempt planPending(PlanningStrategy strategy, long budgetMs, long deadlineNanos, Duration commitHorizon, int attempt) {
+        Instant startedAt = Instant.now();
+        PhaseTimes times = new PhaseTimes();
+        RunStats stats = new RunStats();
+
+        List<Order> pending = new ArrayList<>(loadPending());
+        if (pending.isEmpty()) {
+            times.lap(LOAD);
+            return finish(strategy, startedAt, attempt, times, stats, 0, List.of());
+        }
+
+        List<Depot> depots = depots(loadFleet());
+        times.lap(LOAD);
+
+        List<List<Order>> assigned = assign(depots, pending);
+        times.lap(ASSIGN);
+
+        List<Unit> units = decompose(depots, assigned);
+        times.lap(CLUSTER);
+
+        // o prazo vale para todos os sub-problemas ao mesmo tempo; os núcleos são divididos entre eles
+        Optimization opt = budgetMs > 0
+                ? new Optimization(budgetMs, deadlineNanos, Math.max(1, lnsWorkers / Math.max(1, units.size())))
+                : null;
+        if (opt != null) optimization = opt;
+
+        // cada hub (ou cluster) é um sub-problema independente: resolve em paralelo (só CPU,
+        // sem tocar no EntityManager) e grava em série na transação abaixo
+        List<HubPlan> plans;
+        try {
+            plans = new ArrayList<>(units.parallelStream()
+                    .map(u -> solve(strategy, u.depot(), u.orders(), Set.of(), opt))
+                    .toList());
+            plans.addAll(retryLeftovers(strategy, depots, units, plans));
+        } finally {
+            if (opt != null) opt.running = false;
+        }
+        plans.forEach(p -> times.add(p.times()));
+        times.resync();
+
+        List<Trip> result = tx.execute(status -> persistPlans(depots, plans, commitHorizon, times, stats));
+        return finish(strategy, startedAt, attempt, times, stats, pending.size(), result);
+    }
 
-                double backKm = distance(cx, cy, HUB_ORIGEM_X, HUB_ORIGEM_Y);
-                Duration backTravel = Duration.ofSeconds((long) ((backKm / speedKmh) * 3600.0));
-                trip.setFinishAt(cursor.plus(backTravel));
-                tripRepo.save(trip);
+    private List<Trip> persistPlans(List<Depot> depots, List<HubPlan> plans, Duration commitHorizon, PhaseTimes times, RunStats stats) {
+        List<Trip> result = new ArrayList<>();
+        Map<Long, Order> managed = reload(plans);
+
+        // a linha do tempo é por hub: clusters e a segunda passada dividem os mesmos drones
+        Instant now = Instant.now();
+        Instant commitUntil = commitHorizon == null ? null : now.plus(commitHorizon);
+        Map<Long, TripScheduler.Availability> busy = busyUntil(depots, now);
+        Map<Long, List<HubPlan>> plansByHub = new LinkedHashMap<>();
+        for (HubPlan plan : plans) plansByHub.computeIfAbsent(plan.hubId(), k -> new ArrayList<>()).add(plan);
+
+        for (Depot depot : depots) {
+            List<TripScheduler.Job> jobs = new ArrayList<>();
+            List<HubPlan> owners = new ArrayList<>();
+            for (HubPlan plan : plansByHub.getOrDefault(depot.hubId(), List.of())) {
+                stats.rejectedPacks += plan.rejectedPacks();
+                for (PlanningStrategy.PlannedRoute r : plan.routes()) {
+                    jobs.add(new TripScheduler.Job(plan.problem(), r));
+                    owners.add(plan);
+                }
+            }
+            if (jobs.isEmpty()) continue;
 
-                orderRepo.saveAll(delivery);
-                pending.removeAll(delivery);
+            List<TripScheduler.Slot> slots = scheduler.schedule(jobs, depot.drones(), busy, now);
+            times.lap(SCHEDULE);
 
-                result.add(trip);
+            for (TripScheduler.Slot slot : slots) {
+                if (commitUntil != null && slot.startAt().isAfter(commitUntil)) continue;
 
-                if (pending.isEmpty()) break;
+                HubPlan plan = owners.get(slot.job());
+                PlanningStrategy.PlannedRoute r = jobs.get(slot.job()).route();
+                stats.addTrip(plan.problem(), slot.drone(), r.pack(), r.delivery(), r.len(), r.dist());
+                stats.addSlot(now, slot.finishAt());
+                result.add(persistTrip(plan.problem(), plan.orders(), managed, slot.drone(), slot.startAt(), r.delivery(), r.len(), r.dist()));
+                times.lap(PERSIST);
             }
         }
         return result;
     }
 
-    private int priorityRank(Order.Priority p) {
-        return switch (p) {
-            case HIGH -> 0;
-            case MEDIUM -> 1;
-            case LOW -> 2;
-        };
+    /* Relê na transação os pedidos roteados; um que mudou desde a leitura derruba a tentativa */
+    private Map<Long, Order> reload(List<HubPlan> plans) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (HubPlan plan : plans) {
+            for (PlanningStrategy.PlannedRoute r : plan.routes()) {
+                for (int k = 0; k < r.len(); k++) {
+                    Order o = plan.orders().get(r.delivery()[k]);
+                    versions.put(o.getId(), o.getVersion());
+                }
+            }
+        }
+
+        Map<Long, Order> out = new HashMap<>();
+        for (Order o : orderRepo.findAllById(versions.keySet())) out.put(o.getId(), o);
+        versions.forEach((id, version) -> {
+            Order o = out.get(id);
+            if (o == null || o.getStatus() != Order.Status.PENDING || !Objects.equals(o.getVersion(), version)) {
+                throw new OptimisticLockingFailureException("Order changed while planning: " + id);
+            }
+        });
+        return out;
+    }
+
+    /* Drones com viagens abertas (PLANNED ou IN_PROGRESS) só ficam livres quando a última delas volta */
+    private Map<Long, TripScheduler.Availability> busyUntil(List<Depot> depots, Instant now) {
+        Map<Long, Drone> fleet = new HashMap<>();
+        for (Depot depot : depots) for (Drone d : depot.drones()) fleet.put(d.getId(), d);
+
+        Map<Long, Trip> last = new HashMap<>();
+        for (Trip t : tripRepo.findByStatusIn(OPEN_TRIPS)) {
+            Drone d = fleet.get(t.getDrone().getId());
+            if (d == null) continue;
+            last.merge(d.getId(), t, (a, b) -> endOf(a, d).isAfter(endOf(b, d)) ? a : b);
+        }
+
+        Map<Long, TripScheduler.Availability> out = new HashMap<>();
+        last.forEach((id, t) -> {
+            Drone d = fleet.get(id);
+            out.put(id, scheduler.afterTrip(d, endOf(t, d), t.getTotalDistanceKm(), now));
+        });
+        return out;
+    }
+
+    private static Instant endOf(Trip t, Drone d) {
+        if (t.getFinishAt() != null) return t.getFinishAt();
+        return t.getStartAt().plusSeconds((long) (t.getTotalDistanceKm() / Math.max(1.0, d.getSpeedKmh()) * 3600.0));
     }
 
-    private static double distance(int x1, int y1, int x2, int y2) {
-        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    /* Agrupa a frota por hub; drones sem hub (ou com hub removido) saem da origem (0,0) */
+    private List<Depot> depots(List<Drone> drones) {
+        Map<Long, List<Drone>> byHub = new LinkedHashMap<>();
+        for (Drone d : drones) byHub.computeIfAbsent(d.getHubId(), k -> new ArrayList<>()).add(d);
+
+        Map<Long, Hub> hubs = new HashMap<>();
+        Set<Long> hubIds = new HashSet<>(byHub.keySet());
+        hubIds.remove(null);
+        if (!hubIds.isEmpty()) hubRepo.findAllById(hubIds).forEach(h -> hubs.put(h.getId(), h));
+
+        List<Depot> out = new ArrayList<>(byHub.size());
+        byHub.forEach((hubId, list) -> {
+            Hub h = hubId == null ? null : hubs.get(hubId);
+            out.add(h == null
+                    ? new Depot(null, HUB_ORIGEM_X, HUB_ORIGEM_Y, list)
+                    : new Depot(h.getId(), h.getX(), h.getY(), list));
+        });
+        return out;
     }
 
-    private static double totalPathDistance(List<Order> path) {
-        if (path.isEmpty()) return 0.0;
+    /* Cada pedido vai para o hub viável mais próximo; sem nenhum hub viável, continua PENDING */
+    private List<List<Order>> assign(List<Depot> depots, List<Order> pending) {
+        List<List<Order>> out = new ArrayList<>(depots.size());
+        for (int h = 0; h < depots.size(); h++) out.add(new ArrayList<>());
 
-        double distance = 0.0;
-        int cx = HUB_ORIGEM_X, cy = HUB_ORIGEM_Y;
+        if (depots.size() == 1) {
+            out.get(0).addAll(pending);
+            return out;
+        }
 
-        for (Order o : path) {
-            distance += distance(cx, cy, o.getCustomerX(), o.getCustomerY());
-            cx = o.getCustomerX();
-            cy = o.getCustomerY();
+        int[] xs = new int[depots.size()];
+        int[] ys = new int[depots.size()];
+        for (int h = 0; h < depots.size(); h++) {
+            xs[h] = depots.get(h).x();
+            ys[h] = depots.get(h).y();
         }
+        HubLocator locator = new HubLocator(xs, ys);
 
-        distance += distance(cx, cy, HUB_ORIGEM_X, HUB_ORIGEM_Y);
-        return distance;
+        for (Order o : pending) {
+            int h = locator.nearest(o.getCustomerX(), o.getCustomerY(), distanceModel, i -> canServe(depots.get(i), o));
+            if (h >= 0) out.get(h).add(o);
+        }
+        return out;
     }
 
-    private List<Order> pickByKnapsack(List<Order> pool, double capacityKg) {
-        if (pool.isEmpty()) return List.of();
-        List<Order> sorted = pool.stream()
-                .sorted(Comparator
-                        .comparing(Order::getPriority, Comparator.comparingInt(this::priorityRank))
-                        .thenComparing((Order o) -> -o.getWeightKg()))
-                .collect(Collectors.toList());
+    /* Algum drone do hub leva o pedido sozinho, ida e volta, dentro da carga e do alcance? */
+    private boolean canServe(Depot depot, Order o) {
+        double out = distanceModel.distance(depot.x(), depot.y(), o.getCustomerX(), o.getCustomerY());
+        double back = distanceModel.distance(o.getCustomerX(), o.getCustomerY(), depot.x(), depot.y());
 
-        List<Order> chosen = new ArrayList<>();
-        double sum = 0.0;
-        for (Order o : sorted) {
-            if (sum + o.getWeightKg() <= capacityKg + 1e-9) {
-                chosen.add(o);
-                sum += o.getWeightKg();
+        for (Drone d : depot.drones()) {
+            if (o.getWeightKg() <= d.getCapacityKg() + 1e-9 && out + back <= d.getRangeKm() + 1e-9) return true;
+        }
+        return false;
+    }
+
+    /*
+     * Backlog grande num hub vira clusters angulares de até ~cluster-size pedidos, cada um com uma
+     * parte da frota: o custo de cada sub-problema fica limitado e o total cresce ~linear com o backlog.
+     * O número de clusters não depende da frota: com mais clusters que drones, todos os clusters usam a
+     * frota inteira do hub e a linha do tempo (por hub) encadeia as viagens de cada drone.
+     */
+    private List<Unit> decompose(List<Depot> depots, List<List<Order>> assigned) {
+        List<Unit> units = new ArrayList<>();
+
+        for (int h = 0; h < depots.size(); h++) {
+            Depot depot = depots.get(h);
+            List<Order> orders = assigned.get(h);
+            if (orders.isEmpty()) continue;
+
+            int k = clusterSize <= 0 ? 1 : Math.ceilDiv(orders.size(), clusterSize);
+            if (k <= 1) {
+                units.add(new Unit(h, depot, orders));
+                continue;
+            }
+
+            int n = orders.size();
+            int[] xs = new int[n];
+            int[] ys = new int[n];
+            double[] weights = new double[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = orders.get(i).getCustomerX();
+                ys[i] = orders.get(i).getCustomerY();
+                weights[i] = orders.get(i).getWeightKg();
+            }
+
+            int[][] groups = SweepClustering.split(xs, ys, weights, depot.x(), depot.y(), k);
+            double[] groupWeight = new double[groups.length];
+            for (int c = 0; c < groups.length; c++) {
+                for (int i : groups[c]) groupWeight[c] += weights[i];
+            }
+
+            List<List<Drone>> fleets = groups.length <= depot.drones().size()
+                    ? splitFleet(depot.drones(), groupWeight)
+                    : Collections.nCopies(groups.length, depot.drones());
+            for (int c = 0; c < groups.length; c++) {
+                List<Order> part = new ArrayList<>(groups[c].length);
+                for (int i : groups[c]) part.add(orders.get(i));
+                units.add(new Unit(h, new Depot(depot.hubId(), depot.x(), depot.y(), fleets.get(c)), part));
             }
         }
-        return chosen;
-    }
-
-    private List<Order> sequenceByNearestNeighbor(List<Order> orders) {
-        if (orders.isEmpty()) return List.of();
-        
-        Map<Order.Priority, List<Order>> byPriority = orders.stream()
-            .collect(Collectors.groupingBy(Order::getPriority));
-        
-        List<Order> route = new ArrayList<>();
-        final int[] currentPos = {HUB_ORIGEM_X, HUB_ORIGEM_Y};
-        
-        for (Order.Priority priority : List.of(Order.Priority.HIGH, Order.Priority.MEDIUM, Order.Priority.LOW)) {
-            List<Order> priorityGroup = byPriority.getOrDefault(priority, List.of());
-            if (priorityGroup.isEmpty()) continue;
-            
-            List<Order> remaining = new ArrayList<>(priorityGroup);
-            
-            while (!remaining.isEmpty()) {
-                Order nearest = remaining.stream()
-                        .min(Comparator.comparingDouble(o -> distance(currentPos[0], currentPos[1], o.getCustomerX(), o.getCustomerY())))
-                        .orElseThrow(() -> new IllegalStateException("Unexpected empty list"));
-
-                route.add(nearest);
-                
-                currentPos[0] = nearest.getCustomerX();
-                currentPos[1] = nearest.getCustomerY();
-                remaining.remove(nearest);
+        return units;
+    }
+
+    /* Um drone por cluster (mais pesado primeiro); o resto vai para quem tem mais peso por kg de capacidade */
+    private static List<List<Drone>> splitFleet(List<Drone> drones, double[] groupWeight) {
+        int k = groupWeight.length;
+        List<Drone> byCapacity = new ArrayList<>(drones);
+        byCapacity.sort(Comparator.comparingDouble(Drone::getCapacityKg).reversed().thenComparing(Drone::getId));
+
+        Integer[] heaviest = new Integer[k];
+        for (int c = 0; c < k; c++) heaviest[c] = c;
+        Arrays.sort(heaviest, Comparator.comparingDouble((Integer c) -> -groupWeight[c]));
+
+        List<List<Drone>> fleets = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) fleets.add(new ArrayList<>());
+        double[] capacity = new double[k];
+
+        for (int d = 0; d < byCapacity.size(); d++) {
+            int target;
+            if (d < k) {
+                target = heaviest[d];
+            } else {
+                target = 0;
+                for (int c = 1; c < k; c++) {
+                    if (groupWeight[c] / capacity[c] > groupWeight[target] / capacity[target]) target = c;
+                }
+            }
+
+            Drone drone = byCapacity.get(d);
+            fleets.get(target).add(drone);
+            capacity[target] += drone.getCapacityKg();
+        }
+
+        fleets.forEach(f -> f.sort(Comparator.comparing(Drone::getId)));
+        return fleets;
+    }
+
+    /*
+     * Pedidos que o cluster não atendeu (ex.: nenhum drone dele leva o peso) ganham uma segunda
+     * passada com a frota inteira do hub; quem já voou nesta execução sai com bateria cheia.
+     */
+    private List<HubPlan> retryLeftovers(PlanningStrategy strategy, List<Depot> depots, List<Unit> units, List<HubPlan> plans) {
+        Map<Integer, List<Order>> leftovers = new LinkedHashMap<>();
+        Map<Integer, Set<Long>> flown = new HashMap<>();
+        Map<Integer, Integer> unitsPerHub = new HashMap<>();
+
+        for (int u = 0; u < units.size(); u++) {
+            int h = units.get(u).hub();
+            unitsPerHub.merge(h, 1, Integer::sum);
+            leftovers.computeIfAbsent(h, x -> new ArrayList<>()).addAll(plans.get(u).unplanned());
+            for (PlanningStrategy.PlannedRoute r : plans.get(u).routes()) flown.computeIfAbsent(h, x -> new HashSet<>()).add(r.drone().getId());
+        }
+
+        return leftovers.entrySet().parallelStream()
+                .filter(e -> unitsPerHub.get(e.getKey()) > 1 && !e.getValue().isEmpty())
+                .map(e -> solve(strategy, depots.get(e.getKey()), e.getValue(), flown.getOrDefault(e.getKey(), Set.of()), null))
+                .toList();
+    }
+
+    /* Resolve o sub-problema de um hub (ou cluster) com a estratégia escolhida */
+    private HubPlan solve(PlanningStrategy strategy, Depot depot, List<Order> orders, Set<Long> flown, Optimization opt) {
+        PhaseTimes times = new PhaseTimes();
+
+        // índices dos pedidos no problema = posição em 'orders'; distâncias vêm da matriz do plano
+        PlanningProblem problem = PlanningProblem.of(orders, depot.x(), depot.y(), distanceModel);
+        times.lap(LOAD);
+
+        // a primeira viagem sai com a bateria atual; quem já voou nesta execução sai recarregado
+        ToDoubleFunction<Drone> startBattery = d -> flown.contains(d.getId()) ? 100.0 : d.getBatteryPct();
+        PlanningStrategy.Solution solution = strategy.plan(problem, depot.drones(), startBattery, times);
+
+        if (opt != null) {
+            LnsOptimizer.Progress progress = new LnsOptimizer.Progress();
+            opt.parts.add(progress);
+            solution = lns.improve(problem, depot.drones(), startBattery, solution, opt.deadlineNanos, opt.workersPerUnit, progress);
+            times.lap(OPTIMIZE);
+        }
+
+        boolean[] planned = new boolean[problem.size()];
+        for (PlanningStrategy.PlannedRoute r : solution.routes()) {
+            for (int k = 0; k < r.len(); k++) planned[r.delivery()[k]] = true;
+        }
+
+        List<Order> unplanned = new ArrayList<>();
+        for (int i = 0; i < planned.length; i++) if (!planned[i]) unplanned.add(orders.get(i));
+
+        return new HubPlan(depot.hubId(), problem, orders, solution.routes(), solution.rejectedPacks(), times, unplanned);
+    }
+
+    /* Hub de origem de um grupo de drones; hubId nulo = origem (0,0) */
+    private record Depot(Long hubId, int x, int y, List<Drone> drones) {
+    }
+
+    /* Pedidos e frota de um sub-problema; hub = índice do Depot de origem */
+    private record Unit(int hub, Depot depot, List<Order> orders) {
+    }
+
+    private record HubPlan(Long hubId, PlanningProblem problem, List<Order> orders, List<PlanningStrategy.PlannedRoute> routes,
+                           int rejectedPacks, PhaseTimes times, List<Order> unplanned) {
+    }
+
+    /* Otimização de uma execução; as partes (uma por sub-problema) são lidas enquanto rodam */
+    private static final class Optimization {
+        final Instant startedAt = Instant.now();
+        final long budgetMs;
+        final long deadlineNanos;
+        final int workersPerUnit;
+        final List<LnsOptimizer.Progress> parts = new CopyOnWriteArrayList<>();
+        volatile boolean running = true;
+
+        Optimization(long budgetMs, long deadlineNanos, int workersPerUnit) {
+            this.budgetMs = budgetMs;
+            this.deadlineNanos = deadlineNanos;
+            this.workersPerUnit = workersPerUnit;
+        }
+
+        OptimizationProgress snapshot() {
+            long iterations = 0;
+            int improvements = 0, initialUnplanned = 0, bestUnplanned = 0;
+            double initialKm = 0.0, bestKm = 0.0;
+
+            for (LnsOptimizer.Progress p : parts) {
+                iterations += p.iterations();
+                improvements += p.improvements();
+                initialKm += p.initialDistanceKm();
+                bestKm += p.bestDistanceKm();
+                initialUnplanned += p.initialUnplanned();
+                bestUnplanned += p.bestUnplanned();
             }
+
+            return new OptimizationProgress(running, startedAt, budgetMs, parts.size(), iterations, improvements,
+                    initialKm, bestKm, initialUnplanned, bestUnplanned);
         }
-        
-        return route;
     }
-}
\ No newline at end of file
+
+    public record OptimizationProgress(boolean running, Instant startedAt, long budgetMs, int subProblems,
+                                       long iterations, int improvements,
+                                       double initialDistanceKm, double bestDistanceKm,
+                                       int initialUnplanned, int bestUnplanned) {
+    }
+
+    private Attempt finish(PlanningStrategy strategy, Instant startedAt, int attempt, PhaseTimes times, RunStats stats,
+                           int considered, List<Trip> trips) {
+        Map<String, Double> phaseMs = new LinkedHashMap<>();
+        for (PhaseTimes.Phase p : PhaseTimes.Phase.values()) phaseMs.put(p.tag(), times.nanos(p) / 1e6);
+
+        int n = trips.size();
+        PlanRunReport report = new PlanRunReport(
+                0, strategy.name(), startedAt, times.totalNanos() / 1e6, phaseMs,
+                considered, stats.plannedOrders, n, stats.rejectedPacks, stats.tripsPerDrone,
+                n == 0 ? 0.0 : stats.capacityUtilSum / n,
+                n == 0 ? 0.0 : stats.rangeUtilSum / n,
+                stats.distanceBeforeKm, stats.distanceAfterKm,
+                stats.makespanMinutes(),
+                stats.makespanMinutes() == 0 ? 0.0 : stats.plannedOrders * 60.0 / stats.makespanMinutes(),
+                0, attempt);
+
+        return new Attempt(report, trips, times);
+    }
+
+    public record PlanRun(PlanRunReport report, List<Trip> trips) {
+    }
+
+    /* Resultado de uma tentativa já gravada; os tempos por fase vão para as métricas */
+    private record Attempt(PlanRunReport report, List<Trip> trips, PhaseTimes times) {
+    }
+
+    /* Acumuladores do relatório de uma execução */
+    private static final class RunStats {
+        int plannedOrders;
+        int rejectedPacks;
+        final Map<Long, Integer> tripsPerDrone = new LinkedHashMap<>();
+        double capacityUtilSum;
+        double rangeUtilSum;
+        double distanceBeforeKm;
+        double distanceAfterKm;
+        long makespanMs;
+
+        /* makespan: do início do plano até a volta da última viagem criada */
+        void addSlot(Instant now, Instant finishAt) {
+            makespanMs = Math.max(makespanMs, Duration.between(now, finishAt).toMillis());
+        }
+
+        double makespanMinutes() {
+            return makespanMs / 60_000.0;
+        }
+
+        void addTrip(PlanningProblem p, Drone drone, int[] pack, int[] delivery, int len, double dist) {
+            plannedOrders += len;
+            tripsPerDrone.merge(drone.getId(), 1, Integer::sum);
+            capacityUtilSum += p.routeWeight(delivery, len) / drone.getCapacityKg();
+            rangeUtilSum += dist / drone.getRangeKm();
+            distanceAfterKm += dist;
+
+            // mesmas paradas gravadas, na ordem em que o knapsack as escolheu
+            boolean[] kept = new boolean[p.size()];
+            for (int k = 0; k < len; k++) kept[delivery[k]] = true;
+            int[] unsequenced = new int[len];
+            int m = 0;
+            for (int i : pack) if (kept[i]) unsequenced[m++] = i;
+            distanceBeforeKm += p.routeDistance(unsequenced, m);
+        }
+    }
+
+    private Trip persistTrip(PlanningProblem problem, List<Order> pending, Map<Long, Order> managed, Drone drone, Instant startAt,
+                             int[] delivery, int len, double dist) {
+        Trip trip = new Trip();
+        trip.setDrone(drone);
+        trip.setTotalWeight(problem.routeWeight(delivery, len));
+        trip.setTotalDistanceKm(dist);
+        trip.setStartAt(startAt);
+        trip.setStatus(Trip.Status.PLANNED);
+        trip.setStopsTotal(len);
+        trip.setStopsRemaining(len);
+        trip = tripRepo.save(trip);
+
+        double speedKmh = Math.max(1.0, drone.getSpeedKmh());
+        Instant cursor = trip.getStartAt();
+        int prev = HUB;
+        int seq = 1;
+        List<Order> delivered = new ArrayList<>(len);
+
+        for (int k = 0; k < len; k++) {
+            int i = delivery[k];
+            Order o = managed.get(pending.get(i).getId());
+
+            double legKm = problem.distance(prev, i);
+            Duration travel = Duration.ofSeconds((long) ((legKm / speedKmh) * 3600.0));
+
+            TripStop stop = new TripStop();
+            stop.setTrip(trip);
+            stop.setOrder(o);
+            stop.setSeq(seq++);
+            stop.setX(o.getCustomerX());
+            stop.setY(o.getCustomerY());
+            stop.setEstimatedArrivalAt(cursor.plus(travel));
+            stop.setEstimatedDepartureAt(cursor.plus(travel));
+            stop.setDelivered(false);
+            stopRepo.save(stop);
+
+            cursor = stop.getEstimatedDepartureAt();
+            prev = i;
+
+            o.setStatus(Order.Status.PLANNED);
+            delivered.add(o);
+        }
+
+        double backKm = problem.distance(prev, HUB);
+        Duration backTravel = Duration.ofSeconds((long) ((backKm / speedKmh) * 3600.0));
+        trip.setFinishAt(cursor.plus(backTravel));
+        tripRepo.save(trip);
+
+        orderRepo.saveAll(delivered);
+        return trip;
+    }
+
+    private List<Order> loadPending() {
+        if (!hotState.isWarm()) {
+            return orderRepo.findByStatus(Order.Status.PENDING);
+        }
+
+        return orderRepo.findAllById(hotState.pendingOrderIds()).stream()
+                .filter(o -> o.getStatus() == Order.Status.PENDING)
+                .collect(Collectors.toList());
+    }
+
+    /* Só drones IDLE ou que ficam livres dentro do horizonte; sem estado quente, o índice é carregado no primeiro uso */
+    private List<Drone> loadFleet() {
+        if (!availability.isReady()) {
+            availability.seed(droneRepo.findAll(), tripRepo.findByStatusIn(OPEN_TRIPS).stream()
+                    .map(HotStateCache.ActiveTrip::of)
+                    .toList());
+        }
+
+        List<Drone> drones = new ArrayList<>(droneRepo.findAllById(availability.availableIds(Instant.now(), availabilityHorizon)));
+        drones.sort(Comparator.comparing(Drone::getId));
+        return drones;
+    }
+}
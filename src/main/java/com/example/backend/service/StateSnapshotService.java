@@ -0,0 +1,164 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.repository.DroneRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TripRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Grava periodicamente o {@link HotStateCache} em disco e o restaura no startup,
+ * reaplicando apenas as linhas alteradas depois do snapshot.
+ * <p>
+ * {@code updatedAt} é carimbado no flush, mas o cache só vê a escrita no commit: uma transação que fez flush
+ * antes de {@code takenAt} e commit depois da cópia não está no snapshot e tem {@code updatedAt < takenAt}.
+ * Por isso a reaplicação começa {@code app.snapshot.replay-window} antes do snapshot (maior que a transação
+ * de escrita mais longa); reaplicar uma linha que o snapshot já tinha é inofensivo.
+ */
+@Service
+public class StateSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(StateSnapshotService.class);
+
+    private final HotStateCache cache;
+    private final DroneRepository droneRepo;
+    private final OrderRepository orderRepo;
+    private final TripRepository tripRepo;
+    private final ObjectMapper mapper;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration replayWindow;
+
+    public StateSnapshotService(HotStateCache cache, DroneRepository droneRepo, OrderRepository orderRepo, TripRepository tripRepo, ObjectMapper mapper,
+                                @Value("${app.snapshot.enabled:false}") boolean enabled,
+                                @Value("${app.snapshot.path:./data/hot-state.json}") String path,
+                                @Value("${app.snapshot.replay-window:PT5M}") Duration replayWindow) {
+        if (replayWindow.isNegative()) throw new IllegalArgumentException("app.snapshot.replay-window must be >= 0");
+
+        this.cache = cache;
+        this.droneRepo = droneRepo;
+        this.orderRepo = orderRepo;
+        this.tripRepo = tripRepo;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.replayWindow = replayWindow;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStart() {
+        if (!enabled) return;
+
+        long t0 = System.nanoTime();
+        restore(path);
+        log.info("Hot state warm in {} ms: {} drones, {} pending orders, {} active trips",
+                (System.nanoTime() - t0) / 1_000_000, cache.droneIds().size(), cache.pendingOrderIds().size(), cache.activeTrips().size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.snapshot.interval-ms:60000}", initialDelayString = "${app.snapshot.interval-ms:60000}")
+    public void scheduledSnapshot() {
+        if (enabled && cache.isWarm()) writeSnapshot(path);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        if (enabled && cache.isWarm()) writeSnapshot(path);
+    }
+
+    public void writeSnapshot(Path target) {
+        // takenAt é fixado antes de copiar o estado: o que mudar durante a cópia (ou fez flush pouco antes e
+        // ainda não tinha commit) cai na janela de reaplicação do próximo startup
+        HotStateCache.StateSnapshot snapshot = cache.toSnapshot(Instant.now());
+
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            mapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write hot state snapshot to {}: {}", target, e.getMessage());
+        }
+    }
+
+    public void restore(Path source) {
+        cache.clear();
+
+        HotStateCache.StateSnapshot snapshot = read(source);
+        if (snapshot == null || snapshot.takenAt == null) {
+            fullLoad();
+        } else {
+            cache.load(snapshot);
+            replaySince(snapshot.takenAt.minus(replayWindow));
+        }
+
+        cache.markWarm();
+    }
+
+    private HotStateCache.StateSnapshot read(Path source) {
+        if (!Files.isRegularFile(source)) return null;
+
+        try {
+            return mapper.readValue(source.toFile(), HotStateCache.StateSnapshot.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable hot state snapshot {}: {}", source, e.getMessage());
+            return null;
+        }
+    }
+
+    private void fullLoad() {
+        droneRepo.findAll().forEach(cache::putDrone);
+        orderRepo.findByStatus(Order.Status.PENDING)
+                .forEach(o -> cache.applyOrder(HotStateCache.PendingOrder.of(o), o.getStatus()));
+        tripRepo.findByStatusIn(List.of(Trip.Status.PLANNED, Trip.Status.IN_PROGRESS))
+                .forEach(t -> cache.applyTrip(HotStateCache.ActiveTrip.of(t)));
+    }
+
+    private void replaySince(Instant since) {
+        droneRepo.findByUpdatedAtGreaterThanEqual(since).forEach(cache::putDrone);
+        orderRepo.findByUpdatedAtGreaterThanEqual(since)
+                .forEach(o -> cache.applyOrder(HotStateCache.PendingOrder.of(o), o.getStatus()));
+        tripRepo.findByUpdatedAtGreaterThanEqual(since)
+                .forEach(t -> cache.applyTrip(HotStateCache.ActiveTrip.of(t)));
+
+        // exclusões não deixam rastro em updatedAt: confere por PK apenas o que está no snapshot
+        Set<Long> droneIds = cache.droneIds();
+        if (!droneIds.isEmpty()) {
+            Set<Long> alive = new HashSet<>(droneRepo.findExistingIds(droneIds));
+            droneIds.stream().filter(id -> !alive.contains(id)).forEach(cache::removeDrone);
+        }
+
+        Set<Long> orderIds = cache.pendingOrderIds();
+        if (!orderIds.isEmpty()) {
+            Set<Long> alive = new HashSet<>(orderRepo.findExistingIds(orderIds));
+            orderIds.stream().filter(id -> !alive.contains(id)).forEach(cache::removeOrder);
+        }
+
+        Set<Long> tripIds = new HashSet<>();
+        cache.activeTrips().forEach(t -> tripIds.add(t.id()));
+        if (!tripIds.isEmpty()) {
+            Set<Long> alive = new HashSet<>(tripRepo.findExistingIds(tripIds));
+            tripIds.stream().filter(id -> !alive.contains(id)).forEach(cache::removeTrip);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Hub;
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.domain.TripStop;
+import com.example.backend.persistence.AfterCommit;
+import com.example.backend.planning.DistanceModel;
+import com.example.backend.planning.EnergyModel;
+import com.example.backend.repository.HubRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TripRepository;
+import com.example.backend.repository.TripStopRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Inserção de menor custo de um pedido numa viagem já PLANNED, sem replanejar o backlog.
+ * <p>
+ * A rota de cada viagem planejada fica em memória (hub, paradas, pernas em km, carga, limites do drone),
+ * carregada uma vez e revalidada pela versão da viagem e pela sequência de paradas. Uma consulta lê só as
+ * viagens cujo drone ainda leva o peso, ordena pelo limite inferior do desvio (distância em linha reta até
+ * a caixa da rota) e para quando esse limite já não bate a melhor posição encontrada.
+ * <p>
+ * A viagem segue a linha do tempo do drone, como no {@link com.example.backend.planning.TripScheduler}: a
+ * próxima viagem dele sai com a bateria atual, as seguintes com 100%, e o fim atrasado pelo desvio não pode
+ * invadir a viagem seguinte (mais o tempo de solo). A inserção renumera as paradas e recalcula ETAs, peso,
+ * distância e fim da viagem.
+ */
+@Service
+public class TripInsertionService {
+
+    private static final List<Trip.Status> OPEN_TRIPS = List.of(Trip.Status.PLANNED, Trip.Status.IN_PROGRESS);
+
+    private final TripRepository tripRepo;
+    private final TripStopRepository stopRepo;
+    private final OrderRepository orderRepo;
+    private final HubRepository hubRepo;
+    private final EntityManager entityManager;
+    private final DistanceModel distanceModel;
+    private final EnergyModel energy;
+    private final EtaService eta;
+    private final Duration turnaround;
+
+    private final ConcurrentMap<Long, Route> routes = new ConcurrentHashMap<>();
+
+    public TripInsertionService(TripRepository tripRepo, TripStopRepository stopRepo, OrderRepository orderRepo, HubRepository hubRepo,
+                                EntityManager entityManager, DistanceModel distanceModel, EnergyModel energy, EtaService eta,
+                                @Value("${app.planning.turnaround:PT2M}") Duration turnaround) {
+        this.tripRepo = tripRepo;
+        this.stopRepo = stopRepo;
+        this.orderRepo = orderRepo;
+        this.hubRepo = hubRepo;
+        this.entityManager = entityManager;
+        this.distanceModel = distanceModel;
+        this.energy = energy;
+        this.eta = eta;
+        this.turnaround = turnaround;
+    }
+
+    /** Onde o pedido entrou: {@code seq} é a posição dele na viagem já renumerada. */
+    public record Insertion(Long tripId, Long droneId, int seq, double addedKm, double totalDistanceKm) {
+    }
+
+    /* Rota de uma viagem PLANNED; imutável, trocada inteira quando a viagem muda */
+    private static final class Route {
+        final Long tripId;
+        final Long version;
+        final Long droneId;
+        final int hubX, hubY;
+        final long[] stopIds;
+        final int[] xs, ys;
+        final double[] weights;
+        // legs[k]: ponto k-1 -> ponto k, com o hub nas pontas (n + 1 pernas)
+        final double[] legs;
+        final double distKm, weightKg, maxLeg;
+        final double capacityKg, rangeKm, speedKmh;
+        final EnergyModel.Table table;
+        // caixa que contém hub e paradas
+        final int minX, minY, maxX, maxY;
+
+        Route(Trip trip, int hubX, int hubY, List<TripStop> stops, DistanceModel dm, EnergyModel energy) {
+            Drone drone = trip.getDrone();
+            int n = stops.size();
+            this.tripId = trip.getId();
+            this.version = trip.getVersion();
+            this.droneId = drone.getId();
+            this.hubX = hubX;
+            this.hubY = hubY;
+            this.stopIds = new long[n];
+            this.xs = new int[n];
+            this.ys = new int[n];
+            this.weights = new double[n];
+            this.legs = new double[n + 1];
+            this.capacityKg = drone.getCapacityKg();
+            this.rangeKm = drone.getRangeKm();
+            this.speedKmh = Math.max(1.0, drone.getSpeedKmh());
+            this.table = energy.tableFor(drone);
+
+            int x0 = hubX, y0 = hubY, x1 = hubX, y1 = hubY;
+            double weight = 0.0;
+            for (int k = 0; k < n; k++) {
+                TripStop st = stops.get(k);
+                stopIds[k] = st.getId();
+                xs[k] = st.getX();
+                ys[k] = st.getY();
+                weights[k] = st.getOrder().getWeightKg();
+                weight += weights[k];
+
+                x0 = Math.min(x0, xs[k]);
+                y0 = Math.min(y0, ys[k]);
+                x1 = Math.max(x1, xs[k]);
+                y1 = Math.max(y1, ys[k]);
+            }
+
+            double dist = 0.0, longest = 0.0;
+            for (int k = 0; k <= n; k++) {
+                legs[k] = dm.distance(x(k - 1), y(k - 1), x(k), y(k));
+                dist += legs[k];
+                longest = Math.max(longest, legs[k]);
+            }
+
+            this.distKm = dist;
+            this.weightKg = weight;
+            this.maxLeg = longest;
+            this.minX = x0;
+            this.minY = y0;
+            this.maxX = x1;
+            this.maxY = y1;
+        }
+
+        int size() {
+            return xs.length;
+        }
+
+        // ponto k da rota: -1 e n são o hub
+        int x(int k) {
+            return k < 0 || k >= xs.length ? hubX : xs[k];
+        }
+
+        int y(int k) {
+            return k < 0 || k >= ys.length ? hubY : ys[k];
+        }
+
+        /*
+         * Nenhum modelo de distância encurta a linha reta, e cada perna trocada mede no máximo maxLeg:
+         * inserir um ponto a r da caixa custa pelo menos 2r - maxLeg.
+         */
+        long flightMs(double km) {
+            return (long) (km / speedKmh * 3_600_000.0);
+        }
+
+        double lowerBound(int px, int py) {
+            double dx = Math.max(0, Math.max(minX - px, px - maxX));
+            double dy = Math.max(0, Math.max(minY - py, py - maxY));
+            return Math.max(0.0, 2.0 * Math.hypot(dx, dy) - maxLeg);
+        }
+
+        boolean matches(List<TripStop> stops) {
+            if (stops.size() != stopIds.length) return false;
+            for (int k = 0; k < stopIds.length; k++) {
+                if (stops.get(k).getId() != stopIds[k]) return false;
+            }
+            return true;
+        }
+
+        /* Energia da rota com o ponto (px, py, w) antes da parada k; a carga cai a cada entrega */
+        double pctWith(int k, double w, double legIn, double legOut) {
+            double load = weightKg + w;
+            double pct = 0.0;
+
+            for (int i = 0; i < k; i++) {
+                pct += table.pctPerKm(load) * legs[i];
+                load -= weights[i];
+            }
+            pct += table.pctPerKm(load) * legIn;
+            load -= w;
+            pct += table.pctPerKm(load) * legOut;
+            for (int i = k; i < size(); i++) {
+                load -= weights[i];
+                pct += table.pctPerKm(load) * legs[i + 1];
+            }
+            return pct;
+        }
+    }
+
+    private record Candidate(Route route, int position, double addedKm) {
+    }
+
+    /* Lugar da viagem na linha do tempo do drone: bateria utilizável na saída e quanto o fim pode atrasar */
+    private record Window(double usablePct, long slackMs) {
+    }
+
+    /**
+     * Insere um pedido PENDING na posição mais barata (menor desvio em km) entre todas as viagens PLANNED
+     * que comportam carga, alcance, bateria e o atraso do fim com ele.
+     */
+    @Transactional
+    public Insertion insertOrder(Long orderId) {
+        Order order = orderRepo.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found: " + orderId));
+        if (order.getStatus() != Order.Status.PENDING) {
+            throw new IllegalStateException("Only PENDING orders can be inserted into a trip");
+        }
+
+        // só viagens cujo drone ainda leva o peso, com a mesma tolerância do planejador
+        Map<Long, Trip> planned = new HashMap<>();
+        for (Trip t : tripRepo.findPlannedWithRoomFor(order.getWeightKg() - 1e-9)) planned.put(t.getId(), t);
+        Map<Long, Window> windows = windows(planned.values());
+
+        // a rota em cache pode ter sido alterada por outra instância: revalida pelas paradas e tenta de novo
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            Candidate best = cheapest(routes(planned, order.getWeightKg()), windows, order);
+            if (best == null) {
+                throw new IllegalStateException("No PLANNED trip can take order " + orderId);
+            }
+
+            Route route = best.route();
+            List<TripStop> stops = stopRepo.findByTripIdOrderBySeqAsc(route.tripId);
+            if (route.matches(stops)) {
+                return apply(planned.get(route.tripId), route, stops, order, best, windows.get(route.tripId));
+            }
+            routes.remove(route.tripId);
+        }
+
+        throw new IllegalStateException("Trip changed during insertion, retry");
+    }
+
+    /** Descarta a rota em memória (paradas alteradas fora daqui). */
+    public void invalidate(Long tripId) {
+        routes.remove(tripId);
+    }
+
+    /* ======================= BUSCA ======================= */
+
+    private Candidate cheapest(Collection<Route> all, Map<Long, Window> windows, Order order) {
+        int px = order.getCustomerX();
+        int py = order.getCustomerY();
+        double w = order.getWeightKg();
+
+        List<Route> fits = new ArrayList<>(all.size());
+        for (Route r : all) {
+            if (r.weightKg + w <= r.capacityKg + 1e-9) fits.add(r);
+        }
+
+        Map<Route, Double> lb = new IdentityHashMap<>(fits.size());
+        for (Route r : fits) lb.put(r, r.lowerBound(px, py));
+        fits.sort(Comparator.comparingDouble(lb::get));
+
+        Candidate best = null;
+
+        for (Route r : fits) {
+            if (best != null && lb.get(r) >= best.addedKm()) break;
+            Window win = windows.get(r.tripId);
+
+            for (int k = 0; k <= r.size(); k++) {
+                double in = distanceModel.distance(r.x(k - 1), r.y(k - 1), px, py);
+                double out = distanceModel.distance(px, py, r.x(k), r.y(k));
+                double added = in + out - r.legs[k];
+
+                if (!(added < (best == null ? Double.POSITIVE_INFINITY : best.addedKm()))) continue;
+                if (r.distKm + added > r.rangeKm + 1e-9) continue;
+                if (r.flightMs(added) > win.slackMs()) continue;
+                if (r.pctWith(k, w, in, out) > win.usablePct() + 1e-9) continue;
+
+                best = new Candidate(r, k, added);
+            }
+        }
+
+        return best;
+    }
+
+    /*
+     * Janela de cada candidata: é a próxima viagem do drone se ele não tem nenhuma IN_PROGRESS nem PLANNED antes
+     * dela; o atraso permitido vai até a saída da viagem seguinte menos o tempo de solo.
+     */
+    private Map<Long, Window> windows(Collection<Trip> candidates) {
+        Set<Long> droneIds = new HashSet<>();
+        for (Trip t : candidates) droneIds.add(t.getDrone().getId());
+
+        Map<Long, List<Trip>> byDrone = new HashMap<>();
+        if (!droneIds.isEmpty()) {
+            for (Trip t : tripRepo.findByDroneIdInAndStatusIn(droneIds, OPEN_TRIPS)) {
+                byDrone.computeIfAbsent(t.getDrone().getId(), k -> new ArrayList<>()).add(t);
+            }
+        }
+
+        Map<Long, Window> out = new HashMap<>();
+        for (Trip t : candidates) {
+            Drone drone = t.getDrone();
+            boolean next = true;
+            long slackMs = Long.MAX_VALUE;
+
+            for (Trip other : byDrone.getOrDefault(drone.getId(), List.of())) {
+                if (other.getId().equals(t.getId())) continue;
+
+                boolean before = other.getStatus() == Trip.Status.IN_PROGRESS
+                        || other.getStartAt().isBefore(t.getStartAt())
+                        || (other.getStartAt().equals(t.getStartAt()) && other.getId() < t.getId());
+                if (before) {
+                    next = false;
+                } else if (t.getFinishAt() != null) {
+                    Instant latest = other.getStartAt().minus(turnaround);
+                    slackMs = Math.min(slackMs, Math.max(0L, Duration.between(t.getFinishAt(), latest).toMillis()));
+                }
+            }
+
+            out.put(t.getId(), new Window(energy.usablePct(next ? drone.getBatteryPct() : 100.0), slackMs));
+        }
+        return out;
+    }
+
+    /* Rotas das candidatas: reaproveita o cache e carrega as que faltam em uma consulta de paradas */
+    private Collection<Route> routes(Map<Long, Trip> planned, double weightKg) {
+        // uma rota em cache que comportaria o peso mas não veio na consulta não está mais PLANNED (ou mudou)
+        routes.values().removeIf(r -> !planned.containsKey(r.tripId) && r.weightKg + weightKg <= r.capacityKg + 1e-9);
+
+        List<Long> missing = new ArrayList<>();
+        List<Route> out = new ArrayList<>(planned.size());
+        for (Trip t : planned.values()) {
+            Route r = routes.get(t.getId());
+            if (r != null && Objects.equals(r.version, t.getVersion()) && r.size() == t.getStopsTotal()) {
+                out.add(r);
+            } else {
+                missing.add(t.getId());
+            }
+        }
+        if (missing.isEmpty()) return out;
+
+        Map<Long, List<TripStop>> stopsByTrip = new HashMap<>();
+        for (TripStop st : stopRepo.findByTripIdInOrderByTripIdAscSeqAsc(missing)) {
+            stopsByTrip.computeIfAbsent(st.getTrip().getId(), k -> new ArrayList<>()).add(st);
+        }
+
+        Set<Long> hubIds = new HashSet<>();
+        for (Long id : missing) {
+            Long hubId = planned.get(id).getDrone().getHubId();
+            if (hubId != null) hubIds.add(hubId);
+        }
+        Map<Long, Hub> hubs = new HashMap<>();
+        if (!hubIds.isEmpty()) hubRepo.findAllById(hubIds).forEach(h -> hubs.put(h.getId(), h));
+
+        for (Long id : missing) {
+            Trip t = planned.get(id);
+            List<TripStop> stops = stopsByTrip.getOrDefault(id, List.of());
+            if (stops.isEmpty()) continue; // viagem vazia: sem rota para estender
+
+            // drone sem hub (ou com hub removido) sai da origem, como no planejamento
+            Hub h = t.getDrone().getHubId() == null ? null : hubs.get(t.getDrone().getHubId());
+            Route r = h == null
+                    ? new Route(t, PlanningService.HUB_ORIGEM_X, PlanningService.HUB_ORIGEM_Y, stops, distanceModel, energy)
+                    : new Route(t, h.getX(), h.getY(), stops, distanceModel, energy);
+            routes.put(id, r);
+            out.add(r);
+        }
+
+        return out;
+    }
+
+    /* ======================= INSERÇÃO ======================= */
+
+    private Insertion apply(Trip trip, Route route, List<TripStop> stops, Order order, Candidate best, Window window) {
+        Drone drone = trip.getDrone();
+
+        // libera as sequências antes de renumerar, sem quebrar a unique (trip, seq)
+        for (int i = 0; i < stops.size(); i++) stops.get(i).setSeq(-(i + 1));
+        stopRepo.saveAll(stops);
+        entityManager.flush();
+
+        TripStop stop = new TripStop();
+        stop.setTrip(trip);
+        stop.setOrder(order);
+        stop.setX(order.getCustomerX());
+        stop.setY(order.getCustomerY());
+        stop.setDelivered(false);
+
+        List<TripStop> sequence = new ArrayList<>(stops);
+        sequence.add(best.position(), stop);
+
+        double speedKmh = Math.max(1.0, drone.getSpeedKmh());
+        Instant cursor = trip.getStartAt();
+        int prevX = route.hubX, prevY = route.hubY;
+
+        for (int i = 0; i < sequence.size(); i++) {
+            TripStop st = sequence.get(i);
+            double legKm = distanceModel.distance(prevX, prevY, st.getX(), st.getY());
+            cursor = cursor.plus(travel(legKm, speedKmh));
+
+            st.setSeq(i + 1);
+            st.setEstimatedArrivalAt(cursor);
+            st.setEstimatedDepartureAt(cursor);
+            prevX = st.getX();
+            prevY = st.getY();
+        }
+        stopRepo.saveAll(sequence);
+
+        double totalKm = route.distKm + best.addedKm();
+        double backKm = distanceModel.distance(prevX, prevY, route.hubX, route.hubY);
+        Instant finishAt = cursor.plus(travel(backKm, speedKmh));
+        // arredondamento das pernas em segundos: a busca estimou o atraso pelo desvio inteiro
+        if (trip.getFinishAt() != null && Duration.between(trip.getFinishAt(), finishAt).toMillis() > window.slackMs()) {
+            throw new IllegalStateException("Order " + order.getId() + " would delay the next trip of drone " + route.droneId);
+        }
+        trip.setTotalWeight(route.weightKg + order.getWeightKg());
+        trip.setTotalDistanceKm(totalKm);
+        trip.setFinishAt(finishAt);
+        tripRepo.save(trip);
+        tripRepo.adjustStopCounters(trip.getId(), 1, 1);
+
+        order.setStatus(Order.Status.PLANNED);
+        orderRepo.save(order);
+
+        Long tripId = trip.getId();
+        eta.invalidate(tripId);
+        routes.remove(tripId);
+        // adjustStopCounters não passa pelo listener: descarta de novo depois do commit, caso uma leitura
+        // concorrente tenha recarregado as rotas antigas no meio da transação
+        AfterCommit.run(() -> {
+            routes.remove(tripId);
+            eta.invalidate(tripId);
+        });
+
+        return new Insertion(tripId, route.droneId, best.position() + 1, best.addedKm(), totalKm);
+    }
+
+    private static Duration travel(double km, double speedKmh) {
+        return Duration.ofSeconds((long) ((km / speedKmh) * 3600.0));
+    }
+}
@@ -2,29 +2,47 @@ package com.example.backend.service;
 
 import com.example.backend.domain.Drone;
 import com.example.backend.domain.Trip;
+import com.example.backend.persistence.AfterCommit;
 import com.example.backend.repository.DroneRepository;
 import com.example.backend.repository.TripRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TripService {
 
     private final TripRepository tripRepo;
     private final DroneRepository droneRepo;
+    private final EtaService eta;
+    private final HotStateCache hotState;
+    private final TripInsertionService insertion;
+    private final EntityManager entityManager;
 
-    public TripService(TripRepository tripRepo, DroneRepository droneRepo) {
+    public TripService(TripRepository tripRepo, DroneRepository droneRepo, EtaService eta, HotStateCache hotState,
+                       TripInsertionService insertion, EntityManager entityManager) {
         this.tripRepo = tripRepo;
         this.droneRepo = droneRepo;
+        this.eta = eta;
+        this.hotState = hotState;
+        this.insertion = insertion;
+        this.entityManager = entityManager;
     }
 
     @Transactional
     public Trip create(Trip t) {
         t.setId(null);
+        t.setVersion(null);
 
         if (t.getDrone() == null || t.getDrone().getId() == null) {
             throw new IllegalArgumentException("drone com ID é obrigatório para criar Trip");
@@ -53,6 +71,10 @@ public class TripService {
 
         t.setFinishAt(null);
 
+        // paradas entram depois, pelo TripStopService, que mantém os contadores
+        t.setStopsTotal(0);
+        t.setStopsRemaining(0);
+
         validate(t);
 
         return tripRepo.save(t);
@@ -63,6 +85,25 @@ public class TripService {
         return tripRepo.findAll();
     }
 
+    /*
+     * Viagens de um drone (mais recente primeiro) entregues uma a uma a partir do cursor do banco e
+     * desanexadas depois de consumidas; o drone e as paradas não são carregados (só o id do drone).
+     */
+    @Transactional(readOnly = true)
+    public long exportByDrone(Long droneId, Consumer<Trip> sink) {
+        if (droneId == null) throw new IllegalArgumentException("droneId é obrigatório");
+
+        long count = 0;
+        try (Stream<Trip> trips = tripRepo.streamByDroneIdOrderByStartAtDesc(droneId)) {
+            for (Iterator<Trip> it = trips.iterator(); it.hasNext(); count++) {
+                Trip t = it.next();
+                sink.accept(t);
+                entityManager.detach(t);
+            }
+        }
+        return count;
+    }
+
     @Transactional(readOnly = true)
     public Trip getById(Long id) {
         return tripRepo.findById(id)
@@ -78,6 +119,7 @@ public class TripService {
         }
         
         tripRepo.delete(trip);
+        eta.invalidate(id);
     }
 
     @Transactional
@@ -86,10 +128,40 @@ public class TripService {
         t.setStatus(newStatus);
 
         validate(t);
+        eta.invalidate(id);
 
         return tripRepo.save(t);
     }
 
+    /* Várias viagens para o mesmo status num único UPDATE */
+    @Transactional
+    public List<Trip> updateStatusAll(Collection<Long> ids, Trip.Status newStatus) {
+        if (ids == null || ids.isEmpty()) throw new IllegalArgumentException("ids não pode ser vazio");
+        if (newStatus == null) throw new IllegalArgumentException("status não pode ser nulo");
+
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        Set<Long> missing = new LinkedHashSet<>(unique);
+        missing.removeAll(tripRepo.findExistingIds(unique));
+        if (!missing.isEmpty()) {
+            throw new EntityNotFoundException("Trip não encontrada: " + missing);
+        }
+
+        tripRepo.updateStatusIn(unique, newStatus, Instant.now());
+        unique.forEach(eta::invalidate);
+        unique.forEach(insertion::invalidate);
+
+        // o UPDATE em lote não passa pelo listener: cache quente e rotas em memória são ajustados à mão
+        List<Trip> updated = tripRepo.findAllById(unique);
+        List<HotStateCache.ActiveTrip> applied = updated.stream().map(HotStateCache.ActiveTrip::of).toList();
+        AfterCommit.run(() -> {
+            applied.forEach(hotState::applyTrip);
+            unique.forEach(eta::invalidate);
+            unique.forEach(insertion::invalidate);
+        });
+
+        return updated;
+    }
+
     @Transactional
     public Trip updateStartTime(Long id, Instant startAt) {
         Trip t = getById(id);
@@ -3,16 +3,22 @@ package com.example.backend.service;
 import com.example.backend.domain.Order;
 import com.example.backend.domain.Trip;
 import com.example.backend.domain.TripStop;
+import com.example.backend.persistence.AfterCommit;
 import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.TripRepository;
 import com.example.backend.repository.TripStopRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class TripStopService {
@@ -21,12 +27,19 @@ public class TripStopService {
     private final TripStopRepository stopRepo;
     private final OrderRepository orderRepo;
     private final EntityManager entityManager;
+    private final EtaService eta;
+    private final HotStateCache hotState;
+    private final TripInsertionService insertion;
 
-    public TripStopService(TripRepository tripRepo, TripStopRepository stopRepo, OrderRepository orderRepo, EntityManager entityManager) {
+    public TripStopService(TripRepository tripRepo, TripStopRepository stopRepo, OrderRepository orderRepo, EntityManager entityManager,
+                           EtaService eta, HotStateCache hotState, TripInsertionService insertion) {
         this.tripRepo = tripRepo;
         this.stopRepo = stopRepo;
         this.orderRepo = orderRepo;
         this.entityManager = entityManager;
+        this.eta = eta;
+        this.hotState = hotState;
+        this.insertion = insertion;
     }
 
     @Transactional(readOnly = true)
@@ -63,8 +76,14 @@ public class TripStopService {
         stop.setDelivered(false);
 
         normalizeSequenceGaps(tripId, stop.getSeq());
+        eta.invalidate(tripId);
+        insertion.invalidate(tripId);
 
-        return stopRepo.save(stop);
+        TripStop saved = stopRepo.save(stop);
+        tripRepo.adjustStopCounters(tripId, 1, 1);
+        evictRoutesAfterCommit(tripId);
+
+        return saved;
     }
 
     @Transactional
@@ -74,6 +93,10 @@ public class TripStopService {
 
         TripStop stop = getByTripAndSeq(tripId, seq);
         stopRepo.delete(stop);
+        tripRepo.adjustStopCounters(tripId, -1, stop.isDelivered() ? 0 : -1);
+        eta.invalidate(tripId);
+        insertion.invalidate(tripId);
+        evictRoutesAfterCommit(tripId);
 
         List<TripStop> remaining = stopRepo.findByTripIdOrderBySeqAsc(tripId);
         int s = 1;
@@ -99,6 +122,8 @@ public class TripStopService {
         if (toSeq > stops.size()) toSeq = stops.size();
 
         TripStop moving = getByTripAndSeq(tripId, fromSeq);
+        eta.invalidate(tripId);
+        insertion.invalidate(tripId);
 
         for (int i = 0; i < stops.size(); i++) {
             stops.get(i).setSeq(-(i + 1));
@@ -119,25 +144,57 @@ public class TripStopService {
     @Transactional
     public TripStop markDelivered(Long tripId, int seq) {
         TripStop stop = getByTripAndSeq(tripId, seq);
+        List<Long> orderIds = List.of(stop.getOrder().getId());
+        Instant now = Instant.now();
+
+        // repetição ou entrega concorrente da mesma parada: o UPDATE não vira nada e o contador fica como está
+        if (deliver(tripId, Set.of(seq), orderIds, now) == 0) return getByTripAndSeq(tripId, seq);
+
+        if (finishIfComplete(tripId, getTrip(tripId), now)) {
+            eta.invalidate(tripId);
+        } else {
+            eta.onDelivered(tripId, seq, now);
+        }
 
-        stop.setDelivered(true);
-        stopRepo.save(stop);
+        return getByTripAndSeq(tripId, seq);
+    }
 
-        Order o = stop.getOrder();
-        o.setStatus(Order.Status.DELIVERED);
-        orderRepo.save(o);
+    /*
+     * Entrega várias paradas de uma vez: um UPDATE para as paradas, um para os pedidos
+     * e uma única verificação de conclusão da viagem no fim do lote.
+     */
+    @Transactional
+    public List<TripStop> markDeliveredAll(Long tripId, Collection<Integer> seqs) {
+        if (seqs == null || seqs.isEmpty()) throw new IllegalArgumentException("seqs não pode ser vazio");
 
-        List<TripStop> pendentes = stopRepo.findByTripIdAndDeliveredFalseOrderBySeqAsc(tripId);
-        if (pendentes.isEmpty()) {
-            Trip trip = stop.getTrip();
+        ensureTripExists(tripId);
+        Set<Integer> wanted = new TreeSet<>(seqs);
 
-            trip.setStatus(Trip.Status.FINISHED);
-            trip.setFinishAt(Instant.now());
+        List<TripStop> stops = stopRepo.findByTripIdAndSeqInOrderBySeqAsc(tripId, wanted);
+        if (stops.size() != wanted.size()) {
+            Set<Integer> missing = new TreeSet<>(wanted);
+            stops.forEach(st -> missing.remove(st.getSeq()));
+            throw new EntityNotFoundException("TripStop não encontrado: trip=" + tripId + " seq=" + missing);
+        }
 
-            tripRepo.save(trip);
+        List<Long> orderIds = stops.stream()
+                .filter(st -> !st.isDelivered())
+                .map(st -> st.getOrder().getId())
+                .toList();
+        int lastSeq = stops.get(stops.size() - 1).getSeq();
+        Instant now = Instant.now();
+
+        if (!orderIds.isEmpty()) deliver(tripId, wanted, orderIds, now);
+
+        if (finishIfComplete(tripId, getTrip(tripId), now)) {
+            eta.invalidate(tripId);
+        } else {
+            // a rota em memória não viu as outras entregas do lote: recarrega e segue da última
+            eta.invalidate(tripId);
+            eta.onDelivered(tripId, lastSeq, now);
         }
 
-        return stop;
+        return stopRepo.findByTripIdAndSeqInOrderBySeqAsc(tripId, wanted);
     }
 
     @Transactional
@@ -146,10 +203,58 @@ public class TripStopService {
 
         stop.setEstimatedArrivalAt(estimatedArrivalAt);
         stop.setEstimatedDepartureAt(estimatedDepartureAt);
+        eta.invalidate(tripId);
 
         return stopRepo.save(stop);
     }
 
+    /*
+     * Entrega pelas linhas que o UPDATE condicional de fato virou (delivered=false -> true): só elas descontam
+     * o contador, então entregas concorrentes das mesmas paradas nunca descontam duas vezes.
+     * Os UPDATEs não passam pelo listener: o backlog em memória é ajustado à mão.
+     */
+    private int deliver(Long tripId, Set<Integer> seqs, List<Long> orderIds, Instant now) {
+        int flipped = stopRepo.markDelivered(tripId, seqs);
+        if (flipped == 0) return 0;
+
+        orderRepo.markDeliveredByStops(tripId, seqs, now);
+        tripRepo.adjustStopCounters(tripId, 0, -flipped);
+        // a ETA segue pelo onDelivered do chamador; só a rota de inserção é descartada
+        AfterCommit.run(() -> {
+            orderIds.forEach(hotState::removeOrder);
+            insertion.invalidate(tripId);
+        });
+        return flipped;
+    }
+
+    /* Um único UPDATE condicional decide a conclusão; o cache quente é ajustado à mão, pois o UPDATE não passa pelo listener */
+    private boolean finishIfComplete(Long tripId, Trip trip, Instant now) {
+        if (tripRepo.finishIfComplete(tripId, now) == 0) return false;
+
+        Long droneId = trip.getDrone() != null ? trip.getDrone().getId() : null;
+        HotStateCache.ActiveTrip finished = new HotStateCache.ActiveTrip(tripId, droneId, Trip.Status.FINISHED, now);
+        AfterCommit.run(() -> hotState.applyTrip(finished));
+        return true;
+    }
+
+    /*
+     * adjustStopCounters não passa pelo listener, e a invalidação feita antes do commit pode ser desfeita por uma
+     * leitura concorrente que recarregue as paradas antigas: descarta as rotas em memória de novo depois do commit.
+     */
+    private void evictRoutesAfterCommit(Long tripId) {
+        AfterCommit.run(() -> {
+            eta.invalidate(tripId);
+            insertion.invalidate(tripId);
+        });
+    }
+
+    // viagens anteriores aos contadores: só as que têm paradas e contador nunca preenchido
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillStopCounters() {
+        tripRepo.backfillStopCounters();
+    }
+
     private Trip getTrip(Long tripId) {
         return tripRepo.findById(tripId)
                 .orElseThrow(() -> new EntityNotFoundException("Trip não encontrada: " + tripId));
@@ -0,0 +1,59 @@
+package com.example.backend.web;
+
+/**
+ * Limite de concorrência ajustado pela latência observada (AIMD).
+ * Respostas abaixo da latência-alvo aumentam o limite em {@code 1/limit} (≈ +1 por janela);
+ * respostas acima dela reduzem o limite em 10%. Assim o limite converge para o maior
+ * número de execuções simultâneas que ainda cabe no alvo.
+ */
+final class AdaptiveLimiter {
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+
+    private double limit;
+    private int inFlight;
+
+    AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyMs) {
+        if (minLimit < 1 || maxLimit < minLimit) throw new IllegalArgumentException("invalid limiter bounds");
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetLatencyMs * 1_000_000L;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) return false;
+
+        inFlight++;
+        return true;
+    }
+
+    synchronized void release(long latencyNanos) {
+        inFlight--;
+
+        if (latencyNanos > targetNanos) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+        } else if (inFlight + 1 >= (int) limit) {
+            // só cresce quando o limite atual estava de fato sendo usado
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /* Devolve a vaga sem amostra de latência (duração que não reflete a carga, ex.: streaming longo) */
+    synchronized void releaseUnsampled() {
+        inFlight--;
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
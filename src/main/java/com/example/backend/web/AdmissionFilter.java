@@ -0,0 +1,181 @@
+package com.example.backend.web;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Controle de admissão por classe de endpoint, antes de qualquer trabalho no backend.
+ * <ul>
+ *   <li>PRIORITY: telemetria do drone e confirmações de entrega — balde de fichas próprio e folgado,
+ *       nunca disputa com as demais classes;</li>
+ *   <li>HEAVY: planejamento, listagens sem filtro e exportações — limite de concorrência adaptativo pela
+ *       latência, excedente recebe 503 na hora. Uma exportação em streaming (assíncrona) só devolve a vaga
+ *       quando a resposta termina, e sua duração não entra no ajuste do limite; o mesmo vale para
+ *       {@code POST /plan?budgetMs=...}, que é longo de propósito (otimização até o prazo);</li>
+ *   <li>CHEAP: todo o resto — balde de fichas, excedente recebe 429.</li>
+ * </ul>
+ * Respostas rejeitadas levam {@code Retry-After} (segundos).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    enum Lane { PRIORITY, HEAVY, CHEAP }
+
+    private static final Pattern TELEMETRY = Pattern.compile("^/drones/[^/]+/(location|battery|status)$");
+    private static final Pattern DELIVERY = Pattern.compile("^/trips/[^/]+/stops/([^/]+/)?delivered$");
+    private static final Pattern EXPORT = Pattern.compile("^/(orders|trips)/export$");
+
+    private final boolean enabled;
+    private final TokenBucket priorityBucket;
+    private final TokenBucket cheapBucket;
+    private final AdaptiveLimiter heavyLimiter;
+    private final long heavyRetryAfterSec;
+
+    public AdmissionFilter(@Value("${app.admission.enabled:true}") boolean enabled,
+                           @Value("${app.admission.priority.rate-per-sec:2000}") double priorityRate,
+                           @Value("${app.admission.priority.burst:4000}") double priorityBurst,
+                           @Value("${app.admission.cheap.rate-per-sec:500}") double cheapRate,
+                           @Value("${app.admission.cheap.burst:1000}") double cheapBurst,
+                           @Value("${app.admission.heavy.initial-limit:4}") int heavyInitial,
+                           @Value("${app.admission.heavy.max-limit:16}") int heavyMax,
+                           @Value("${app.admission.heavy.target-latency-ms:2000}") long heavyTargetMs) {
+        this.enabled = enabled;
+        this.priorityBucket = new TokenBucket(priorityRate, priorityBurst);
+        this.cheapBucket = new TokenBucket(cheapRate, cheapBurst);
+        this.heavyLimiter = new AdaptiveLimiter(heavyInitial, 1, heavyMax, heavyTargetMs);
+        this.heavyRetryAfterSec = Math.max(1, (heavyTargetMs + 999) / 1000);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        switch (classify(request)) {
+            case PRIORITY -> throttled(priorityBucket, request, response, chain);
+            case CHEAP -> throttled(cheapBucket, request, response, chain);
+            case HEAVY -> limited(request, response, chain);
+        }
+    }
+
+    static Lane classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if ("PATCH".equals(method) && (TELEMETRY.matcher(path).matches() || DELIVERY.matcher(path).matches())) {
+            return Lane.PRIORITY;
+        }
+
+        if ("POST".equals(method) && path.equals("/plan")) return Lane.HEAVY;
+
+        if ("GET".equals(method)) {
+            if (isExport(request)) return Lane.HEAVY;
+            if (path.equals("/orders") && request.getParameter("status") == null) return Lane.HEAVY;
+            if (path.equals("/trips")) return Lane.HEAVY;
+        }
+
+        return Lane.CHEAP;
+    }
+
+    /** Exportações em streaming ({@code GET /orders/export}, {@code GET /trips/export}). */
+    public static boolean isExport(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return "GET".equals(request.getMethod()) && EXPORT.matcher(path).matches();
+    }
+
+    private void throttled(TokenBucket bucket, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        if (!bucket.tryAcquire(now)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(bucket.secondsUntilToken(now)));
+            FilterErrors.write(request, response, HttpStatus.TOO_MANY_REQUESTS, "Request rate limit exceeded");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private void limited(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!heavyLimiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(heavyRetryAfterSec));
+            FilterErrors.write(request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many concurrent heavy requests (limit " + heavyLimiter.limit() + ")");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean streaming = false;
+        boolean sampled = !isBudgetedPlan(request);
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                streaming = true;
+            }
+        } finally {
+            // no streaming a vaga volta no fim da resposta (ReleaseOnComplete)
+            if (!streaming) {
+                if (sampled) heavyLimiter.release(System.nanoTime() - start);
+                else heavyLimiter.releaseUnsampled();
+            }
+        }
+    }
+
+    /* Plano com orçamento de otimização: a latência é o orçamento pedido, não sinal de sobrecarga */
+    static boolean isBudgetedPlan(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) return false;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.equals("/plan")) return false;
+
+        String budget = request.getParameter("budgetMs");
+        try {
+            return budget != null && Long.parseLong(budget.trim()) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /* Devolve a vaga de uma resposta assíncrona quando ela termina; timeout e erro também acabam em onComplete */
+    private final class ReleaseOnComplete implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) heavyLimiter.releaseUnsampled();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // um novo ciclo assíncrono descarta os listeners: registra de novo para não perder a vaga
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
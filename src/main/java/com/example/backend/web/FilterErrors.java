@@ -0,0 +1,32 @@
+package com.example.backend.web;
+
+import com.example.backend.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/* Erros no mesmo formato do GlobalExceptionHandler, para respostas dadas antes do DispatcherServlet */
+final class FilterErrors {
+
+    private static final ObjectMapper JSON = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private FilterErrors() {
+    }
+
+    static void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        ErrorResponse body = new ErrorResponse(Instant.now().toString(), status.value(), status.getReasonPhrase(), message,
+                request.getRequestURI(), request.getMethod(), request.getHeader("X-Request-Id"), null);
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        JSON.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backend.web;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache em memória das respostas já produzidas por chave de idempotência.
+ * Limitado em número de entradas e em bytes guardados (descarta as mais antigas) e com expiração por tempo.
+ */
+final class IdempotencyCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Duration ttl;
+    private long bytes;
+
+    // ordem de inserção = ordem de expiração, já que o TTL é o mesmo para todas
+    private final LinkedHashMap<String, StoredResponse> entries = new LinkedHashMap<>();
+
+    IdempotencyCache(int maxEntries, long maxBytes, Duration ttl) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+        if (maxBytes < 1) throw new IllegalArgumentException("maxBytes must be >= 1");
+
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+    }
+
+    synchronized StoredResponse get(String key, Instant now) {
+        evictExpired(now);
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, StoredResponse response, Instant now) {
+        evictExpired(now);
+        StoredResponse previous = entries.remove(key);
+        if (previous != null) bytes -= previous.sizeBytes();
+        entries.put(key, response);
+        bytes += response.sizeBytes();
+
+        Iterator<StoredResponse> it = entries.values().iterator();
+        while (entries.size() > maxEntries || (bytes > maxBytes && entries.size() > 1)) {
+            bytes -= it.next().sizeBytes();
+            it.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    Duration ttl() {
+        return ttl;
+    }
+
+    private void evictExpired(Instant now) {
+        Instant cutoff = now.minus(ttl);
+        Iterator<Map.Entry<String, StoredResponse>> it = entries.entrySet().iterator();
+
+        while (it.hasNext()) {
+            StoredResponse oldest = it.next().getValue();
+            if (!oldest.createdAt().isBefore(cutoff)) break;
+            bytes -= oldest.sizeBytes();
+            it.remove();
+        }
+    }
+}
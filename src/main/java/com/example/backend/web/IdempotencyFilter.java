@@ -0,0 +1,255 @@
+package com.example.backend.web;
+
+import com.example.backend.domain.IdempotencyRecord;
+import com.example.backend.repository.IdempotencyRecordRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Deduplica requisições mutantes (POST/PUT/PATCH/DELETE) que trazem o header {@code Idempotency-Key}.
+ * A primeira execução roda normalmente e sua resposta (status < 500) é guardada; repetições com a
+ * mesma chave recebem a resposta gravada, com {@code Idempotent-Replayed: true}. Duplicatas que
+ * chegam enquanto a primeira ainda executa esperam por ela em vez de repetir o trabalho.
+ * Reusar a chave para uma requisição diferente (método, caminho ou corpo) devolve 422.
+ * <p>
+ * A memória usada é limitada em entradas e em bytes. Corpos acima de {@code app.idempotency.max-body-bytes}
+ * não são guardados: a repetição devolve o status e o {@code Location} originais, sem corpo, com o SHA-256
+ * do corpo original em {@code Idempotent-Body-Digest}; a operação continua sem ser executada de novo.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String BODY_DIGEST_HEADER = "Idempotent-Body-Digest";
+
+    private static final Set<String> MUTATING = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 200;
+    private static final Duration PURGE_EVERY = Duration.ofMinutes(1);
+
+    private final IdempotencyCache cache;
+    private final IdempotencyRecordRepository records; // null = só memória
+    private final long waitMs;
+    private final int maxBodyBytes;
+
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private volatile Instant lastPurge = Instant.EPOCH;
+
+    public IdempotencyFilter(@Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                             @Value("${app.idempotency.max-bytes:67108864}") long maxBytes,
+                             @Value("${app.idempotency.max-body-bytes:65536}") int maxBodyBytes,
+                             @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${app.idempotency.wait-ms:30000}") long waitMs,
+                             @Value("${app.idempotency.store:memory}") String store,
+                             ObjectProvider<IdempotencyRecordRepository> records) {
+        this.cache = new IdempotencyCache(maxEntries, maxBytes, ttl);
+        this.waitMs = waitMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.records = "db".equalsIgnoreCase(store.trim()) ? records.getIfAvailable() : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !MUTATING.contains(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            FilterErrors.write(request, response, HttpStatus.BAD_REQUEST, HEADER + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(request, cached.body);
+
+        while (true) {
+            StoredResponse stored = lookup(key);
+            if (stored != null) {
+                replay(stored, fingerprint, request, response);
+                return;
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+
+            if (running == null) {
+                try {
+                    execute(key, fingerprint, cached, response, chain, mine);
+                } finally {
+                    inFlight.remove(key, mine);
+                }
+                return;
+            }
+
+            StoredResponse shared;
+            try {
+                shared = running.get(waitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                FilterErrors.write(request, response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+                return;
+            } catch (ExecutionException e) {
+                shared = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for in-flight request", e);
+            }
+
+            if (shared != null) {
+                replay(shared, fingerprint, request, response);
+                return;
+            }
+            // a primeira execução falhou sem resposta reaproveitável: tenta de novo
+        }
+    }
+
+    private void execute(String key, String fingerprint, CachedBodyRequest request, HttpServletResponse response,
+                         FilterChain chain, CompletableFuture<StoredResponse> mine) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse result = null;
+        try {
+            chain.doFilter(request, wrapper);
+
+            if (wrapper.getStatus() < 500) {
+                byte[] body = wrapper.getContentAsByteArray();
+                String location = wrapper.getHeader(HttpHeaders.LOCATION);
+                result = body.length > maxBodyBytes
+                        ? new StoredResponse(fingerprint, wrapper.getStatus(), null, location, new byte[0], sha256(body), Instant.now())
+                        : new StoredResponse(fingerprint, wrapper.getStatus(), wrapper.getContentType(), location, body, null, Instant.now());
+                save(key, result);
+            }
+        } finally {
+            mine.complete(result);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private StoredResponse lookup(String key) {
+        Instant now = Instant.now();
+        StoredResponse hit = cache.get(key, now);
+        if (hit != null || records == null) return hit;
+
+        IdempotencyRecord r = records.findById(key).orElse(null);
+        if (r == null || r.getCreatedAt().isBefore(now.minus(cache.ttl()))) return null;
+
+        StoredResponse loaded = new StoredResponse(r.getFingerprint(), r.getStatus(), r.getContentType(),
+                r.getLocation(), r.getBody() != null ? r.getBody() : new byte[0], r.getBodyDigest(), r.getCreatedAt());
+        cache.put(key, loaded, now);
+        return loaded;
+    }
+
+    private void save(String key, StoredResponse s) {
+        cache.put(key, s, s.createdAt());
+        if (records == null) return;
+
+        IdempotencyRecord r = new IdempotencyRecord();
+        r.setKey(key);
+        r.setFingerprint(s.fingerprint());
+        r.setStatus(s.status());
+        r.setContentType(s.contentType());
+        r.setLocation(s.location());
+        r.setBody(s.body());
+        r.setBodyDigest(s.bodyDigest());
+        r.setCreatedAt(s.createdAt());
+        records.save(r);
+
+        if (s.createdAt().isAfter(lastPurge.plus(PURGE_EVERY))) {
+            lastPurge = s.createdAt();
+            records.deleteExpired(s.createdAt().minus(cache.ttl()));
+        }
+    }
+
+    private static void replay(StoredResponse s, String fingerprint, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!s.fingerprint().equals(fingerprint)) {
+            FilterErrors.write(request, response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+            return;
+        }
+
+        response.setStatus(s.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (s.contentType() != null) response.setContentType(s.contentType());
+        if (s.location() != null) response.setHeader(HttpHeaders.LOCATION, s.location());
+        if (s.bodyOmitted()) response.setHeader(BODY_DIGEST_HEADER, "sha-256=" + s.bodyDigest());
+        response.setContentLength(s.body().length);
+        response.getOutputStream().write(s.body());
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest sha = sha256();
+        sha.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+                .getBytes(StandardCharsets.UTF_8));
+        sha.update(body);
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private static String sha256(byte[] body) {
+        return HexFormat.of().formatHex(sha256().digest(body));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* Lê o corpo uma vez para calcular a impressão digital e o entrega de novo ao controller */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public void setReadListener(ReadListener listener) { throw new UnsupportedOperationException(); }
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.backend.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Corpo de resposta que escreve um array JSON elemento a elemento, à medida que a fonte entrega
+ * (tipicamente um cursor do repositório), sem montar a lista. O buffer do gerador e o do servlet
+ * limitam a memória; não há flush por elemento.
+ */
+public final class JsonArrayStream {
+
+    private JsonArrayStream() {
+    }
+
+    /** {@code source} recebe o consumidor de cada elemento e roda dentro da escrita da resposta. */
+    public static <T> StreamingResponseBody of(ObjectMapper om, Class<T> type, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = om.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return out -> {
+            // o Spring faz flush e fecha o stream da resposta depois
+            JsonGenerator gen = om.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (gen) {
+                gen.writeStartArray();
+                source.accept(item -> {
+                    try {
+                        writer.writeValue(gen, item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gen.writeEndArray();
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.backend.web;
+
+import java.time.Instant;
+
+/**
+ * Resposta gravada para uma chave de idempotência, com a impressão digital da requisição original.
+ * Corpos grandes não são guardados: {@code body} fica vazio e {@code bodyDigest} leva o SHA-256 do original.
+ */
+record StoredResponse(String fingerprint, int status, String contentType, String location, byte[] body,
+                      String bodyDigest, Instant createdAt) {
+
+    // chave, cabeçalhos e a própria entrada no mapa, estimados
+    private static final int OVERHEAD_BYTES = 512;
+
+    boolean bodyOmitted() {
+        return bodyDigest != null;
+    }
+
+    long sizeBytes() {
+        return OVERHEAD_BYTES + body.length;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.web;
+
+/**
+ * Balde de fichas clássico: até {@code capacity} fichas, repostas continuamente a
+ * {@code ratePerSec}. Cada requisição consome uma.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double ratePerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSec, double capacity) {
+        if (ratePerSec <= 0 || capacity < 1) throw new IllegalArgumentException("rate must be > 0 and capacity >= 1");
+
+        this.capacity = capacity;
+        this.ratePerNano = ratePerSec / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    synchronized boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    synchronized boolean tryAcquire(long nowNanos) {
+        refill(nowNanos);
+        if (tokens < 1.0) return false;
+
+        tokens -= 1.0;
+        return true;
+    }
+
+    /** Segundos (arredondados para cima, mínimo 1) até haver uma ficha disponível. */
+    synchronized long secondsUntilToken(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1.0) return 1;
+
+        double nanos = (1.0 - tokens) / ratePerNano;
+        return Math.max(1, (long) Math.ceil(nanos / 1_000_000_000.0));
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefill;
+        if (elapsed <= 0) return;
+
+        tokens = Math.min(capacity, tokens + elapsed * ratePerNano);
+        lastRefill = nowNanos;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.backend.config;
+
+import com.example.backend.controller.DroneController;
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Serialização dos mesmos DTOs em JSON, CBOR e Smile: tamanho do payload e vazão (mediana de várias rodadas)
+ * para a listagem de {@code GET /orders} e para a telemetria ({@code PATCH /drones/{id}/location}: corpo
+ * recebido e drone devolvido). Grava a tabela em {@code target/content-benchmark.txt}.
+ * Fora do {@code mvn test}; rode com {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+class BinaryContentBenchmarkTest {
+
+    private static final int ORDERS = 5_000;
+    private static final int TELEMETRY_BATCH = 10_000;
+    private static final int RUNS = 7;
+
+    @Test
+    void comparaFormatos() throws Exception {
+        // como o Spring Boot monta os mappers (datas ISO, módulos registrados)
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", builder().build());
+        mappers.put("cbor", builder().factory(new CBORFactory()).build());
+        mappers.put("smile", builder().factory(new SmileFactory()).build());
+
+        List<Order> orders = orders(ORDERS, new Random(42));
+        Drone drone = drone();
+        DroneController.UpdateLocationRequest location = new DroneController.UpdateLocationRequest();
+        location.x = 12;
+        location.y = -7;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-22s %-6s %12s %12s %10s%n", "payload", "format", "bytes", "ops/s", "MB/s"));
+
+        Map<String, Long> ordersBytes = new LinkedHashMap<>();
+        Map<String, Double> ordersOps = new LinkedHashMap<>();
+
+        for (Map.Entry<String, ObjectMapper> e : mappers.entrySet()) {
+            String format = e.getKey();
+            ObjectMapper om = e.getValue();
+
+            Result list = measure(() -> om.writeValueAsBytes(orders), 1);
+            Result reply = measure(() -> om.writeValueAsBytes(drone), TELEMETRY_BATCH);
+            byte[] body = om.writeValueAsBytes(location);
+            Result request = measure(() -> {
+                om.readValue(body, DroneController.UpdateLocationRequest.class);
+                return body;
+            }, TELEMETRY_BATCH);
+
+            row(sb, "GET /orders (" + ORDERS + ")", format, list);
+            row(sb, "telemetry reply", format, reply);
+            row(sb, "telemetry request (read)", format, request);
+
+            ordersBytes.put(format, list.bytes());
+            ordersOps.put(format, list.opsPerSec());
+        }
+
+        double cborGain = ordersOps.get("cbor") / ordersOps.get("json");
+        double smileGain = ordersOps.get("smile") / ordersOps.get("json");
+        sb.append(String.format(Locale.ROOT, "%nGET /orders throughput vs json: cbor %.2fx, smile %.2fx%n", cborGain, smileGain));
+
+        System.out.print(sb);
+        Path out = Path.of("target/content-benchmark.txt");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, sb.toString());
+
+        assertThat(ordersBytes.get("cbor")).isLessThan(ordersBytes.get("json"));
+        assertThat(ordersBytes.get("smile")).isLessThan(ordersBytes.get("json"));
+    }
+
+    private interface Encode {
+        byte[] run() throws Exception;
+    }
+
+    private record Result(long bytes, double opsPerSec, double mbPerSec) {
+    }
+
+    /* Mediana de RUNS rodadas, cada uma com 'batch' chamadas; as duas primeiras rodadas aquecem o JIT */
+    private static Result measure(Encode encode, int batch) throws Exception {
+        long bytes = encode.run().length;
+        for (int w = 0; w < 2; w++) for (int i = 0; i < batch; i++) encode.run();
+
+        long[] nanos = new long[RUNS];
+        for (int r = 0; r < RUNS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < batch; i++) encode.run();
+            nanos[r] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        double seconds = nanos[RUNS / 2] / 1e9;
+        double ops = batch / seconds;
+        return new Result(bytes, ops, ops * bytes / 1e6);
+    }
+
+    private static void row(StringBuilder sb, String payload, String format, Result r) {
+        sb.append(String.format(Locale.ROOT, "%-22s %-6s %12d %12.0f %10.1f%n", payload, format, r.bytes(), r.opsPerSec(), r.mbPerSec()));
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<Order> orders(int n, Random rnd) {
+        Order.Priority[] priorities = Order.Priority.values();
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        List<Order> orders = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Order o = new Order();
+            o.setId((long) i + 1);
+            o.setCustomerX(rnd.nextInt(61) - 30);
+            o.setCustomerY(rnd.nextInt(61) - 30);
+            o.setWeightKg(0.2 + rnd.nextDouble() * 4.8);
+            o.setPriority(priorities[rnd.nextInt(priorities.length)]);
+            o.setStatus(Order.Status.PENDING);
+            o.setUpdatedAt(base.plusSeconds(i * 37L));
+            o.setVersion(0L);
+            orders.add(o);
+        }
+        return orders;
+    }
+
+    private static Drone drone() {
+        Drone d = new Drone();
+        d.setId(7L);
+        d.setName("Drone Alpha");
+        d.setCapacityKg(10.0);
+        d.setRangeKm(25.0);
+        d.setSpeedKmh(40.0);
+        d.setBatteryPct(83);
+        d.setStatus(Drone.Status.IDLE);
+        d.setLocationX(12);
+        d.setLocationY(-7);
+        d.setUpdatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        return d;
+    }
+}
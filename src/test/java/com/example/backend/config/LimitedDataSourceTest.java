@@ -0,0 +1,64 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LimitedDataSourceTest {
+
+    @Test
+    void getConnection_alemDoLimite_esperaETimeout() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+
+        LimitedDataSource ds = new LimitedDataSource(target, 2, 50);
+
+        Connection c1 = ds.getConnection();
+        Connection c2 = ds.getConnection();
+        assertThatThrownBy(ds::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        c1.close();
+        Connection c3 = ds.getConnection();
+        assertThat(c3).isNotNull();
+
+        c2.close();
+        c3.close();
+    }
+
+    @Test
+    void close_duasVezes_devolvePermissaoUmaVez() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+
+        LimitedDataSource ds = new LimitedDataSource(target, 1, 50);
+
+        Connection c = ds.getConnection();
+        c.close();
+        c.close();
+
+        Connection again = ds.getConnection();
+        assertThatThrownBy(ds::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        again.close();
+    }
+
+    @Test
+    void bindTo_registraTempoDeEspera() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LimitedDataSource ds = new LimitedDataSource(target, 1, 50);
+        ds.bindTo(registry);
+
+        ds.getConnection().close();
+
+        assertThat(registry.get("db.limiter.wait").timer().count()).isEqualTo(1);
+        assertThat(registry.get("db.limiter.active").gauge().value()).isZero();
+    }
+}
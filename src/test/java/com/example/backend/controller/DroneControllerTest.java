@@ -1,9 +1,13 @@
 package com.example.backend.controller;
 
+import com.example.backend.config.BinaryContentConfig;
 import com.example.backend.domain.Drone;
 import com.example.backend.exception.GlobalExceptionHandler;
 import com.example.backend.service.DroneService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +20,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -24,7 +29,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = DroneController.class)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, BinaryContentConfig.class})
 class DroneControllerTest {
 
     @Autowired MockMvc mvc;
@@ -70,4 +75,25 @@ class DroneControllerTest {
            .andExpect(status().isBadRequest())
            .andExpect(jsonPath("$.status", is(400)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateLocation_cborRequest_smileResponse() throws Exception {
+        Drone moved = new Drone();
+        moved.setId(1L); moved.setName("D1"); moved.setLocationX(3); moved.setLocationY(9);
+        Mockito.when(drones.updateLocation(1L, 3, 9)).thenReturn(moved);
+
+        byte[] request = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Map.of("x", 3, "y", 9));
+
+        byte[] body = mvc.perform(patch("/drones/1/location")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.parseMediaType("application/x-jackson-smile"))
+                .content(request))
+           .andExpect(status().isOk())
+           .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+           .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode tree = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertThat(tree.get("locationX").asInt()).isEqualTo(3);
+        assertThat(tree.get("locationY").asInt()).isEqualTo(9);
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.backend.controller;
 
+import com.example.backend.config.BinaryContentConfig;
 import com.example.backend.domain.Order;
 import com.example.backend.exception.GlobalExceptionHandler;
 import com.example.backend.service.OrderService;
+import com.example.backend.service.TripInsertionService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,10 +17,14 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -24,13 +32,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = OrderController.class)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, BinaryContentConfig.class})
 class OrderControllerTest {
 
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper om;
 
     @MockitoBean OrderService orders;
+    @MockitoBean TripInsertionService insertion;
 
     @Test
     void create_ok_returns201AndBody() throws Exception {
@@ -101,4 +110,81 @@ class OrderControllerTest {
            .andExpect(jsonPath("$.customerX", is(5)))
            .andExpect(jsonPath("$.priority", is("HIGH")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void insert_ok_returnsTripAndSeq() throws Exception {
+        Mockito.when(insertion.insertOrder(7L))
+               .thenReturn(new TripInsertionService.Insertion(3L, 1L, 2, 0.0, 14.0));
+
+        mvc.perform(post("/orders/7/insert"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.tripId", is(3)))
+           .andExpect(jsonPath("$.seq", is(2)))
+           .andExpect(jsonPath("$.totalDistanceKm", is(14.0)));
+    }
+
+    @Test
+    void insert_noTripFits_mapsTo409() throws Exception {
+        Mockito.when(insertion.insertOrder(7L))
+               .thenThrow(new IllegalStateException("No PLANNED trip can take order 7"));
+
+        mvc.perform(post("/orders/7/insert"))
+           .andExpect(status().isConflict());
+    }
+
+    @Test
+    void list_acceptCbor_returnsSameDtoInCbor() throws Exception {
+        Order o = new Order();
+        o.setCustomerX(4); o.setCustomerY(7); o.setWeightKg(1.5); o.setPriority(Order.Priority.HIGH);
+        o.setId(1L); o.setStatus(Order.Status.PENDING);
+        Mockito.when(orders.listAll()).thenReturn(List.of(o));
+
+        byte[] body = mvc.perform(get("/orders").accept(MediaType.APPLICATION_CBOR))
+           .andExpect(status().isOk())
+           .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+           .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode tree = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(tree).hasSize(1);
+        assertThat(tree.get(0).get("customerY").asInt()).isEqualTo(7);
+        assertThat(tree.get(0).get("priority").asText()).isEqualTo("HIGH");
+    }
+
+    @Test
+    void list_withoutAccept_staysJson() throws Exception {
+        Mockito.when(orders.listAll()).thenReturn(List.of());
+
+        mvc.perform(get("/orders"))
+           .andExpect(status().isOk())
+           .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void export_streamsJsonArray() throws Exception {
+        Order a = new Order();
+        a.setId(1L); a.setCustomerX(1); a.setCustomerY(1); a.setWeightKg(1.0); a.setStatus(Order.Status.DELIVERED);
+        Order b = new Order();
+        b.setId(2L); b.setCustomerX(2); b.setCustomerY(2); b.setWeightKg(2.0); b.setStatus(Order.Status.DELIVERED);
+
+        Instant from = Instant.parse("2026-10-01T00:00:00Z");
+        Mockito.doAnswer(inv -> {
+            Consumer<Order> sink = inv.getArgument(3);
+            sink.accept(a);
+            sink.accept(b);
+            return 2L;
+        }).when(orders).exportByStatus(eq(Order.Status.DELIVERED), eq(from), any(Instant.class), any());
+
+        MvcResult started = mvc.perform(get("/orders/export")
+                        .param("status", "DELIVERED")
+                        .param("from", "2026-10-01T00:00:00Z"))
+           .andExpect(request().asyncStarted())
+           .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+           .andExpect(status().isOk())
+           .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+           .andExpect(jsonPath("$", hasSize(2)))
+           .andExpect(jsonPath("$[1].id", is(2)))
+           .andExpect(jsonPath("$[1].status", is("DELIVERED")));
+    }
+}
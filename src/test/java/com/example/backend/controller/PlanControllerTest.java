@@ -2,7 +2,9 @@ package com.example.backend.controller;
 
 import com.example.backend.domain.Trip;
 import com.example.backend.exception.GlobalExceptionHandler;
+import com.example.backend.service.PlanRunReport;
 import com.example.backend.service.PlanningService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +13,13 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -34,4 +40,79 @@ class PlanControllerTest {
            .andExpect(status().isOk())
            .andExpect(jsonPath("$", hasSize(1)));
     }
-}
\ No newline at end of file
+
+    private static PlanRunReport report(long id) {
+        return new PlanRunReport(id, "greedy", Instant.now(), 12.5, Map.of("load", 2.0), 3, 2, 1, 0, Map.of(1L, 1),
+                0.4, 0.7, 20.0, 14.0, 21.0, 5.7, 9, 1);
+    }
+
+    @Test
+    void plan_profileFalse_retornaSoAsViagens() throws Exception {
+        Trip t = new Trip(); t.setId(1L);
+        Mockito.when(planning.planAllWithReport("greedy", 0)).thenReturn(new PlanningService.PlanRun(report(4L), List.of(t)));
+
+        mvc.perform(post("/plan").param("strategy", "greedy").param("profile", "false"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$", hasSize(1)))
+           .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    void plan_comProfile_retornaViagensEPerfil() throws Exception {
+        Trip t = new Trip(); t.setId(1L);
+        Mockito.when(planning.planAllWithReport(null, 0)).thenReturn(new PlanningService.PlanRun(report(5L), List.of(t)));
+
+        mvc.perform(post("/plan").param("profile", "true"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.trips", hasSize(1)))
+           .andExpect(jsonPath("$.profile.id", is(5)))
+           .andExpect(jsonPath("$.profile.statements", is(9)));
+    }
+
+    @Test
+    void run_inexistente_retorna404() throws Exception {
+        Mockito.when(planning.getRun(99L)).thenThrow(new EntityNotFoundException("Plan run not found: 99"));
+
+        mvc.perform(get("/plan/runs/99"))
+           .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void plan_comStrategy_repassaEscolha() throws Exception {
+        Trip t = new Trip(); t.setId(2L);
+        Mockito.when(planning.planAllWithReport("savings", 0)).thenReturn(new PlanningService.PlanRun(report(6L), List.of(t)));
+
+        mvc.perform(post("/plan").param("strategy", "savings"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$", hasSize(1)))
+           .andExpect(jsonPath("$[0].id", is(2)));
+    }
+
+    @Test
+    void plan_strategyDesconhecida_retorna400() throws Exception {
+        Mockito.when(planning.planAllWithReport("magic", 0))
+               .thenThrow(new IllegalArgumentException("Unknown planning strategy: magic"));
+
+        mvc.perform(post("/plan").param("strategy", "magic"))
+           .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void plan_comBudget_usaRelatorio() throws Exception {
+        Trip t = new Trip();
+        t.setId(3L);
+        Mockito.when(planning.planAllWithReport(null, 1500)).thenReturn(new PlanningService.PlanRun(report(7L), List.of(t)));
+
+        mvc.perform(post("/plan").param("budgetMs", "1500"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$[0].id", is(3)));
+    }
+
+    @Test
+    void progress_semOtimizacao_retorna404() throws Exception {
+        Mockito.when(planning.optimizationProgress()).thenThrow(new EntityNotFoundException("No optimization has run yet"));
+
+        mvc.perform(get("/plan/progress"))
+           .andExpect(status().isNotFound());
+    }
+}
@@ -3,6 +3,7 @@ package com.example.backend.controller;
 import com.example.backend.domain.Drone;
 import com.example.backend.domain.Trip;
 import com.example.backend.exception.GlobalExceptionHandler;
+import com.example.backend.service.EtaStreams;
 import com.example.backend.service.TripService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -13,10 +14,13 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +36,7 @@ class TripControllerTest {
     @Autowired ObjectMapper om;
 
     @MockitoBean TripService trips;
+    @MockitoBean EtaStreams etaStreams;
 
     @Test
     void create_ok() throws Exception {
@@ -90,4 +95,44 @@ class TripControllerTest {
            .andExpect(jsonPath("$", hasSize(1)))
            .andExpect(jsonPath("$[0].status", is("PLANNED")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void export_streamsRowsWithoutLoadingDrone() throws Exception {
+        Trip t = new Trip();
+        t.setId(9L);
+        Drone d = new Drone(); d.setId(3L);
+        t.setDrone(d);
+        t.setStatus(Trip.Status.FINISHED);
+        t.setStopsTotal(4);
+
+        Mockito.doAnswer(inv -> {
+            Consumer<Trip> sink = inv.getArgument(1);
+            sink.accept(t);
+            return 1L;
+        }).when(trips).exportByDrone(eq(3L), any());
+
+        MvcResult started = mvc.perform(get("/trips/export").param("droneId", "3"))
+           .andExpect(request().asyncStarted())
+           .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$", hasSize(1)))
+           .andExpect(jsonPath("$[0].id", is(9)))
+           .andExpect(jsonPath("$[0].droneId", is(3)))
+           .andExpect(jsonPath("$[0].stopsTotal", is(4)))
+           .andExpect(jsonPath("$[0].drone").doesNotExist());
+    }
+
+    @Test
+    void etaStream_abreSse() throws Exception {
+        Trip t = new Trip();
+        t.setId(3L);
+        Mockito.when(trips.getById(3L)).thenReturn(t);
+        Mockito.when(etaStreams.subscribe(3L)).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/trips/3/eta/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        Mockito.verify(etaStreams).subscribe(3L);
+    }
+}
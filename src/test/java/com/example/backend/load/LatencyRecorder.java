@@ -0,0 +1,85 @@
+package com.example.backend.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latências por endpoint (em nanos) e contagem de erros; gera a tabela de vazão e percentis.
+ */
+final class LatencyRecorder {
+
+    private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        series.computeIfAbsent(endpoint, k -> new Series()).add(nanos, status);
+    }
+
+    Map<String, Series> snapshot() {
+        return new TreeMap<>(series);
+    }
+
+    String report(Duration elapsed) {
+        double secs = Math.max(1e-3, elapsed.toNanos() / 1e9);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-36s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "4xx", "5xx", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+
+        long total = 0;
+        for (Map.Entry<String, Series> e : snapshot().entrySet()) {
+            Series s = e.getValue();
+            long[] sorted = s.sorted();
+            total += sorted.length;
+            sb.append(String.format(Locale.ROOT, "%-36s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    e.getKey(), sorted.length, s.clientErrors(), s.serverErrors(), sorted.length / secs,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                    percentile(sorted, 0.999) / 1e6, percentile(sorted, 1.0) / 1e6));
+        }
+
+        sb.append(String.format(Locale.ROOT, "%-36s %9d %7s %7s %9.1f%n", "TOTAL", total, "", "", total / secs));
+        return sb.toString();
+    }
+
+    /* Percentil pelo método nearest-rank sobre amostras ordenadas */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+
+    static final class Series {
+        private long[] nanos = new long[1024];
+        private int count;
+        private long clientErrors;
+        private long serverErrors;
+
+        synchronized void add(long value, int status) {
+            if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = value;
+            if (status >= 500) serverErrors++;
+            else if (status >= 400) clientErrors++;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long clientErrors() {
+            return clientErrors;
+        }
+
+        synchronized long serverErrors() {
+            return serverErrors;
+        }
+    }
+}
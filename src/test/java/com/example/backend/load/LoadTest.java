@@ -0,0 +1,181 @@
+package com.example.backend.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Carga mista contra a aplicação completa (Tomcat + H2 no modo PostgreSQL): criação de pedidos,
+ * telemetria, execuções do planejador e entregas das paradas planejadas. Ao fim imprime e grava
+ * em {@code load.report} a vazão e os percentis p50/p99/p999 por endpoint.
+ * <p>
+ * Fica fora do {@code mvn test}; rode com {@code mvn -P load-test test}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LoadTest {
+
+    @LocalServerPort int port;
+    @Autowired ObjectMapper json;
+
+    @Value("${load.warmup}") Duration warmup;
+    @Value("${load.duration}") Duration duration;
+    @Value("${load.concurrency}") int concurrency;
+    @Value("${load.drones}") int droneCount;
+    @Value("${load.report}") String reportPath;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<Long> drones = new ArrayList<>();
+    private final Queue<PlannedTrip> deliveries = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void cargaMista_semErrosDeServidor() throws Exception {
+        for (int i = 0; i < droneCount; i++) drones.add(createDrone(i));
+
+        run(warmup, new LatencyRecorder());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        run(duration, recorder);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        String report = String.format("load: %d workers, %d drones, %s%n%s",
+                concurrency, droneCount, elapsed, recorder.report(elapsed));
+        System.out.print(report);
+
+        Path out = Path.of(reportPath);
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        Files.writeString(out, report);
+
+        assertThat(recorder.snapshot()).containsKeys("POST /orders", "PATCH /drones/{id}/location", "POST /plan");
+        recorder.snapshot().forEach((endpoint, s) ->
+                assertThat(s.serverErrors()).as("5xx em " + endpoint).isZero());
+    }
+
+    private void run(Duration span, LatencyRecorder recorder) throws Exception {
+        long deadline = System.nanoTime() + span.toNanos();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(pool.submit(() -> {
+                    while (System.nanoTime() < deadline) step(recorder);
+                    return null;
+                }));
+            }
+            for (Future<?> f : workers) f.get();
+        }
+    }
+
+    /* Mistura: 35% pedidos, 35% telemetria, 15% entregas, 10% leitura de drone, 5% planejamento */
+    private void step(LatencyRecorder recorder) throws Exception {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int roll = rnd.nextInt(100);
+
+        if (roll < 35) {
+            String body = String.format("{\"customerX\":%d,\"customerY\":%d,\"weightKg\":%.2f,\"priority\":\"%s\"}",
+                    rnd.nextInt(-20, 21), rnd.nextInt(-20, 21), rnd.nextDouble(0.2, 3.0),
+                    PRIORITIES[rnd.nextInt(PRIORITIES.length)]);
+            send(recorder, "POST /orders", "POST", "/orders", body);
+        } else if (roll < 70) {
+            long id = randomDrone();
+            if (rnd.nextBoolean()) {
+                send(recorder, "PATCH /drones/{id}/location", "PATCH", "/drones/" + id + "/location",
+                        "{\"x\":" + rnd.nextInt(-20, 21) + ",\"y\":" + rnd.nextInt(-20, 21) + "}");
+            } else {
+                send(recorder, "PATCH /drones/{id}/battery", "PATCH", "/drones/" + id + "/battery",
+                        "{\"batteryPct\":" + rnd.nextInt(60, 101) + "}");
+            }
+        } else if (roll < 85) {
+            deliverNext(recorder);
+        } else if (roll < 95) {
+            send(recorder, "GET /drones/{id}", "GET", "/drones/" + randomDrone(), null);
+        } else {
+            HttpResponse<String> res = send(recorder, "POST /plan", "POST", "/plan", null);
+            if (res.statusCode() == 200) {
+                for (JsonNode trip : json.readTree(res.body())) {
+                    deliveries.add(new PlannedTrip(trip.get("id").asLong(), trip.get("stopsTotal").asInt()));
+                }
+            }
+        }
+    }
+
+    private void deliverNext(LatencyRecorder recorder) throws Exception {
+        PlannedTrip trip = deliveries.poll();
+        if (trip == null) return;
+
+        int seq = trip.next.incrementAndGet();
+        if (seq < trip.stops) deliveries.add(trip);
+
+        send(recorder, "PATCH /trips/{id}/stops/{seq}/delivered", "PATCH",
+                "/trips/" + trip.id + "/stops/" + seq + "/delivered", null);
+    }
+
+    private long createDrone(int i) throws Exception {
+        String body = "{\"name\":\"load-" + i + "\",\"capacityKg\":10.0,\"rangeKm\":120.0,\"speedKmh\":40.0,\"batteryPct\":100}";
+        HttpResponse<String> res = send(new LatencyRecorder(), "POST /drones", "POST", "/drones", body);
+        assertThat(res.statusCode()).isEqualTo(201);
+        return json.readTree(res.body()).get("id").asLong();
+    }
+
+    private long randomDrone() {
+        return drones.get(ThreadLocalRandom.current().nextInt(drones.size()));
+    }
+
+    private HttpResponse<String> send(LatencyRecorder recorder, String endpoint, String method, String path, String body)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<String> res = http.send(request, HttpResponse.BodyHandlers.ofString());
+        recorder.record(endpoint, System.nanoTime() - start, res.statusCode());
+        return res;
+    }
+
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+
+    private static final class PlannedTrip {
+        final long id;
+        final int stops;
+        final AtomicInteger next = new AtomicInteger();
+
+        PlannedTrip(long id, int stops) {
+            this.id = id;
+            this.stops = stops;
+        }
+    }
+}
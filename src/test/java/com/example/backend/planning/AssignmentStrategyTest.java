@@ -0,0 +1,90 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AssignmentStrategyTest {
+
+    private final EnergyModel energy = new EnergyModel(0.5, 10, 64);
+    private final AssignmentStrategy assignment = new AssignmentStrategy(energy);
+
+    private static Drone drone(long id, double capacityKg, double speedKmh) {
+        Drone d = new Drone();
+        d.setId(id);
+        d.setCapacityKg(capacityKg);
+        d.setRangeKm(40.0);
+        d.setSpeedKmh(speedKmh);
+        return d;
+    }
+
+    private static Order order(int x, int y, double w, Order.Priority p) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(w);
+        o.setPriority(p);
+        return o;
+    }
+
+    private static PlanningStrategy.PlannedRoute routeOf(PlanningStrategy.Solution s, int order) {
+        return s.routes().stream()
+                .filter(r -> {
+                    for (int k = 0; k < r.len(); k++) if (r.delivery()[k] == order) return true;
+                    return false;
+                })
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    void plan_pacoteUrgenteVaiParaODroneMaisRapido() {
+        Drone slowBig = drone(1, 3.0, 20.0);
+        Drone fastSmall = drone(2, 2.0, 80.0);
+        List<Order> orders = List.of(
+                order(0, 6, 2.0, Order.Priority.HIGH),
+                order(6, 0, 2.0, Order.Priority.LOW),
+                order(6, 1, 2.0, Order.Priority.LOW));
+        PlanningProblem p = PlanningProblem.of(orders, 0, 0, new ManhattanDistance());
+
+        PlanningStrategy.Solution s = assignment.plan(p, List.of(slowBig, fastSmall), d -> 100.0, new PhaseTimes());
+
+        assertThat(s.routes()).extracting(PlanningStrategy.PlannedRoute::len).containsOnly(1);
+        assertThat(s.routes().stream().mapToInt(PlanningStrategy.PlannedRoute::len).sum()).isEqualTo(3);
+        assertThat(routeOf(s, 0).drone()).isSameAs(fastSmall);
+        assertThat(routeOf(s, 1).drone()).isSameAs(slowBig);
+    }
+
+    @Test
+    void plan_pacoteQueSoCabeNoMaior_ficaComEle() {
+        Drone small = drone(1, 2.0, 80.0);
+        Drone big = drone(2, 6.0, 40.0);
+        List<Order> orders = List.of(
+                order(3, 0, 2.5, Order.Priority.MEDIUM),
+                order(3, 1, 2.5, Order.Priority.MEDIUM));
+        PlanningProblem p = PlanningProblem.of(orders, 0, 0, new ManhattanDistance());
+
+        PlanningStrategy.Solution s = assignment.plan(p, List.of(small, big), d -> 100.0, new PhaseTimes());
+
+        assertThat(s.routes()).hasSize(1);
+        assertThat(s.routes().get(0).drone()).isSameAs(big);
+        assertThat(s.routes().get(0).len()).isEqualTo(2);
+    }
+
+    @Test
+    void plan_bateriaBaixaEhRestricao() {
+        Drone fastLow = drone(1, 5.0, 80.0);
+        Drone slowFull = drone(2, 5.0, 20.0);
+        PlanningProblem p = PlanningProblem.of(List.of(order(8, 0, 1.0, Order.Priority.HIGH)), 0, 0, new ManhattanDistance());
+
+        // 16 km não cabem em 30% de bateria: mesmo mais lento, vai o drone cheio
+        PlanningStrategy.Solution s = assignment.plan(p, List.of(fastLow, slowFull),
+                d -> d == fastLow ? 30.0 : 100.0, new PhaseTimes());
+
+        assertThat(s.routes()).hasSize(1);
+        assertThat(s.routes().get(0).drone()).isSameAs(slowFull);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DistanceModelTest {
+
+    @Test
+    void manhattanEEuclidiana() {
+        assertThat(new ManhattanDistance().distance(0, 0, 3, 4)).isEqualTo(7.0);
+        assertThat(new EuclideanDistance().distance(0, 0, 3, 4)).isEqualTo(5.0);
+    }
+
+    @Test
+    void noFlyZone_parseEContains() {
+        List<NoFlyZone> zones = NoFlyZone.parseAll("1 -1, 3 -1, 3 1, 1 1; 10 10, 12 10, 11 14");
+        assertThat(zones).hasSize(2);
+        assertThat(zones.get(0).contains(2, 0)).isTrue();
+        assertThat(zones.get(0).contains(1, 0)).isTrue(); // borda
+        assertThat(zones.get(0).contains(4, 0)).isFalse();
+        assertThat(zones.get(1).contains(11, 11)).isTrue();
+
+        assertThatThrownBy(() -> NoFlyZone.parseAll("1 1, 2 2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void grid_semZonaNoCaminho_igualManhattan() {
+        GridDistance grid = new GridDistance(NoFlyZone.parseAll("50 50, 60 50, 60 60, 50 60"));
+        assertThat(grid.distance(0, 0, 3, 4)).isEqualTo(7.0);
+    }
+
+    @Test
+    void grid_desviaDaZona() {
+        // parede vertical em x=2 de y=-3 a y=3: ir de (0,0) a (4,0) exige contornar
+        GridDistance grid = new GridDistance(NoFlyZone.parseAll("2 -3, 2 3, 3 3, 3 -3"));
+        double d = grid.distance(0, 0, 5, 0);
+        assertThat(d).isEqualTo(5.0 + 2 * 4);
+        assertThat(grid.distance(5, 0, 0, 0)).isEqualTo(d);
+    }
+
+    @Test
+    void grid_zonaDistanteEnorme_naoEntraNaGradeDoPar() {
+        // a zona longe faria a caixa de todas as zonas passar do limite: só o corredor do par conta
+        GridDistance grid = new GridDistance(NoFlyZone.parseAll(
+                "2 -3, 2 3, 3 3, 3 -3; 100000 100000, 104000 100000, 104000 104000, 100000 104000"));
+        assertThat(grid.distance(0, 0, 5, 0)).isEqualTo(5.0 + 2 * 4);
+    }
+
+    @Test
+    void grid_corredorAcimaDoLimite_inalcancavelEmVezDeAtravessar() {
+        GridDistance grid = new GridDistance(NoFlyZone.parseAll("2 -3, 2 3, 3 3, 3 -3"), 10);
+        assertThat(grid.distance(0, 0, 5, 0)).isInfinite();
+    }
+
+    @Test
+    void grid_destinoDentroDaZona_inalcancavel() {
+        GridDistance grid = new GridDistance(NoFlyZone.parseAll("1 1, 5 1, 5 5, 1 5"));
+        assertThat(grid.distance(0, 0, 3, 3)).isInfinite();
+    }
+
+    @Test
+    void matriz_calculaCadaParUmaVez() {
+        AtomicInteger calls = new AtomicInteger();
+        DistanceModel counting = new DistanceModel() {
+            public double distance(int x1, int y1, int x2, int y2) {
+                calls.incrementAndGet();
+                return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+            }
+            public String name() { return "counting"; }
+        };
+
+        DistanceMatrix m = new DistanceMatrix(counting, new int[]{0, 1, 5}, new int[]{0, 1, 5});
+        assertThat(m.get(0, 2)).isEqualTo(10.0);
+        assertThat(m.get(0, 2)).isEqualTo(10.0);
+        assertThat(m.get(2, 0)).isEqualTo(10.0);
+        assertThat(m.get(1, 1)).isEqualTo(0.0);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class EnergyModelTest {
+
+    private final EnergyModel model = new EnergyModel(0.5, 10, 64);
+
+    private Drone drone(double capacityKg, double rangeKm) {
+        Drone d = new Drone();
+        d.setCapacityKg(capacityKg);
+        d.setRangeKm(rangeKm);
+        return d;
+    }
+
+    @Test
+    void vazio_consomeCemPorCentoNoAlcanceNominal() {
+        EnergyModel.Table t = model.tableFor(drone(5.0, 20.0));
+        assertThat(t.pctPerKm(0.0) * 20.0).isCloseTo(100.0, within(1e-9));
+    }
+
+    @Test
+    void cargaCheia_aumentaConsumoPeloFator() {
+        EnergyModel.Table t = model.tableFor(drone(5.0, 20.0));
+        assertThat(t.pctPerKm(5.0)).isCloseTo(5.0 * 1.5, within(1e-9));
+        assertThat(t.pctPerKm(50.0)).isCloseTo(5.0 * 1.5, within(1e-9));
+    }
+
+    @Test
+    void consumoCresceComACarga_eArredondaFaixaParaCima() {
+        EnergyModel.Table t = model.tableFor(drone(5.0, 20.0));
+        assertThat(t.pctPerKm(1.0)).isGreaterThan(t.pctPerKm(0.0));
+        assertThat(t.pctPerKm(2.0)).isGreaterThan(t.pctPerKm(1.0));
+        assertThat(t.pctPerKm(1.0)).isGreaterThanOrEqualTo(5.0 * (1.0 + 0.5 * 1.0 / 5.0));
+    }
+
+    @Test
+    void tabelaECompartilhadaPorEspecificacao() {
+        assertThat(model.tableFor(drone(5.0, 20.0))).isSameAs(model.tableFor(drone(5.0, 20.0)));
+        assertThat(model.tableFor(drone(5.0, 20.0))).isNotSameAs(model.tableFor(drone(8.0, 20.0)));
+    }
+
+    @Test
+    void usablePct_descontaReserva() {
+        assertThat(model.usablePct(100)).isEqualTo(90.0);
+        assertThat(model.usablePct(5)).isEqualTo(0.0);
+    }
+}
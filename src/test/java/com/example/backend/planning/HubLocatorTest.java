@@ -0,0 +1,46 @@
+package com.example.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HubLocatorTest {
+
+    @Test
+    void nearest_igualBuscaExaustiva() {
+        Random rnd = new Random(42);
+        int n = 40;
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = rnd.nextInt(201) - 100;
+            ys[i] = rnd.nextInt(201) - 100;
+        }
+
+        DistanceModel model = new ManhattanDistance();
+        HubLocator locator = new HubLocator(xs, ys);
+
+        for (int q = 0; q < 500; q++) {
+            int x = rnd.nextInt(301) - 150;
+            int y = rnd.nextInt(301) - 150;
+
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (i % 3 != 0) best = Math.min(best, model.distance(xs[i], ys[i], x, y));
+            }
+
+            int found = locator.nearest(x, y, model, i -> i % 3 != 0);
+            assertThat(found % 3).isNotZero();
+            assertThat(model.distance(xs[found], ys[found], x, y)).isEqualTo(best);
+        }
+    }
+
+    @Test
+    void nearest_nenhumViavel_retornaMenosUm() {
+        HubLocator locator = new HubLocator(new int[]{0, 10}, new int[]{0, 10});
+        assertThat(locator.nearest(5, 5, new EuclideanDistance(), i -> false)).isEqualTo(-1);
+        assertThat(new HubLocator(new int[0], new int[0]).nearest(0, 0, new EuclideanDistance(), i -> true)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HungarianTest {
+
+    @Test
+    void solve_quadrada_encontraCustoMinimo() {
+        double[][] cost = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}};
+
+        assertThat(Hungarian.solve(cost)).containsExactly(1, 0, 2);
+    }
+
+    @Test
+    void solve_maisColunasQueLinhas_usaColunasDistintas() {
+        double[][] cost = {
+                {5, 1, 9, 7},
+                {5, 2, 9, 1}};
+
+        assertThat(Hungarian.solve(cost)).containsExactly(1, 3);
+    }
+
+    @Test
+    void solve_evitaParesProibidos() {
+        double F = Hungarian.FORBIDDEN;
+        double[][] cost = {
+                {1, 2},
+                {0, F}};
+
+        assertThat(Hungarian.solve(cost)).containsExactly(1, 0);
+    }
+
+    @Test
+    void solve_maisLinhasQueColunas_lancaIllegalArgument() {
+        assertThatThrownBy(() -> Hungarian.solve(new double[][]{{1}, {2}})).isInstanceOf(IllegalArgumentException.class);
+    }
+}
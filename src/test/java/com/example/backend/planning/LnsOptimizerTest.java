@@ -0,0 +1,102 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LnsOptimizerTest {
+
+    private final EnergyModel energy = new EnergyModel(0.5, 10, 64);
+    private final LnsOptimizer lns = new LnsOptimizer(energy, 2);
+
+    private static Drone drone(long id, double capacityKg, double rangeKm) {
+        Drone d = new Drone();
+        d.setId(id);
+        d.setCapacityKg(capacityKg);
+        d.setRangeKm(rangeKm);
+        return d;
+    }
+
+    private static Order order(int x, int y, double w, Order.Priority p) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(w);
+        o.setPriority(p);
+        return o;
+    }
+
+    private static PlanningStrategy.PlannedRoute route(Drone d, PlanningProblem p, int... stops) {
+        return new PlanningStrategy.PlannedRoute(d, stops.clone(), stops.clone(), stops.length,
+                p.routeDistance(stops, stops.length));
+    }
+
+    private static double total(PlanningStrategy.Solution s) {
+        return s.routes().stream().mapToDouble(PlanningStrategy.PlannedRoute::dist).sum();
+    }
+
+    private static long deadline(long ms) {
+        return System.nanoTime() + ms * 1_000_000L;
+    }
+
+    @Test
+    void improve_juntaViagensSeparadasDeVizinhos() {
+        Drone d = drone(1, 5.0, 40.0);
+        PlanningProblem p = PlanningProblem.of(List.of(
+                order(6, 0, 1.0, Order.Priority.MEDIUM),
+                order(6, 2, 1.0, Order.Priority.MEDIUM)), 0, 0, new ManhattanDistance());
+        PlanningStrategy.Solution initial = new PlanningStrategy.Solution(
+                List.of(route(d, p, 0), route(d, p, 1)), 0);
+
+        LnsOptimizer.Progress progress = new LnsOptimizer.Progress();
+        PlanningStrategy.Solution best = lns.improve(p, List.of(d), x -> 100.0, initial, deadline(300), 2, progress);
+
+        assertThat(total(initial)).isEqualTo(28.0);
+        assertThat(best.routes()).hasSize(1);
+        assertThat(total(best)).isEqualTo(16.0);
+        assertThat(progress.bestDistanceKm()).isEqualTo(16.0);
+        assertThat(progress.iterations()).isPositive();
+    }
+
+    @Test
+    void improve_nuncaPiora_eRespeitaOPrazo() {
+        Drone d1 = drone(1, 4.0, 30.0);
+        Drone d2 = drone(2, 4.0, 30.0);
+        List<Order> orders = List.of(
+                order(3, 1, 1.5, Order.Priority.HIGH),
+                order(-4, 2, 2.0, Order.Priority.MEDIUM),
+                order(5, -3, 1.0, Order.Priority.LOW),
+                order(-2, -6, 2.5, Order.Priority.MEDIUM),
+                order(7, 4, 0.5, Order.Priority.LOW),
+                order(1, 8, 1.0, Order.Priority.HIGH));
+        PlanningProblem p = PlanningProblem.of(orders, 0, 0, new ManhattanDistance());
+        PlanningStrategy.Solution initial = new GreedyKnapsackStrategy(energy)
+                .plan(p, List.of(d1, d2), x -> 100.0, new PhaseTimes());
+
+        long start = System.nanoTime();
+        PlanningStrategy.Solution best = lns.improve(p, List.of(d1, d2), x -> 100.0, initial, deadline(200), 4,
+                new LnsOptimizer.Progress());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        int servedBefore = initial.routes().stream().mapToInt(PlanningStrategy.PlannedRoute::len).sum();
+        int servedAfter = best.routes().stream().mapToInt(PlanningStrategy.PlannedRoute::len).sum();
+        assertThat(servedAfter).isGreaterThanOrEqualTo(servedBefore);
+        if (servedAfter == servedBefore) assertThat(total(best)).isLessThanOrEqualTo(total(initial) + 1e-9);
+        assertThat(elapsedMs).isLessThan(2_000);
+    }
+
+    @Test
+    void improve_prazoVencido_devolveSolucaoInicial() {
+        Drone d = drone(1, 5.0, 40.0);
+        PlanningProblem p = PlanningProblem.of(List.of(order(6, 0, 1.0, Order.Priority.MEDIUM)), 0, 0,
+                new ManhattanDistance());
+        PlanningStrategy.Solution initial = new PlanningStrategy.Solution(List.of(route(d, p, 0)), 0);
+
+        assertThat(lns.improve(p, List.of(d), x -> 100.0, initial, System.nanoTime() - 1, 2,
+                new LnsOptimizer.Progress())).isSameAs(initial);
+    }
+}
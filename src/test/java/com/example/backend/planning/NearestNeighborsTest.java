@@ -0,0 +1,52 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NearestNeighborsTest {
+
+    private static PlanningProblem line(int n) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Order o = new Order();
+            o.setCustomerX(i * 2);
+            o.setCustomerY(0);
+            o.setWeightKg(1.0);
+            o.setPriority(Order.Priority.LOW);
+            orders.add(o);
+        }
+        return PlanningProblem.of(orders, 0, 0, new ManhattanDistance());
+    }
+
+    @Test
+    void nearest_devolveOsKMaisProximosEmOrdemCrescente() {
+        PlanningProblem p = line(10);
+
+        int[] near = NearestNeighbors.nearest(p, null, 5, 4, new double[4], new int[4]);
+
+        assertThat(near).hasSize(4);
+        assertThat(near[0]).isIn(4, 6);
+        assertThat(near[1]).isIn(4, 6);
+        assertThat(near[2]).isIn(3, 7);
+        assertThat(near[3]).isIn(3, 7);
+        for (int k = 1; k < near.length; k++) {
+            assertThat(p.distance(5, near[k])).isGreaterThanOrEqualTo(p.distance(5, near[k - 1]));
+        }
+    }
+
+    @Test
+    void nearest_ignoraInelegiveisEOProprioPedido() {
+        PlanningProblem p = line(6);
+        boolean[] eligible = {true, true, false, true, false, true};
+
+        int[] near = NearestNeighbors.nearest(p, eligible, 3, 10, new double[10], new int[10]);
+
+        assertThat(near).containsExactlyInAnyOrder(1, 5, 0);
+        assertThat(near[2]).isEqualTo(0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compara as estratégias no mesmo backlog sintético, em vários tamanhos: pedidos atendidos, viagens,
+ * distância total e tempo (mediana de várias execuções). Imprime a tabela e grava em
+ * {@code target/strategy-benchmark.txt}. Fora do {@code mvn test}; rode com {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+class PlanningStrategyBenchmarkTest {
+
+    private static final int[] SIZES = {25, 100, 300, 1000};
+    private static final int RUNS = 5;
+
+    @Test
+    void comparaEstrategias() throws Exception {
+        EnergyModel energy = new EnergyModel(0.5, 10, 64);
+        List<PlanningStrategy> strategies = List.of(new GreedyKnapsackStrategy(energy), new SavingsStrategy(energy),
+                new AssignmentStrategy(energy));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-10s %6s %8s %7s %12s %10s%n",
+                "strategy", "orders", "planned", "trips", "distance km", "median ms"));
+
+        for (int n : SIZES) {
+            List<Order> backlog = backlog(n, new Random(n));
+            List<Drone> fleet = fleet(Math.max(2, n / 25));
+
+            for (PlanningStrategy s : strategies) {
+                long[] nanos = new long[RUNS];
+                PlanningStrategy.Solution solution = null;
+
+                for (int r = 0; r < RUNS; r++) {
+                    // problema novo a cada execução: a matriz de distâncias (preenchida sob demanda) começa vazia,
+                    // então nenhuma estratégia herda as distâncias já calculadas pela anterior
+                    PlanningProblem problem = PlanningProblem.of(backlog, 0, 0, new ManhattanDistance());
+                    long start = System.nanoTime();
+                    solution = s.plan(problem, fleet, d -> 100.0, new PhaseTimes());
+                    nanos[r] = System.nanoTime() - start;
+                }
+                Arrays.sort(nanos);
+
+                int planned = solution.routes().stream().mapToInt(PlanningStrategy.PlannedRoute::len).sum();
+                double distance = solution.routes().stream().mapToDouble(PlanningStrategy.PlannedRoute::dist).sum();
+                sb.append(String.format(Locale.ROOT, "%-10s %6d %8d %7d %12.1f %10.2f%n",
+                        s.name(), n, planned, solution.routes().size(), distance, nanos[RUNS / 2] / 1e6));
+
+                assertThat(planned).isPositive();
+            }
+        }
+
+        System.out.print(sb);
+        Path out = Path.of("target/strategy-benchmark.txt");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, sb.toString());
+    }
+
+    private static List<Order> backlog(int n, Random rnd) {
+        Order.Priority[] priorities = Order.Priority.values();
+        List<Order> orders = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Order o = new Order();
+            o.setCustomerX(rnd.nextInt(31) - 15);
+            o.setCustomerY(rnd.nextInt(31) - 15);
+            o.setWeightKg(0.2 + rnd.nextDouble() * 2.8);
+            o.setPriority(priorities[rnd.nextInt(priorities.length)]);
+            orders.add(o);
+        }
+        return orders;
+    }
+
+    private static List<Drone> fleet(int size) {
+        List<Drone> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Drone d = new Drone();
+            d.setId((long) i + 1);
+            d.setCapacityKg(i % 2 == 0 ? 8.0 : 5.0);
+            d.setRangeKm(i % 2 == 0 ? 60.0 : 80.0);
+            d.setSpeedKmh(i % 3 == 0 ? 60.0 : 40.0);
+            fleet.add(d);
+        }
+        return fleet;
+    }
+}
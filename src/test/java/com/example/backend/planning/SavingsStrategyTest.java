@@ -0,0 +1,90 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SavingsStrategyTest {
+
+    private final EnergyModel energy = new EnergyModel(0.5, 10, 64);
+    private final SavingsStrategy savings = new SavingsStrategy(energy);
+
+    private static Drone drone(long id, double capacityKg, double rangeKm) {
+        Drone d = new Drone();
+        d.setId(id);
+        d.setCapacityKg(capacityKg);
+        d.setRangeKm(rangeKm);
+        return d;
+    }
+
+    private static Order order(int x, int y, double w, Order.Priority p) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(w);
+        o.setPriority(p);
+        return o;
+    }
+
+    private PlanningStrategy.Solution plan(List<Order> orders, List<Drone> fleet) {
+        PlanningProblem p = PlanningProblem.of(orders, 0, 0, new ManhattanDistance());
+        return savings.plan(p, fleet, d -> 100.0, new PhaseTimes());
+    }
+
+    @Test
+    void heap_devolveMaiorEconomiaPrimeiro() {
+        SavingsStrategy.SavingsHeap heap = new SavingsStrategy.SavingsHeap(1);
+        double[] values = {3, 9, 1, 7, 5, 9, 2};
+        for (int i = 0; i < values.length; i++) heap.push(values[i], i, i);
+
+        List<Double> popped = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            popped.add(heap.topSaving());
+            heap.pop();
+        }
+        assertThat(popped).containsExactly(9.0, 9.0, 7.0, 5.0, 3.0, 2.0, 1.0);
+    }
+
+    @Test
+    void plan_vizinhosNoMesmoLado_viramUmaViagem() {
+        List<Order> orders = List.of(
+                order(6, 0, 1.0, Order.Priority.MEDIUM),
+                order(6, 2, 1.0, Order.Priority.MEDIUM),
+                order(-6, 0, 1.0, Order.Priority.MEDIUM));
+
+        PlanningStrategy.Solution s = plan(orders, List.of(drone(1, 5.0, 40.0)));
+
+        assertThat(s.routes()).hasSize(2);
+        assertThat(s.routes()).extracting(PlanningStrategy.PlannedRoute::len).containsExactlyInAnyOrder(2, 1);
+        assertThat(s.routes().stream().mapToDouble(PlanningStrategy.PlannedRoute::dist).sum()).isEqualTo(16.0 + 12.0);
+    }
+
+    @Test
+    void plan_respeitaCapacidadeEPrioridade() {
+        List<Order> orders = List.of(
+                order(6, 0, 3.0, Order.Priority.LOW),
+                order(6, 1, 3.0, Order.Priority.HIGH));
+
+        PlanningStrategy.Solution s = plan(orders, List.of(drone(1, 5.0, 40.0)));
+
+        // juntos passariam de 5 kg: duas viagens, a HIGH primeiro
+        assertThat(s.routes()).hasSize(2);
+        assertThat(s.routes().get(0).delivery()[0]).isEqualTo(1);
+        assertThat(s.rejectedPacks()).isZero();
+    }
+
+    @Test
+    void plan_pedidoForaDoAlcance_ficaDeFora() {
+        List<Order> orders = List.of(order(30, 0, 1.0, Order.Priority.HIGH), order(2, 2, 1.0, Order.Priority.LOW));
+
+        PlanningStrategy.Solution s = plan(orders, List.of(drone(1, 5.0, 20.0)));
+
+        assertThat(s.routes()).hasSize(1);
+        assertThat(s.routes().get(0).delivery()[0]).isEqualTo(1);
+    }
+}
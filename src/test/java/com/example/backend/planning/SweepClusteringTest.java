@@ -0,0 +1,52 @@
+package com.example.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SweepClusteringTest {
+
+    @Test
+    void split_particionaTodosOsPedidosEmKSetores() {
+        Random rnd = new Random(7);
+        int n = 300;
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        double[] w = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = rnd.nextInt(81) - 40;
+            ys[i] = rnd.nextInt(81) - 40;
+            w[i] = 0.5 + rnd.nextDouble() * 4;
+        }
+
+        int[][] groups = SweepClustering.split(xs, ys, w, 0, 0, 4);
+
+        assertThat(groups).hasNumberOfRows(4);
+        int[] all = Arrays.stream(groups).flatMapToInt(Arrays::stream).sorted().toArray();
+        assertThat(all).hasSize(n);
+        for (int i = 0; i < n; i++) assertThat(all[i]).isEqualTo(i);
+
+        // equilíbrio: nenhum setor passa de 2n/k pedidos
+        for (int[] g : groups) assertThat(g.length).isBetween(1, 2 * n / 4);
+    }
+
+    @Test
+    void split_gruposSeparados_naoSaoMisturados() {
+        // três pedidos a leste e três a oeste do hub
+        int[] xs = {10, 11, 10, -10, -11, -10};
+        int[] ys = {1, 0, -1, 1, 0, -1};
+        double[] w = {1, 1, 1, 1, 1, 1};
+
+        int[][] groups = SweepClustering.split(xs, ys, w, 0, 0, 2);
+
+        assertThat(groups).hasNumberOfRows(2);
+        for (int[] g : groups) {
+            assertThat(g).hasSize(3);
+            int sign = Integer.signum(xs[g[0]]);
+            for (int i : g) assertThat(Integer.signum(xs[i])).isEqualTo(sign);
+        }
+    }
+}
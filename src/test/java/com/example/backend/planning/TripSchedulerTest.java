@@ -0,0 +1,132 @@
+package com.example.backend.planning;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TripSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final EnergyModel energy = new EnergyModel(0.5, 10, 64);
+    // 2 min de solo, 10% por minuto de recarga
+    private final TripScheduler scheduler = new TripScheduler(energy, Duration.ofMinutes(2), 10.0);
+
+    private static Drone drone(long id, int batteryPct) {
+        Drone d = new Drone();
+        d.setId(id);
+        d.setCapacityKg(5.0);
+        d.setRangeKm(40.0);
+        d.setSpeedKmh(60.0);
+        d.setBatteryPct(batteryPct);
+        return d;
+    }
+
+    private static Order order(int x, int y, Order.Priority p) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(1.0);
+        o.setPriority(p);
+        return o;
+    }
+
+    private static TripScheduler.Job job(PlanningProblem p, Drone d, int stop) {
+        int[] route = {stop};
+        return new TripScheduler.Job(p, new PlanningStrategy.PlannedRoute(d, route, route, 1, p.routeDistance(route, 1)));
+    }
+
+    @Test
+    void schedule_mesmoDrone_encadeiaComTempoDeSolo() {
+        Drone d = drone(1, 100);
+        // 10 km ida e volta a 60 km/h = 10 min cada
+        PlanningProblem p = PlanningProblem.of(List.of(
+                order(5, 0, Order.Priority.MEDIUM),
+                order(0, 5, Order.Priority.MEDIUM)), 0, 0, new ManhattanDistance());
+
+        List<TripScheduler.Slot> slots = scheduler.schedule(List.of(job(p, d, 0), job(p, d, 1)), List.of(d), Map.of(), NOW);
+
+        assertThat(slots).hasSize(2);
+        assertThat(slots.get(0).startAt()).isEqualTo(NOW);
+        assertThat(slots.get(0).finishAt()).isEqualTo(NOW.plus(Duration.ofMinutes(10)));
+        assertThat(slots.get(1).startAt()).isEqualTo(NOW.plus(Duration.ofMinutes(12)));
+    }
+
+    @Test
+    void schedule_distribuiViagensEntreDronesLivres() {
+        Drone a = drone(1, 100);
+        Drone b = drone(2, 100);
+        PlanningProblem p = PlanningProblem.of(List.of(
+                order(5, 0, Order.Priority.MEDIUM),
+                order(0, 5, Order.Priority.MEDIUM)), 0, 0, new ManhattanDistance());
+
+        // a estratégia pôs as duas no drone 'a'; o agendador usa o 'b' que está parado
+        List<TripScheduler.Slot> slots = scheduler.schedule(List.of(job(p, a, 0), job(p, a, 1)), List.of(a, b), Map.of(), NOW);
+
+        assertThat(slots).extracting(s -> s.drone().getId()).containsExactly(1L, 2L);
+        assertThat(slots).allSatisfy(s -> assertThat(s.startAt()).isEqualTo(NOW));
+    }
+
+    @Test
+    void schedule_droneOcupado_esperaAVolta() {
+        Drone d = drone(1, 100);
+        PlanningProblem p = PlanningProblem.of(List.of(order(5, 0, Order.Priority.HIGH)), 0, 0, new ManhattanDistance());
+        Instant back = NOW.plus(Duration.ofMinutes(30));
+
+        List<TripScheduler.Slot> slots = scheduler.schedule(List.of(job(p, d, 0)), List.of(d),
+                Map.of(1L, new TripScheduler.Availability(back, 90.0)), NOW);
+
+        assertThat(slots.get(0).startAt()).isEqualTo(back);
+    }
+
+    @Test
+    void schedule_bateriaBaixa_recarregaAntes() {
+        Drone d = drone(1, 20);
+        PlanningProblem p = PlanningProblem.of(List.of(order(10, 0, Order.Priority.LOW)), 0, 0, new ManhattanDistance());
+
+        List<TripScheduler.Slot> slots = scheduler.schedule(List.of(job(p, d, 0)), List.of(d), Map.of(), NOW);
+
+        // 20% -> 100% a 10%/min = 8 min
+        assertThat(slots.get(0).startAt()).isEqualTo(NOW.plus(Duration.ofMinutes(8)));
+    }
+
+    @Test
+    void schedule_urgenteSaiPrimeiro() {
+        Drone d = drone(1, 100);
+        PlanningProblem p = PlanningProblem.of(List.of(
+                order(5, 0, Order.Priority.LOW),
+                order(0, 5, Order.Priority.HIGH)), 0, 0, new ManhattanDistance());
+
+        List<TripScheduler.Slot> slots = scheduler.schedule(List.of(job(p, d, 0), job(p, d, 1)), List.of(d), Map.of(), NOW);
+
+        assertThat(slots.get(0).job()).isEqualTo(1);
+        assertThat(slots.get(1).job()).isEqualTo(0);
+    }
+
+    @Test
+    void schedule_pesoNoLimiteDaCarga_esperaODroneCompativel() {
+        Drone d = drone(1, 100);
+        d.setCapacityKg(0.3);
+        Order a = order(5, 0, Order.Priority.MEDIUM);
+        a.setWeightKg(0.1);
+        Order b = order(5, 5, Order.Priority.MEDIUM);
+        b.setWeightKg(0.2);
+        PlanningProblem p = PlanningProblem.of(List.of(a, b), 0, 0, new ManhattanDistance());
+        int[] route = {0, 1};
+        TripScheduler.Job job = new TripScheduler.Job(p, new PlanningStrategy.PlannedRoute(d, route, route, 2, p.routeDistance(route, 2)));
+        Instant back = NOW.plus(Duration.ofMinutes(30));
+
+        // 0.1 + 0.2 passa de 0.3 em double; sem tolerância a rota cairia no fallback e sairia agora
+        List<TripScheduler.Slot> slots = scheduler.schedule(List.of(job), List.of(d),
+                Map.of(1L, new TripScheduler.Availability(back, 100.0)), NOW);
+
+        assertThat(slots.get(0).startAt()).isEqualTo(back);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.*;
+
+/* Planejador em segundo plano ligado, com espera curta para o lote fechar logo */
+@SpringBootTest(properties = {
+        "app.planning.background.enabled=true",
+        "app.planning.background.max-wait=PT0.1S",
+        "app.planning.background.max-batch=10",
+        "app.planning.background.interval=PT1H"})
+@ActiveProfiles("test")
+class BackgroundPlannerTest {
+
+    @Autowired OrderService orderService;
+    @Autowired DroneService droneService;
+    @Autowired MeterRegistry registry;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+    }
+
+    private Order newOrder(int x, int y) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(1.0);
+        o.setPriority(Order.Priority.HIGH);
+        return orderService.create(o);
+    }
+
+    private Order.Status awaitStatus(Long id, Order.Status expected) throws InterruptedException {
+        Order.Status status = null;
+        for (int i = 0; i < 100; i++) {
+            status = orderService.getById(id).getStatus();
+            if (status == expected) break;
+            Thread.sleep(50);
+        }
+        return status;
+    }
+
+    @Test
+    void pedidoNovo_ehPlanejadoSemChamarPlan() throws Exception {
+        Drone d = new Drone();
+        d.setName("D-Background");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        droneService.create(d);
+
+        Order o = newOrder(2, 2);
+
+        assertThat(awaitStatus(o.getId(), Order.Status.PLANNED)).isEqualTo(Order.Status.PLANNED);
+        assertThat(registry.get("planning.background.lag").timer().count()).isPositive();
+        assertThat(registry.get("planning.background.batches").counter().count()).isPositive();
+    }
+
+    @Test
+    void pedidoQueFicaPendente_naoEntraNoLag() throws Exception {
+        // pedido mais pesado que o único drone: o lote roda, mas o pedido continua PENDING
+        Drone d = new Drone();
+        d.setName("D-Leve");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        droneService.create(d);
+
+        double lagBefore = registry.get("planning.background.lag").timer().count();
+        double batchesBefore = registry.get("planning.background.batches").counter().count();
+
+        Order heavy = new Order();
+        heavy.setCustomerX(2);
+        heavy.setCustomerY(2);
+        heavy.setWeightKg(50.0);
+        heavy.setPriority(Order.Priority.HIGH);
+        Order o = orderService.create(heavy);
+
+        for (int i = 0; i < 100 && registry.get("planning.background.batches").counter().count() == batchesBefore; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(registry.get("planning.background.batches").counter().count()).isGreaterThan(batchesBefore);
+        assertThat(orderService.getById(o.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+        assertThat(registry.get("planning.background.lag").timer().count()).isEqualTo((long) lagBefore);
+    }
+}
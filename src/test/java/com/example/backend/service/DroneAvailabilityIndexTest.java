@@ -0,0 +1,92 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Trip;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DroneAvailabilityIndexTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+    private static final Duration HORIZON = Duration.ofMinutes(15);
+
+    // 10% por minuto de recarga
+    private final DroneAvailabilityIndex index = new DroneAvailabilityIndex(10.0);
+
+    private static Drone drone(long id, Drone.Status status, int batteryPct) {
+        Drone d = new Drone();
+        d.setId(id);
+        d.setStatus(status);
+        d.setBatteryPct(batteryPct);
+        d.setUpdatedAt(NOW);
+        return d;
+    }
+
+    private static HotStateCache.ActiveTrip trip(long id, long droneId, Trip.Status status, Instant finishAt) {
+        return new HotStateCache.ActiveTrip(id, droneId, status, finishAt);
+    }
+
+    @Test
+    void availableIds_soIdleESemPrevisaoFicaDeFora() {
+        index.put(drone(1, Drone.Status.IDLE, 100));
+        index.put(drone(2, Drone.Status.EM_VOO, 80));
+        index.put(drone(3, Drone.Status.RETORNANDO, 40));
+
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(1L);
+    }
+
+    @Test
+    void availableIds_viagemTerminaDentroDoHorizonte_entra() {
+        index.put(drone(2, Drone.Status.EM_VOO, 80));
+        index.put(drone(3, Drone.Status.EM_VOO, 80));
+        index.applyTrip(trip(10, 2, Trip.Status.IN_PROGRESS, NOW.plus(Duration.ofMinutes(5))));
+        index.applyTrip(trip(11, 3, Trip.Status.IN_PROGRESS, NOW.plus(Duration.ofMinutes(40))));
+
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(2L);
+
+        index.applyTrip(trip(11, 3, Trip.Status.IN_PROGRESS, NOW.plus(Duration.ofMinutes(10))));
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(2L, 3L);
+
+        index.applyTrip(trip(10, 2, Trip.Status.FINISHED, NOW));
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(3L);
+    }
+
+    @Test
+    void availableIds_carregando_entraQuandoARecargaCabeNoHorizonte() {
+        index.put(drone(4, Drone.Status.CARREGANDO, 90));  // 1 min
+        index.put(drone(5, Drone.Status.CARREGANDO, 0));   // 10 min
+        index.put(drone(6, Drone.Status.CARREGANDO, 0));
+
+        assertThat(index.availableIds(NOW, Duration.ofMinutes(5))).containsExactly(4L);
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(4L, 5L, 6L);
+    }
+
+    @Test
+    void put_mudancaDeStatus_eRemove_atualizamOIndice() {
+        index.put(drone(1, Drone.Status.IDLE, 100));
+        index.put(drone(2, Drone.Status.IDLE, 100));
+
+        index.put(drone(1, Drone.Status.EM_VOO, 100));
+        index.remove(2L);
+        index.put(drone(7, Drone.Status.IDLE, 100));
+
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(7L);
+    }
+
+    @Test
+    void seed_naoSobrescreveEstadoMaisNovo() {
+        Drone fresh = drone(1, Drone.Status.EM_VOO, 70);
+        fresh.setUpdatedAt(NOW.plusSeconds(30));
+        index.put(fresh);
+
+        index.seed(List.of(drone(1, Drone.Status.IDLE, 100), drone(2, Drone.Status.IDLE, 100)), List.of());
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.availableIds(NOW, HORIZON)).containsExactly(2L);
+    }
+}
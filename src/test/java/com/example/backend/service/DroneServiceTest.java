@@ -11,6 +11,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
@@ -116,4 +123,57 @@ class DroneServiceTest {
         assertThat(upd.getLocationX()).isEqualTo(7);
         assertThat(upd.getLocationY()).isEqualTo(9);
     }
-}
\ No newline at end of file
+
+    @Test
+    void mutacoesConcorrentes_naoPerdemAtualizacoes() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Drone d = new Drone();
+            d.setName("D-Stress-" + i);
+            d.setCapacityKg(5.0);
+            d.setRangeKm(20.0);
+            d.setSpeedKmh(40.0);
+            d.setBatteryPct(100);
+            ids.add(droneService.create(d).getId());
+        }
+
+        int rounds = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            // por drone: uma thread de telemetria, uma de bateria e uma de status
+            for (Long id : ids) {
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int r = 1; r <= rounds; r++) droneService.updateLocation(id, r, r);
+                    return null;
+                }));
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int r = 1; r <= rounds; r++) droneService.updateBattery(id, 100 - r);
+                    return null;
+                }));
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int r = 1; r <= rounds; r++) {
+                        droneService.updateStatus(id, r % 2 == 0 ? Drone.Status.EM_VOO : Drone.Status.ENTREGANDO);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : tasks) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (Long id : ids) {
+            Drone d = droneService.getById(id);
+            assertThat(d.getLocationX()).isEqualTo(rounds);
+            assertThat(d.getLocationY()).isEqualTo(rounds);
+            assertThat(d.getBatteryPct()).isEqualTo(100 - rounds);
+            assertThat(d.getStatus()).isEqualTo(Drone.Status.EM_VOO);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.domain.TripStop;
+import com.example.backend.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class EtaServiceTest {
+
+    @Autowired ApplicationEvents events;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Autowired TripStopService stopService;
+    @Autowired TripService tripService;
+    @Autowired OrderService orderService;
+    @Autowired DroneService droneService;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+    }
+
+    // drone a 40 km/h: cada unidade de distância Manhattan custa 90 s
+    private Trip tripWithStops(int... coords) {
+        Drone d = new Drone();
+        d.setName("D-Eta");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(50.0);
+        d.setSpeedKmh(40.0);
+        d = droneService.create(d);
+
+        Trip t = new Trip();
+        t.setDrone(d);
+        Trip trip = tripService.create(t);
+
+        for (int i = 0; i < coords.length; i += 2) {
+            Order o = new Order();
+            o.setCustomerX(coords[i]);
+            o.setCustomerY(coords[i + 1]);
+            o.setWeightKg(1.0);
+            o = orderService.create(o);
+            stopService.create(trip.getId(), o.getId(), coords[i], coords[i + 1], null);
+        }
+        return trip;
+    }
+
+    @Test
+    void markDelivered_recalculaApenasParadasSeguintes() {
+        Trip trip = tripWithStops(1, 1, 2, 2, 4, 2);
+
+        Instant before = Instant.now();
+        stopService.markDelivered(trip.getId(), 1);
+        Instant after = Instant.now();
+
+        List<TripStop> stops = stopService.listByTrip(trip.getId());
+        assertThat(stops.get(0).getEstimatedArrivalAt()).isNull();
+        assertThat(stops.get(1).getEstimatedArrivalAt())
+                .isBetween(before.plusSeconds(180).minusSeconds(1), after.plusSeconds(180).plusSeconds(1));
+        assertThat(stops.get(2).getEstimatedArrivalAt())
+                .isBetween(before.plusSeconds(360).minusSeconds(1), after.plusSeconds(360).plusSeconds(1));
+    }
+
+    @Test
+    void telemetria_recalculaViagemEmAndamentoDoDrone() {
+        Trip trip = tripWithStops(3, 0, 3, 4);
+        tripService.updateStatus(trip.getId(), Trip.Status.IN_PROGRESS);
+        Long droneId = tripService.getById(trip.getId()).getDrone().getId();
+
+        Instant before = Instant.now();
+        droneService.updateLocation(droneId, 1, 0);
+        Instant after = Instant.now();
+
+        List<TripStop> stops = stopService.listByTrip(trip.getId());
+        assertThat(stops.get(0).getEstimatedArrivalAt())
+                .isBetween(before.plusSeconds(180).minusSeconds(1), after.plusSeconds(180).plusSeconds(1));
+        assertThat(stops.get(1).getEstimatedArrivalAt())
+                .isBetween(before.plusSeconds(540).minusSeconds(1), after.plusSeconds(540).plusSeconds(1));
+    }
+
+    @Test
+    void telemetria_semViagemEmAndamento_naoAlteraNada() {
+        Trip trip = tripWithStops(3, 0);
+        Long droneId = tripService.getById(trip.getId()).getDrone().getId();
+
+        droneService.updateLocation(droneId, 1, 0);
+
+        assertThat(stopService.listByTrip(trip.getId()).get(0).getEstimatedArrivalAt()).isNull();
+    }
+
+    @Test
+    void eventoDeEta_soDepoisDoCommit() {
+        Trip trip = tripWithStops(1, 1, 2, 2);
+        events.clear();
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            stopService.markDelivered(trip.getId(), 1);
+            status.setRollbackOnly();
+        });
+        assertThat(events.stream(EtaService.EtaUpdatedEvent.class)).isEmpty();
+
+        stopService.markDelivered(trip.getId(), 1);
+        assertThat(events.stream(EtaService.EtaUpdatedEvent.class))
+                .singleElement()
+                .satisfies(e -> assertThat(e.tripId()).isEqualTo(trip.getId()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Hub;
+import com.example.backend.repository.*;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HubServiceTest {
+
+    @Autowired HubService hubService;
+    @Autowired DroneService droneService;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+    @Autowired HubRepository hubRepo;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+        hubRepo.deleteAll();
+    }
+
+    private Hub newHub(String name, int x, int y) {
+        Hub h = new Hub();
+        h.setName(name);
+        h.setX(x);
+        h.setY(y);
+        return hubService.create(h);
+    }
+
+    @Test
+    void create_semNome_lancaIllegalArgument() {
+        assertThatThrownBy(() -> newHub(" ", 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void delete_comDroneAtribuido_lancaIllegalState() {
+        Hub h = newHub("Norte", 0, 30);
+
+        Drone d = new Drone();
+        d.setName("D-Hub");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        d = droneService.create(d);
+        droneService.assignHub(d.getId(), h.getId());
+
+        assertThatThrownBy(() -> hubService.delete(h.getId())).isInstanceOf(IllegalStateException.class);
+
+        droneService.assignHub(d.getId(), null);
+        hubService.delete(h.getId());
+        assertThat(hubRepo.findById(h.getId())).isEmpty();
+    }
+
+    @Test
+    void assignHub_inexistente_lancaNotFound() {
+        Drone d = new Drone();
+        d.setName("D-Hub");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        Drone saved = droneService.create(d);
+
+        assertThatThrownBy(() -> droneService.assignHub(saved.getId(), 999_999L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+}
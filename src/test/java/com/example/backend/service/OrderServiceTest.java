@@ -2,12 +2,15 @@ package com.example.backend.service;
 
 import com.example.backend.domain.Order;
 import com.example.backend.repository.OrderRepository;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -56,6 +59,20 @@ class OrderServiceTest {
         assertThat(updated.getPriority()).isEqualTo(Order.Priority.HIGH);
     }
 
+    @Test
+    void updateBasicFields_pedidoJaPlanejado_lancaIllegalState() {
+        Order o = new Order();
+        o.setCustomerX(1);
+        o.setCustomerY(1);
+        o.setWeightKg(1.0);
+        o = orderService.create(o);
+        orderService.updateStatus(o.getId(), Order.Status.PLANNED);
+
+        final Long id = o.getId();
+        assertThatThrownBy(() -> orderService.updateBasicFields(id, 5, 6, null, null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
     @Test
     void deleteIfPending_soPermiteQuandoStatusPending() {
         Order o = new Order();
@@ -102,4 +119,70 @@ class OrderServiceTest {
         assertThat(pendings).hasSize(1);
         assertThat(plannedList).hasSize(1);
     }
+
+    @Test
+    void updateStatusAll_atualizaTodosEIncrementaVersao() {
+        Order a = new Order();
+        a.setCustomerX(1);
+        a.setCustomerY(1);
+        a.setWeightKg(1.0);
+        a = orderService.create(a);
+
+        Order b = new Order();
+        b.setCustomerX(2);
+        b.setCustomerY(2);
+        b.setWeightKg(1.0);
+        b = orderService.create(b);
+        Long versionBefore = orderService.getById(b.getId()).getVersion();
+
+        List<Order> updated = orderService.updateStatusAll(List.of(a.getId(), b.getId()), Order.Status.REJECTED);
+
+        assertThat(updated).hasSize(2).allMatch(o -> o.getStatus() == Order.Status.REJECTED);
+        assertThat(orderService.getById(b.getId()).getVersion()).isGreaterThan(versionBefore);
+        assertThat(orderService.listByStatus(Order.Status.PENDING)).isEmpty();
+    }
+
+    @Test
+    void updateStatusAll_idInexistente_lancaNotFound() {
+        Order a = new Order();
+        a.setCustomerX(1);
+        a.setCustomerY(1);
+        a.setWeightKg(1.0);
+        Long id = orderService.create(a).getId();
+
+        assertThatThrownBy(() -> orderService.updateStatusAll(List.of(id, id + 1000), Order.Status.REJECTED))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(orderService.getById(id).getStatus()).isEqualTo(Order.Status.PENDING);
+    }
+
+    @Test
+    void exportByStatus_entregaSoOStatusEAJanela_emOrdemDeId() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order o = new Order();
+            o.setCustomerX(i);
+            o.setCustomerY(i);
+            o.setWeightKg(1.0);
+            ids.add(orderService.create(o).getId());
+        }
+        Instant before = Instant.now().minusSeconds(60);
+        orderService.updateStatusAll(List.of(ids.get(2), ids.get(0)), Order.Status.DELIVERED);
+
+        List<Long> exported = new ArrayList<>();
+        long count = orderService.exportByStatus(Order.Status.DELIVERED, before, Instant.now().plusSeconds(60),
+                o -> exported.add(o.getId()));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).containsExactly(ids.get(0), ids.get(2));
+
+        assertThat(orderService.exportByStatus(Order.Status.DELIVERED, before.minusSeconds(600), before, o -> { }))
+                .isZero();
+    }
+
+    @Test
+    void exportByStatus_janelaInvertida_lancaIllegalArgument() {
+        Instant now = Instant.now();
+        assertThatThrownBy(() -> orderService.exportByStatus(Order.Status.DELIVERED, now, now.minusSeconds(1), o -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
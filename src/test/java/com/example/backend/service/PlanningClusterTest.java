@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.domain.TripStop;
+import com.example.backend.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/* Planejamento com backlog decomposto em clusters (cluster-size baixo para forçar a divisão) */
+@SpringBootTest(properties = "app.planning.cluster-size=3")
+@ActiveProfiles("test")
+class PlanningClusterTest {
+
+    @Autowired PlanningService planning;
+    @Autowired OrderService orderService;
+    @Autowired DroneService droneService;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+    }
+
+    private Drone newDrone(double capacityKg) {
+        Drone d = new Drone();
+        d.setName("D-Cluster");
+        d.setCapacityKg(capacityKg);
+        d.setRangeKm(40.0);
+        d.setSpeedKmh(40.0);
+        return droneService.create(d);
+    }
+
+    private Order newOrder(int x, int y, double w) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(w);
+        o.setPriority(Order.Priority.MEDIUM);
+        return orderService.create(o);
+    }
+
+    @Test
+    void planAll_clustersLesteOeste_viagensNaoCruzamOHub() {
+        newDrone(5.0);
+        newDrone(5.0);
+        for (int y = -1; y <= 1; y++) {
+            newOrder(5, y, 1.0);
+            newOrder(-5, y, 1.0);
+        }
+
+        List<Trip> trips = planning.planAll();
+
+        assertThat(trips).hasSize(2);
+        for (Trip t : trips) {
+            List<TripStop> stops = stopRepo.findByTripIdOrderBySeqAsc(t.getId());
+            assertThat(stops).hasSize(3);
+            int sign = Integer.signum(stops.get(0).getX());
+            assertThat(stops).allSatisfy(s -> assertThat(Integer.signum(s.getX())).isEqualTo(sign));
+        }
+        assertThat(orderService.listByStatus(Order.Status.PENDING)).isEmpty();
+    }
+
+    @Test
+    void planAll_pedidoPesadoNoClusterErrado_atendidoNaSegundaPassada() {
+        newDrone(2.0);
+        newDrone(8.0);
+        // o leste, mais pesado, fica com o drone grande; o pedido de 6 kg a oeste só cabe nele
+        newOrder(5, 0, 1.0);
+        newOrder(5, 1, 1.0);
+        newOrder(6, 0, 6.0);
+        newOrder(-5, 0, 6.0);
+        newOrder(-5, 1, 0.5);
+        newOrder(-6, 0, 0.5);
+
+        planning.planAll();
+
+        assertThat(orderService.listByStatus(Order.Status.PENDING)).isEmpty();
+    }
+
+    @Test
+    void planAll_maisClustersQueDrones_umDroneAtendeTodos() {
+        newDrone(3.0);
+        // 12 pedidos em 4 quadrantes com cluster-size 3: 4 clusters para 1 drone
+        int[][] corners = {{5, 5}, {-5, 5}, {-5, -5}, {5, -5}};
+        for (int[] c : corners) {
+            newOrder(c[0], c[1], 1.0);
+            newOrder(c[0] + Integer.signum(c[0]), c[1], 1.0);
+            newOrder(c[0], c[1] + Integer.signum(c[1]), 1.0);
+        }
+
+        List<Trip> trips = planning.planAll();
+
+        assertThat(orderService.listByStatus(Order.Status.PENDING)).isEmpty();
+        assertThat(trips).hasSize(4);
+        for (Trip t : trips) {
+            List<TripStop> stops = stopRepo.findByTripIdOrderBySeqAsc(t.getId());
+            int sx = Integer.signum(stops.get(0).getX()), sy = Integer.signum(stops.get(0).getY());
+            assertThat(stops).allSatisfy(st -> {
+                assertThat(Integer.signum(st.getX())).isEqualTo(sx);
+                assertThat(Integer.signum(st.getY())).isEqualTo(sy);
+            });
+        }
+
+        // o mesmo drone, em viagens encadeadas sem sobreposição
+        List<Trip> timeline = trips.stream().sorted(Comparator.comparing(Trip::getStartAt)).toList();
+        for (int i = 1; i < timeline.size(); i++) {
+            assertThat(timeline.get(i).getStartAt()).isAfterOrEqualTo(timeline.get(i - 1).getFinishAt());
+        }
+    }
+}
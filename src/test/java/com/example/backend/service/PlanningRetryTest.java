@@ -0,0 +1,123 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.planning.EnergyModel;
+import com.example.backend.planning.GreedyKnapsackStrategy;
+import com.example.backend.planning.PhaseTimes;
+import com.example.backend.planning.PlanningProblem;
+import com.example.backend.planning.PlanningStrategy;
+import com.example.backend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/* Conflito de versão entre a otimização (fora da transação) e a gravação: o plano é refeito e só a tentativa gravada conta */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(PlanningRetryTest.ConflictConfig.class)
+class PlanningRetryTest {
+
+    @Autowired PlanningService planning;
+    @Autowired OrderService orderService;
+    @Autowired DroneService droneService;
+    @Autowired MeterRegistry registry;
+    @Autowired ConflictOnFirstPlan conflict;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+
+    @TestConfiguration
+    static class ConflictConfig {
+        @Bean
+        ConflictOnFirstPlan conflictStrategy(EnergyModel energy, OrderRepository orderRepo) {
+            return new ConflictOnFirstPlan(new GreedyKnapsackStrategy(energy), orderRepo);
+        }
+    }
+
+    /* Armada, a próxima chamada edita um pedido pendente (outro cliente) antes de devolver o plano */
+    static class ConflictOnFirstPlan implements PlanningStrategy {
+        final PlanningStrategy delegate;
+        final OrderRepository orderRepo;
+        final AtomicBoolean armed = new AtomicBoolean();
+
+        ConflictOnFirstPlan(PlanningStrategy delegate, OrderRepository orderRepo) {
+            this.delegate = delegate;
+            this.orderRepo = orderRepo;
+        }
+
+        @Override
+        public String name() {
+            return "conflict";
+        }
+
+        @Override
+        public Solution plan(PlanningProblem problem, List<Drone> fleet, ToDoubleFunction<Drone> startBattery, PhaseTimes times) {
+            if (armed.compareAndSet(true, false)) {
+                Order o = orderRepo.findByStatus(Order.Status.PENDING).get(0);
+                o.setPriority(Order.Priority.HIGH);
+                orderRepo.save(o);
+            }
+            return delegate.plan(problem, fleet, startBattery, times);
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+    }
+
+    @Test
+    void conflitoDeVersao_refazOPlano_eRegistraUmaExecucao() {
+        Drone d = new Drone();
+        d.setName("D-Retry");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        d.setSpeedKmh(40.0);
+        droneService.create(d);
+
+        Order o = new Order();
+        o.setCustomerX(3);
+        o.setCustomerY(4);
+        o.setWeightKg(1.0);
+        o.setPriority(Order.Priority.MEDIUM);
+        orderService.create(o);
+
+        double ordersBefore = registry.get("planning.orders.planned").counter().count();
+        double tripsBefore = registry.get("planning.trips.created").counter().count();
+        long runsBefore = registry.get("planning.run").timer().count();
+
+        long lastRun = planning.recentRuns().stream().mapToLong(PlanRunReport::id).max().orElse(0);
+
+        conflict.armed.set(true);
+        PlanningService.PlanRun run = planning.planAllWithReport("conflict", 0);
+
+        assertThat(run.report().attempts()).isEqualTo(2);
+        // a tentativa descartada não consome número de execução
+        assertThat(run.report().id()).isEqualTo(lastRun + 1);
+        assertThat(planning.getRun(run.report().id()).attempts()).isEqualTo(2);
+        assertThat(run.trips()).hasSize(1);
+        assertThat(orderService.listByStatus(Order.Status.PENDING)).isEmpty();
+
+        assertThat(registry.get("planning.run").timer().count()).isEqualTo(runsBefore + 1);
+        assertThat(registry.get("planning.orders.planned").counter().count() - ordersBefore).isEqualTo(1.0);
+        assertThat(registry.get("planning.trips.created").counter().count() - tripsBefore).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Hub;
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.domain.TripStop;
+import com.example.backend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PlanningServiceTest {
+
+    @Autowired PlanningService planning;
+    @Autowired OrderService orderService;
+    @Autowired DroneService droneService;
+    @Autowired HubService hubService;
+    @Autowired MeterRegistry registry;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+    @Autowired HubRepository hubRepo;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+        hubRepo.deleteAll();
+    }
+
+    private Drone newDrone(int batteryPct) {
+        Drone d = new Drone();
+        d.setName("D-Plan");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        d.setSpeedKmh(40.0);
+        d.setBatteryPct(batteryPct);
+        return droneService.create(d);
+    }
+
+    private Order newOrder(int x, int y, double w, Order.Priority p) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(w);
+        o.setPriority(p);
+        return orderService.create(o);
+    }
+
+    @Test
+    void planAll_bateriaCheia_planejaPedido() {
+        newDrone(100);
+        Order o = newOrder(3, 4, 1.0, Order.Priority.HIGH);
+
+        List<Trip> trips = planning.planAll();
+
+        assertThat(trips).hasSize(1);
+        assertThat(trips.get(0).getTotalDistanceKm()).isEqualTo(14.0);
+        assertThat(orderService.getById(o.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+    }
+
+    @Test
+    void planAll_bateriaInsuficiente_naoCriaViagem() {
+        // ida e volta de 14 km com 1 kg consome ~74%: com 60% (50% utilizável) não cabe
+        newDrone(60);
+        Order o = newOrder(3, 4, 1.0, Order.Priority.HIGH);
+
+        assertThat(planning.planAll()).isEmpty();
+        assertThat(orderService.getById(o.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+    }
+
+    @Test
+    void planAll_pedidoForaDoAlcance_ficaPendenteSemTravarOsDemais() {
+        newDrone(100);
+        Order far = newOrder(30, 0, 1.0, Order.Priority.HIGH);
+        Order near = newOrder(1, 1, 1.0, Order.Priority.LOW);
+
+        List<Trip> trips = planning.planAll();
+
+        assertThat(trips).hasSize(1);
+        assertThat(orderService.getById(far.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+        assertThat(orderService.getById(near.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+    }
+
+    @Test
+    void planAll_chamadasConcorrentes_naoDuplicamViagens() throws Exception {
+        newDrone(100);
+        for (int i = 1; i <= 4; i++) newOrder(i, 0, 1.0, Order.Priority.MEDIUM);
+
+        int callers = 6;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Trip>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return planning.planAll();
+                }));
+            }
+            start.countDown();
+            for (Future<List<Trip>> f : results) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // cada pedido aparece em exatamente uma parada
+        assertThat(stopRepo.count()).isEqualTo(4);
+        assertThat(orderService.listByStatus(Order.Status.PENDING)).isEmpty();
+    }
+
+    @Test
+    void planAll_registraFasesEContadores() {
+        newDrone(100);
+        newOrder(3, 4, 1.0, Order.Priority.HIGH);
+        newOrder(30, 0, 1.0, Order.Priority.LOW); // fora do alcance: fica para trás
+
+        double tripsBefore = registry.get("planning.trips.created").counter().count();
+        double ordersBefore = registry.get("planning.orders.planned").counter().count();
+        long runsBefore = registry.get("planning.run").timer().count();
+
+        planning.planAll();
+
+        assertThat(registry.get("planning.trips.created").counter().count() - tripsBefore).isEqualTo(1.0);
+        assertThat(registry.get("planning.orders.planned").counter().count() - ordersBefore).isEqualTo(1.0);
+        assertThat(registry.get("planning.run").timer().count()).isEqualTo(runsBefore + 1);
+        assertThat(registry.get("planning.phase").tag("phase", "range-check").timer().count()).isPositive();
+    }
+
+    @Test
+    void planAllWithReport_guardaPerfilDaExecucao() {
+        Drone d = newDrone(100);
+        newOrder(3, 4, 1.0, Order.Priority.HIGH);
+        newOrder(1, 1, 1.0, Order.Priority.LOW);
+
+        PlanningService.PlanRun run = planning.planAllWithReport(null, 0);
+        PlanRunReport r = run.report();
+
+        assertThat(r.ordersConsidered()).isEqualTo(2);
+        assertThat(r.ordersPlanned()).isEqualTo(2);
+        assertThat(r.tripsCreated()).isEqualTo(run.trips().size());
+        assertThat(r.tripsPerDrone()).containsEntry(d.getId(), run.trips().size());
+        assertThat(r.distanceAfterSequencingKm()).isLessThanOrEqualTo(r.distanceBeforeSequencingKm() + 1e-9);
+        assertThat(r.statements()).isPositive();
+        assertThat(r.phaseMs()).containsKeys("load", "pack", "sequence", "range-check", "persist");
+
+        assertThat(planning.getRun(r.id())).isEqualTo(r);
+    }
+
+    @Test
+    void planAll_variosHubs_cadaPedidoSaiDoHubMaisProximo() {
+        Hub west = new Hub(); west.setName("Oeste"); west.setX(-30); west.setY(0);
+        Hub east = new Hub(); east.setName("Leste"); east.setX(30); east.setY(0);
+        west = hubService.create(west);
+        east = hubService.create(east);
+
+        Drone dw = droneService.assignHub(newDrone(100).getId(), west.getId());
+        Drone de = droneService.assignHub(newDrone(100).getId(), east.getId());
+
+        // da origem (0,0) nenhum dos dois cabe no alcance de 20 km
+        Order nearWest = newOrder(-28, 1, 1.0, Order.Priority.HIGH);
+        Order nearEast = newOrder(29, -1, 1.0, Order.Priority.HIGH);
+
+        List<Trip> trips = planning.planAll();
+
+        assertThat(trips).hasSize(2);
+        assertThat(trips).allSatisfy(t -> assertThat(t.getTotalDistanceKm()).isLessThanOrEqualTo(6.0));
+        assertThat(trips).extracting(t -> t.getDrone().getId()).containsExactlyInAnyOrder(dw.getId(), de.getId());
+        assertThat(orderService.getById(nearWest.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+        assertThat(orderService.getById(nearEast.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+    }
+
+    @Test
+    void planAllWithReport_savings_juntaPedidosVizinhosNumaViagem() {
+        newDrone(100);
+        Order a = newOrder(4, 0, 1.0, Order.Priority.MEDIUM);
+        Order b = newOrder(4, 1, 1.0, Order.Priority.MEDIUM);
+
+        PlanningService.PlanRun run = planning.planAllWithReport("savings", 0);
+
+        assertThat(run.report().strategy()).isEqualTo("savings");
+        assertThat(run.trips()).hasSize(1);
+        assertThat(run.trips().get(0).getTotalDistanceKm()).isEqualTo(10.0);
+        assertThat(orderService.getById(a.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+        assertThat(orderService.getById(b.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+    }
+
+    @Test
+    void planAllWithReport_strategyDesconhecida_lancaIllegalArgument() {
+        assertThatThrownBy(() -> planning.planAllWithReport("magic", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(planning.strategies()).contains("greedy", "savings", "assignment");
+    }
+
+    @Test
+    void planAllWithReport_comBudget_refinaEExpoeProgresso() {
+        newDrone(100);
+        Order a = newOrder(4, 0, 1.0, Order.Priority.MEDIUM);
+        Order b = newOrder(4, 1, 1.0, Order.Priority.MEDIUM);
+
+        PlanningService.PlanRun run = planning.planAllWithReport(null, 200);
+
+        assertThat(run.trips()).isNotEmpty();
+        assertThat(orderService.getById(a.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+        assertThat(orderService.getById(b.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+
+        PlanningService.OptimizationProgress progress = planning.optimizationProgress();
+        assertThat(progress.running()).isFalse();
+        assertThat(progress.budgetMs()).isEqualTo(200);
+        assertThat(progress.bestDistanceKm()).isLessThanOrEqualTo(progress.initialDistanceKm());
+        assertThat(run.trips().stream().mapToDouble(Trip::getTotalDistanceKm).sum())
+                .isCloseTo(progress.bestDistanceKm(), within(1e-9));
+    }
+
+    @Test
+    void planAllWithReport_budgetNegativo_lancaIllegalArgument() {
+        assertThatThrownBy(() -> planning.planAllWithReport(null, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void planAll_duasViagensDoMesmoDrone_encadeiaNaLinhaDoTempo() {
+        newDrone(100);
+        newOrder(3, 0, 3.0, Order.Priority.MEDIUM);
+        newOrder(0, 3, 3.0, Order.Priority.MEDIUM);
+
+        List<Trip> trips = new ArrayList<>(planning.planAll());
+        trips.sort(Comparator.comparing(Trip::getStartAt));
+
+        // juntos passariam de 5 kg: duas viagens de 6 km (9 min), separadas pelo tempo de solo
+        assertThat(trips).hasSize(2);
+        assertThat(Duration.between(trips.get(0).getStartAt(), trips.get(0).getFinishAt())).isEqualTo(Duration.ofMinutes(9));
+        assertThat(Duration.between(trips.get(0).getFinishAt(), trips.get(1).getStartAt())).isEqualTo(Duration.ofMinutes(2));
+        // ETAs da segunda viagem contam a partir da saída dela, não do momento do plano
+        assertThat(stopRepo.findAll().stream().map(TripStop::getEstimatedArrivalAt).max(Comparator.naturalOrder()).orElseThrow())
+                .isAfter(trips.get(1).getStartAt());
+    }
+
+    @Test
+    void planAll_droneComViagemAberta_novaViagemSaiDepoisDaVolta() {
+        newDrone(100);
+        newOrder(3, 0, 1.0, Order.Priority.MEDIUM);
+        Trip first = planning.planAll().get(0);
+
+        newOrder(0, 3, 1.0, Order.Priority.MEDIUM);
+        Trip second = planning.planAll().get(0);
+
+        assertThat(second.getStartAt()).isAfterOrEqualTo(first.getFinishAt().plus(Duration.ofMinutes(2)));
+        assertThat(planning.recentRuns().get(0).makespanMinutes()).isGreaterThan(0.0);
+    }
+
+    @Test
+    void planAll_ignoraDronesOcupadosSemPrevisaoDeVolta() {
+        Drone busy = newDrone(100);
+        droneService.updateStatus(busy.getId(), Drone.Status.EM_VOO);
+        Drone idle = newDrone(100);
+        newOrder(3, 4, 1.0, Order.Priority.HIGH);
+
+        List<Trip> trips = planning.planAll();
+
+        assertThat(trips).hasSize(1);
+        assertThat(trips.get(0).getDrone().getId()).isEqualTo(idle.getId());
+    }
+
+    @Test
+    void planAll_droneEmVooSemOutroDisponivel_pedidoFicaPendente() {
+        Drone busy = newDrone(100);
+        droneService.updateStatus(busy.getId(), Drone.Status.RETORNANDO);
+        Order o = newOrder(3, 4, 1.0, Order.Priority.HIGH);
+
+        assertThat(planning.planAll()).isEmpty();
+        assertThat(orderService.getById(o.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+    }
+
+    @Test
+    void planRollingHorizon_soGravaViagensQueSaemDentroDoHorizonte() {
+        newDrone(100);
+        Order first = newOrder(3, 0, 3.0, Order.Priority.HIGH);
+        Order later = newOrder(0, 3, 3.0, Order.Priority.LOW);
+
+        // o drone só leva um pedido por vez: a segunda viagem sairia depois de 11 min
+        PlanningService.PlanRun run = planning.planRollingHorizon(Duration.ofMinutes(5));
+
+        assertThat(run.trips()).hasSize(1);
+        assertThat(orderService.getById(first.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+        assertThat(orderService.getById(later.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.repository.DroneRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TripRepository;
+import com.example.backend.repository.TripStopRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StateSnapshotServiceTest {
+
+    @Autowired StateSnapshotService snapshots;
+    @Autowired HotStateCache hotState;
+    @Autowired DroneService droneService;
+    @Autowired OrderService orderService;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+    @Autowired PlatformTransactionManager txManager;
+
+    @TempDir Path dir;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+        hotState.clear();
+    }
+
+    @AfterEach
+    void coolDown() {
+        // o contexto é compartilhado com os outros testes, que esperam o cache frio
+        hotState.clear();
+    }
+
+    private Drone newDrone(String name) {
+        Drone d = new Drone();
+        d.setName(name);
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        d.setSpeedKmh(40.0);
+        d.setBatteryPct(100);
+        return droneService.create(d);
+    }
+
+    private Order newOrder(int x, int y) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(1.0);
+        return orderService.create(o);
+    }
+
+    @Test
+    void restore_semSnapshot_fazCargaCompleta() {
+        Drone d = newDrone("D-Full");
+        Order o = newOrder(1, 1);
+
+        snapshots.restore(dir.resolve("missing.json"));
+
+        assertThat(hotState.isWarm()).isTrue();
+        assertThat(hotState.droneIds()).containsExactly(d.getId());
+        assertThat(hotState.pendingOrderIds()).containsExactly(o.getId());
+    }
+
+    @Test
+    void restore_reaplicaSomenteMudancasPosterioresAoSnapshot() {
+        Drone d1 = newDrone("D-Snap-1");
+        Drone d2 = newDrone("D-Snap-2");
+        Order o1 = newOrder(1, 1);
+        Order o2 = newOrder(2, 2);
+        snapshots.restore(dir.resolve("missing.json"));
+
+        Path file = dir.resolve("hot-state.json");
+        snapshots.writeSnapshot(file);
+        assertThat(Files.exists(file)).isTrue();
+
+        // mudanças depois do snapshot
+        orderService.updateStatus(o1.getId(), Order.Status.REJECTED);
+        orderService.deleteIfPending(o2.getId());
+        Order o3 = newOrder(3, 3);
+        droneService.updateBattery(d1.getId(), 42);
+        droneService.deleteIfIdle(d2.getId());
+
+        hotState.clear();
+        snapshots.restore(file);
+
+        assertThat(hotState.pendingOrderIds()).containsExactly(o3.getId());
+        assertThat(hotState.droneIds()).containsExactly(d1.getId());
+        assertThat(hotState.drones().get(0).getBatteryPct()).isEqualTo(42);
+    }
+
+    @Test
+    void restore_reaplicaTransacaoComFlushAntesECommitDepoisDoSnapshot() {
+        Order o = newOrder(1, 1);
+        snapshots.restore(dir.resolve("missing.json"));
+        Path file = dir.resolve("hot-state.json");
+
+        // flush (updatedAt) antes de takenAt, commit só depois da cópia: o snapshot ainda vê o pedido PENDING
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            Order managed = orderRepo.findById(o.getId()).orElseThrow();
+            managed.setStatus(Order.Status.REJECTED);
+            orderRepo.saveAndFlush(managed);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            snapshots.writeSnapshot(file);
+        });
+
+        hotState.clear();
+        snapshots.restore(file);
+
+        assertThat(hotState.pendingOrderIds()).doesNotContain(o.getId());
+    }
+
+    @Test
+    void listAll_usaCacheQuandoAquecido() {
+        Drone d = newDrone("D-Warm");
+        snapshots.restore(dir.resolve("missing.json"));
+
+        droneService.updateLocation(d.getId(), 4, 5);
+
+        Drone listed = droneService.listAll().get(0);
+        assertThat(listed.getLocationX()).isEqualTo(4);
+        assertThat(listed.getLocationY()).isEqualTo(5);
+    }
+}
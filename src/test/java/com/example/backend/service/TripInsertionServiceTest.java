@@ -0,0 +1,172 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Drone;
+import com.example.backend.domain.Order;
+import com.example.backend.domain.Trip;
+import com.example.backend.domain.TripStop;
+import com.example.backend.repository.*;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TripInsertionServiceTest {
+
+    @Autowired TripInsertionService insertion;
+    @Autowired PlanningService planning;
+    @Autowired TripStopService stopService;
+    @Autowired OrderService orderService;
+    @Autowired DroneService droneService;
+
+    @Autowired TripStopRepository stopRepo;
+    @Autowired TripRepository tripRepo;
+    @Autowired OrderRepository orderRepo;
+    @Autowired DroneRepository droneRepo;
+
+    @BeforeEach
+    void setup() {
+        stopRepo.deleteAll();
+        tripRepo.deleteAll();
+        orderRepo.deleteAll();
+        droneRepo.deleteAll();
+    }
+
+    private Drone newDrone() {
+        Drone d = new Drone();
+        d.setName("D-Insert");
+        d.setCapacityKg(5.0);
+        d.setRangeKm(20.0);
+        d.setSpeedKmh(40.0);
+        d.setBatteryPct(100);
+        return droneService.create(d);
+    }
+
+    private Order newOrder(int x, int y, double w, Order.Priority p) {
+        Order o = new Order();
+        o.setCustomerX(x);
+        o.setCustomerY(y);
+        o.setWeightKg(w);
+        o.setPriority(p);
+        return orderService.create(o);
+    }
+
+    /* Uma viagem hub -> (3,0) -> (3,4) -> hub: 14 km em Manhattan */
+    private Trip plannedTrip() {
+        newDrone();
+        newOrder(3, 0, 1.0, Order.Priority.LOW);
+        newOrder(3, 4, 1.0, Order.Priority.LOW);
+
+        List<Trip> trips = planning.planAll();
+        assertThat(trips).hasSize(1);
+        return trips.get(0);
+    }
+
+    @Test
+    void insertOrder_encaixaNoMeioDaRota_eRenumeraAsParadas() {
+        Trip trip = plannedTrip();
+        Order urgent = newOrder(3, 2, 1.0, Order.Priority.HIGH);
+
+        TripInsertionService.Insertion ins = insertion.insertOrder(urgent.getId());
+
+        assertThat(ins.tripId()).isEqualTo(trip.getId());
+        assertThat(ins.seq()).isEqualTo(2);
+        assertThat(ins.addedKm()).isZero();
+
+        List<TripStop> stops = stopService.listByTrip(trip.getId());
+        assertThat(stops).extracting(TripStop::getSeq).containsExactly(1, 2, 3);
+        assertThat(stops).extracting(TripStop::getY).containsExactly(0, 2, 4);
+        assertThat(stops.get(1).getEstimatedArrivalAt()).isAfter(stops.get(0).getEstimatedArrivalAt());
+        assertThat(stops.get(2).getEstimatedArrivalAt()).isAfter(stops.get(1).getEstimatedArrivalAt());
+
+        Trip updated = tripRepo.findById(trip.getId()).orElseThrow();
+        assertThat(updated.getStopsTotal()).isEqualTo(3);
+        assertThat(updated.getTotalWeight()).isEqualTo(3.0);
+        assertThat(updated.getTotalDistanceKm()).isEqualTo(14.0);
+        assertThat(orderService.getById(urgent.getId()).getStatus()).isEqualTo(Order.Status.PLANNED);
+    }
+
+    @Test
+    void insertOrder_veParadaMovidaDepoisDoCache() {
+        Trip trip = plannedTrip();
+        // tentativa que não cabe: só deixa a rota em cache
+        Order heavy = newOrder(3, 2, 4.0, Order.Priority.LOW);
+        assertThatThrownBy(() -> insertion.insertOrder(heavy.getId())).isInstanceOf(IllegalStateException.class);
+
+        // (3,4) passa para a primeira posição: a rota em cache precisa ser descartada
+        stopService.move(trip.getId(), 2, 1);
+        Order next = newOrder(0, 4, 1.0, Order.Priority.HIGH);
+
+        TripInsertionService.Insertion ins = insertion.insertOrder(next.getId());
+
+        assertThat(ins.seq()).isEqualTo(1);
+        assertThat(stopService.listByTrip(trip.getId())).extracting(TripStop::getY).containsExactly(4, 4, 0);
+    }
+
+    @Test
+    void insertOrder_proximaViagemDoDrone_usaABateriaAtual() {
+        Trip trip = plannedTrip();
+        // a rota com o pedido gasta ~77% e a reserva é 10%: cabe com 100%, não com os 85% que o drone tem
+        Drone drone = droneRepo.findById(trip.getDrone().getId()).orElseThrow();
+        drone.setBatteryPct(85);
+        droneRepo.save(drone);
+        Order o = newOrder(3, 2, 1.0, Order.Priority.HIGH);
+
+        assertThatThrownBy(() -> insertion.insertOrder(o.getId())).isInstanceOf(IllegalStateException.class);
+        assertThat(stopService.listByTrip(trip.getId())).hasSize(2);
+    }
+
+    @Test
+    void insertOrder_naoAtrasaAViagemSeguinteDoDrone() {
+        Trip trip = plannedTrip();
+        // próxima viagem do mesmo drone sai no fim desta mais o tempo de solo: não sobra folga
+        Trip next = new Trip();
+        next.setDrone(trip.getDrone());
+        next.setStatus(Trip.Status.PLANNED);
+        next.setStartAt(trip.getFinishAt().plus(Duration.ofMinutes(2)));
+        next.setFinishAt(next.getStartAt().plus(Duration.ofMinutes(10)));
+        tripRepo.save(next);
+
+        // (4,2) custa 2 km a mais; (3,2) está no caminho e não atrasa nada
+        Order detour = newOrder(4, 2, 1.0, Order.Priority.HIGH);
+        assertThatThrownBy(() -> insertion.insertOrder(detour.getId())).isInstanceOf(IllegalStateException.class);
+
+        Order onTheWay = newOrder(3, 2, 1.0, Order.Priority.HIGH);
+        assertThat(insertion.insertOrder(onTheWay.getId()).tripId()).isEqualTo(trip.getId());
+    }
+
+    @Test
+    void insertOrder_semCapacidade_lanca409_eMantemPending() {
+        Trip trip = plannedTrip();
+        Order heavy = newOrder(3, 2, 4.0, Order.Priority.HIGH);
+
+        assertThatThrownBy(() -> insertion.insertOrder(heavy.getId()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(orderService.getById(heavy.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+        assertThat(stopService.listByTrip(trip.getId())).hasSize(2);
+    }
+
+    @Test
+    void insertOrder_pedidoJaPlanejado_lancaIllegalState() {
+        plannedTrip();
+        Order planned = orderService.listByStatus(Order.Status.PLANNED).get(0);
+
+        assertThatThrownBy(() -> insertion.insertOrder(planned.getId()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void insertOrder_inexistente_lancaNotFound() {
+        assertThatThrownBy(() -> insertion.insertOrder(999_999L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+}
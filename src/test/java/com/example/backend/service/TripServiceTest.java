@@ -13,6 +13,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -109,4 +111,33 @@ class TripServiceTest {
         assertThat(upd.getTotalWeight()).isEqualTo(0.0);
         assertThat(upd.getTotalDistanceKm()).isEqualTo(0.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportByDrone_soViagensDoDrone_maisRecentePrimeiro() {
+        Drone d = newDrone();
+        Drone other = newDrone();
+        Instant base = Instant.now();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Trip t = new Trip();
+            t.setDrone(d);
+            t.setStartAt(base.plusSeconds(i * 60L));
+            ids.add(tripService.create(t).getId());
+        }
+        Trip foreign = new Trip();
+        foreign.setDrone(other);
+        tripService.create(foreign);
+
+        List<Long> exported = new ArrayList<>();
+        List<Long> droneIds = new ArrayList<>();
+        long count = tripService.exportByDrone(d.getId(), t -> {
+            exported.add(t.getId());
+            droneIds.add(t.getDrone().getId());
+        });
+
+        assertThat(count).isEqualTo(3);
+        assertThat(exported).containsExactly(ids.get(2), ids.get(1), ids.get(0));
+        assertThat(droneIds).containsOnly(d.getId());
+    }
+}
@@ -5,6 +5,7 @@ import com.example.backend.domain.Order;
 import com.example.backend.domain.Trip;
 import com.example.backend.domain.TripStop;
 import com.example.backend.repository.*;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +13,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -148,6 +155,112 @@ class TripStopServiceTest {
         assertThat(so2.getStatus()).isEqualTo(Order.Status.DELIVERED);
     }
 
+    @Test
+    void markDeliveredAll_entregaLoteEFinalizaTripUmaVez() {
+        Drone d = newDrone();
+        Trip trip = newPlannedTrip(d);
+        Order o1 = newOrder(1, 1, 1.0);
+        Order o2 = newOrder(2, 2, 1.0);
+        Order o3 = newOrder(3, 3, 1.0);
+
+        stopService.create(trip.getId(), o1.getId(), 1, 1, null);
+        stopService.create(trip.getId(), o2.getId(), 2, 2, null);
+        stopService.create(trip.getId(), o3.getId(), 3, 3, null);
+
+        List<TripStop> firstPass = stopService.markDeliveredAll(trip.getId(), List.of(2, 1));
+        assertThat(firstPass).extracting(TripStop::getSeq).containsExactly(1, 2);
+        assertThat(firstPass).allMatch(TripStop::isDelivered);
+        assertThat(tripService.getById(trip.getId()).getStatus()).isEqualTo(Trip.Status.PLANNED);
+
+        stopService.markDeliveredAll(trip.getId(), List.of(3));
+
+        Trip finished = tripService.getById(trip.getId());
+        assertThat(finished.getStatus()).isEqualTo(Trip.Status.FINISHED);
+        assertThat(finished.getFinishAt()).isNotNull();
+        assertThat(orderService.listByStatus(Order.Status.DELIVERED)).hasSize(3);
+    }
+
+    @Test
+    void markDeliveredAll_seqInexistente_naoEntregaNada() {
+        Drone d = newDrone();
+        Trip trip = newPlannedTrip(d);
+        Order o1 = newOrder(1, 1, 1.0);
+        stopService.create(trip.getId(), o1.getId(), 1, 1, null);
+
+        assertThatThrownBy(() -> stopService.markDeliveredAll(trip.getId(), List.of(1, 9)))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(orderService.getById(o1.getId()).getStatus()).isEqualTo(Order.Status.PENDING);
+    }
+
+    @Test
+    void contadores_acompanhamCriacaoExclusaoEEntrega() {
+        Drone d = newDrone();
+        Trip trip = newPlannedTrip(d);
+        Order o1 = newOrder(1, 1, 1.0);
+        Order o2 = newOrder(2, 2, 1.0);
+        Order o3 = newOrder(3, 3, 1.0);
+
+        stopService.create(trip.getId(), o1.getId(), 1, 1, null);
+        stopService.create(trip.getId(), o2.getId(), 2, 2, null);
+        stopService.create(trip.getId(), o3.getId(), 3, 3, null);
+        stopService.deleteIfPlanned(trip.getId(), 3);
+
+        Trip t = tripService.getById(trip.getId());
+        assertThat(t.getStopsTotal()).isEqualTo(2);
+        assertThat(t.getStopsRemaining()).isEqualTo(2);
+
+        stopService.markDelivered(trip.getId(), 1);
+        stopService.markDelivered(trip.getId(), 1); // repetida não desconta de novo
+
+        t = tripService.getById(trip.getId());
+        assertThat(t.getStopsRemaining()).isEqualTo(1);
+        assertThat(t.getStatus()).isEqualTo(Trip.Status.PLANNED);
+
+        stopService.markDelivered(trip.getId(), 2);
+
+        t = tripService.getById(trip.getId());
+        assertThat(t.getStopsRemaining()).isZero();
+        assertThat(t.getStatus()).isEqualTo(Trip.Status.FINISHED);
+    }
+
+    @Test
+    void entregasConcorrentesDaMesmaParada_descontamUmaVezSo() throws Exception {
+        Drone d = newDrone();
+        Trip trip = newPlannedTrip(d);
+        for (int i = 1; i <= 3; i++) {
+            Order o = newOrder(i, i, 1.0);
+            stopService.create(trip.getId(), o.getId(), i, i, null);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final boolean bulk = i % 2 == 0;
+            calls.add(pool.submit(() -> {
+                start.await();
+                if (bulk) stopService.markDeliveredAll(trip.getId(), List.of(1, 2));
+                else stopService.markDelivered(trip.getId(), 1);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : calls) {
+            try {
+                f.get();
+            } catch (ExecutionException ignored) {
+                // conflito de lock do banco: a chamada falha inteira, sem descontar nada
+            }
+        }
+        pool.shutdown();
+
+        long undelivered = stopService.listByTrip(trip.getId()).stream().filter(st -> !st.isDelivered()).count();
+        Trip t = tripService.getById(trip.getId());
+        assertThat(undelivered).isEqualTo(1);
+        assertThat(t.getStopsRemaining()).isEqualTo(1);
+        assertThat(t.getStatus()).isEqualTo(Trip.Status.PLANNED);
+    }
+
     @Test
     void updateEstimates_defineHorariosEstimados() {
         Drone d = newDrone();
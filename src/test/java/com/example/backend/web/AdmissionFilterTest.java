@@ -0,0 +1,143 @@
+package com.example.backend.web;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private static MockHttpServletRequest req(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    @Test
+    void classify_separaTelemetriaListagensEResto() {
+        assertThat(AdmissionFilter.classify(req("PATCH", "/drones/7/location"))).isEqualTo(AdmissionFilter.Lane.PRIORITY);
+        assertThat(AdmissionFilter.classify(req("PATCH", "/trips/3/stops/2/delivered"))).isEqualTo(AdmissionFilter.Lane.PRIORITY);
+        assertThat(AdmissionFilter.classify(req("PATCH", "/trips/3/stops/delivered"))).isEqualTo(AdmissionFilter.Lane.PRIORITY);
+
+        assertThat(AdmissionFilter.classify(req("POST", "/plan"))).isEqualTo(AdmissionFilter.Lane.HEAVY);
+        assertThat(AdmissionFilter.classify(req("GET", "/orders"))).isEqualTo(AdmissionFilter.Lane.HEAVY);
+        assertThat(AdmissionFilter.classify(req("GET", "/trips"))).isEqualTo(AdmissionFilter.Lane.HEAVY);
+        assertThat(AdmissionFilter.classify(req("GET", "/orders/export"))).isEqualTo(AdmissionFilter.Lane.HEAVY);
+        assertThat(AdmissionFilter.classify(req("GET", "/trips/export"))).isEqualTo(AdmissionFilter.Lane.HEAVY);
+
+        MockHttpServletRequest filtered = req("GET", "/orders");
+        filtered.setParameter("status", "PENDING");
+        assertThat(AdmissionFilter.classify(filtered)).isEqualTo(AdmissionFilter.Lane.CHEAP);
+        assertThat(AdmissionFilter.classify(req("POST", "/orders"))).isEqualTo(AdmissionFilter.Lane.CHEAP);
+    }
+
+    @Test
+    void cheap_baldeVazio_retorna429ComRetryAfter() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(true, 100, 100, 0.5, 1, 4, 16, 2000);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(req("POST", "/orders"), first, new MockFilterChain());
+        assertThat(first.getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(req("POST", "/orders"), second, new MockFilterChain());
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("2");
+
+        // telemetria tem balde próprio e continua passando
+        MockHttpServletResponse telemetry = new MockHttpServletResponse();
+        filter.doFilter(req("PATCH", "/drones/1/location"), telemetry, new MockFilterChain());
+        assertThat(telemetry.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void export_seguraAVagaAteOStreamTerminar() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(true, 100, 100, 100, 100, 1, 1, 2000);
+        FilterChain streaming = (rq, rs) -> rq.startAsync();
+
+        MockHttpServletRequest export = req("GET", "/orders/export");
+        export.setAsyncSupported(true);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(export, first, streaming);
+        assertThat(export.isAsyncStarted()).isTrue();
+
+        // o controller já retornou, mas o corpo ainda está sendo escrito: a vaga continua ocupada
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(req("GET", "/trips"), second, new MockFilterChain());
+        assertThat(second.getStatus()).isEqualTo(503);
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        filter.doFilter(req("GET", "/trips"), third, new MockFilterChain());
+        assertThat(third.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void planoComBudget_naoReduzOLimiteHeavy() throws Exception {
+        // alvo de 1 ms: qualquer plano é "lento"
+        AdmissionFilter filter = new AdmissionFilter(true, 100, 100, 100, 100, 2, 2, 1);
+        FilterChain slow = (rq, rs) -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest budgeted = req("POST", "/plan");
+            budgeted.setParameter("budgetMs", "5000");
+            filter.doFilter(budgeted, new MockHttpServletResponse(), slow);
+        }
+        assertThat(admitsTwoConcurrent(filter)).isTrue();
+
+        filter.doFilter(req("POST", "/plan"), new MockHttpServletResponse(), slow);
+        assertThat(admitsTwoConcurrent(filter)).isFalse();
+    }
+
+    /* Segura uma vaga com uma exportação em andamento e tenta uma segunda requisição HEAVY */
+    private static boolean admitsTwoConcurrent(AdmissionFilter filter) throws Exception {
+        MockHttpServletRequest export = req("GET", "/trips/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (rq, rs) -> rq.startAsync());
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(req("GET", "/trips"), second, new MockFilterChain());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        return second.getStatus() == 200;
+    }
+
+    @Test
+    void adaptiveLimiter_reduzComLatenciaAltaECresceComBaixa() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 8, 100);
+
+        for (int i = 0; i < 4; i++) assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        long slow = 500_000_000L;
+        for (int i = 0; i < 4; i++) limiter.release(slow);
+        assertThat(limiter.limit()).isLessThan(4);
+
+        int reduced = limiter.limit();
+        for (int round = 0; round < 50; round++) {
+            while (limiter.tryAcquire()) { }
+            int n = limiter.inFlight();
+            for (int i = 0; i < n; i++) limiter.release(1_000_000L);
+        }
+        assertThat(limiter.limit()).isGreaterThan(reduced).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void tokenBucket_repoeFichasComOTempo() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long t0 = System.nanoTime();
+
+        assertThat(bucket.tryAcquire(t0)).isTrue();
+        assertThat(bucket.tryAcquire(t0)).isFalse();
+        assertThat(bucket.tryAcquire(t0 + 100_000_000L)).isTrue();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.backend.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static StoredResponse response(int bodyBytes, Instant at) {
+        return new StoredResponse("fp", 201, "application/json", null, new byte[bodyBytes], null, at);
+    }
+
+    @Test
+    void put_passaDoLimiteDeBytes_descartaAsMaisAntigas() {
+        long oneEntry = response(1000, T0).sizeBytes();
+        IdempotencyCache cache = new IdempotencyCache(100, 2 * oneEntry, Duration.ofHours(1));
+
+        cache.put("a", response(1000, T0), T0);
+        cache.put("b", response(1000, T0), T0);
+        cache.put("c", response(1000, T0), T0);
+
+        assertThat(cache.get("a", T0)).isNull();
+        assertThat(cache.get("b", T0)).isNotNull();
+        assertThat(cache.get("c", T0)).isNotNull();
+        assertThat(cache.bytes()).isEqualTo(2 * oneEntry);
+    }
+
+    @Test
+    void put_substituirEExpirar_mantemContagemDeBytes() {
+        IdempotencyCache cache = new IdempotencyCache(100, 1_000_000, Duration.ofMinutes(1));
+
+        cache.put("a", response(500, T0), T0);
+        cache.put("a", response(100, T0), T0);
+        assertThat(cache.bytes()).isEqualTo(response(100, T0).sizeBytes());
+
+        cache.get("a", T0.plus(Duration.ofMinutes(2)));
+        assertThat(cache.size()).isZero();
+        assertThat(cache.bytes()).isZero();
+    }
+}
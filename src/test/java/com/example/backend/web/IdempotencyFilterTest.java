@@ -0,0 +1,88 @@
+package com.example.backend.web;
+
+import com.example.backend.controller.OrderController;
+import com.example.backend.domain.Order;
+import com.example.backend.exception.GlobalExceptionHandler;
+import com.example.backend.service.OrderService;
+import com.example.backend.service.TripInsertionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = OrderController.class)
+@Import(GlobalExceptionHandler.class)
+class IdempotencyFilterTest {
+
+    @Autowired MockMvc mvc;
+
+    @MockitoBean OrderService orders;
+    @MockitoBean TripInsertionService insertion;
+
+    private static final String BODY = "{\"customerX\":2,\"customerY\":3,\"weightKg\":2.0,\"priority\":\"HIGH\"}";
+
+    private void stubCreate() {
+        Order saved = new Order();
+        saved.setId(10L);
+        saved.setCustomerX(2); saved.setCustomerY(3); saved.setWeightKg(2.0);
+        saved.setStatus(Order.Status.PENDING);
+        Mockito.when(orders.create(any(Order.class))).thenReturn(saved);
+    }
+
+    @Test
+    void post_mesmaChave_executaUmaVezERepeteResposta() throws Exception {
+        stubCreate();
+
+        mvc.perform(post("/orders").header(IdempotencyFilter.HEADER, "k-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+           .andExpect(status().isCreated())
+           .andExpect(jsonPath("$.id", is(10)));
+
+        mvc.perform(post("/orders").header(IdempotencyFilter.HEADER, "k-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+           .andExpect(status().isCreated())
+           .andExpect(header().string("Location", "/orders/10"))
+           .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+           .andExpect(jsonPath("$.id", is(10)));
+
+        Mockito.verify(orders, times(1)).create(any(Order.class));
+    }
+
+    @Test
+    void post_mesmaChaveCorpoDiferente_retorna422() throws Exception {
+        stubCreate();
+
+        mvc.perform(post("/orders").header(IdempotencyFilter.HEADER, "k-2")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+           .andExpect(status().isCreated());
+
+        mvc.perform(post("/orders").header(IdempotencyFilter.HEADER, "k-2")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY.replace("2.0", "3.0")))
+           .andExpect(status().isUnprocessableEntity())
+           .andExpect(jsonPath("$.message", containsString(IdempotencyFilter.HEADER)));
+
+        Mockito.verify(orders, times(1)).create(any(Order.class));
+    }
+
+    @Test
+    void post_semChave_naoDeduplica() throws Exception {
+        stubCreate();
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(BODY))
+               .andExpect(status().isCreated());
+        }
+
+        Mockito.verify(orders, times(2)).create(any(Order.class));
+    }
+}